@@ -1,5 +1,23 @@
 @echo off
 REM OCR Batch Processing Script for Windows
 REM Usage: run-ocr.bat <folder> <language> <color> [guild] [output.csv] [date]
+REM        run-ocr.bat --train-cds <folder> <language> <color> ...   (records throne.jsa for faster startup)
 
-java -jar throne-1.0-SNAPSHOT-fat.jar %*
+set JAR=throne-1.0-SNAPSHOT-fat.jar
+set ARCHIVE=throne.jsa
+
+if "%~1"=="--train-cds" (
+  shift
+  goto train
+)
+
+if exist %ARCHIVE% (
+  java -XX:SharedArchiveFile=%ARCHIVE% -Xshare:auto -jar %JAR% %*
+) else (
+  java -jar %JAR% %*
+)
+goto :eof
+
+:train
+REM Dump the classes loaded by this run into a class-data-sharing archive
+java -XX:ArchiveClassesAtExit=%ARCHIVE% -jar %JAR% %1 %2 %3 %4 %5 %6
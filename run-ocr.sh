@@ -2,5 +2,21 @@
 
 # OCR Batch Processing Script
 # Usage: ./run-ocr.sh <folder> <language> <color> [guild] [output.csv] [date]
+#        ./run-ocr.sh --train-cds <folder> <language> <color> ...   (records throne.jsa for faster startup)
 
-java -jar throne-1.0-SNAPSHOT-fat.jar "$@"
+JAR=throne-1.0-SNAPSHOT-fat.jar
+ARCHIVE=throne.jsa
+
+if [ "$1" = "--train-cds" ]; then
+  shift
+  # Dump the classes loaded by this run into a class-data-sharing archive
+  java -XX:ArchiveClassesAtExit="$ARCHIVE" -jar "$JAR" "$@"
+  exit $?
+fi
+
+if [ -f "$ARCHIVE" ]; then
+  # -Xshare:auto silently falls back if the archive does not match this JVM or jar
+  exec java -XX:SharedArchiveFile="$ARCHIVE" -Xshare:auto -jar "$JAR" "$@"
+fi
+
+exec java -jar "$JAR" "$@"
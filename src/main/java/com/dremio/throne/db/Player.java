@@ -45,6 +45,10 @@ public class Player implements Comparable<Player> {
     return valid;
   }
 
+  public String getDateStr() {
+    return dateStr;
+  }
+
   public String getName() {
     return name;
   }
@@ -141,6 +145,30 @@ public class Player implements Comparable<Player> {
     return csv.toString();
   }
 
+  /**
+   * Parse a line written by {@link #toCSV()}.
+   *
+   * @param line CSV line: date,team,playerName,playerClass,kills,assists,damageDone,damageReceived,healing
+   * @return Parsed player or null if the line is malformed
+   */
+  public static Player fromCSV(String line) {
+    String[] parts = line.trim().split(",");
+    if (parts.length != 9) {
+      return null;
+    }
+    Long[] numeric = new Long[5];
+    try {
+      for (int i = 0; i < numeric.length; i++) {
+        numeric[i] = Long.parseLong(parts[4 + i].trim());
+      }
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    Player player = new Player(parts[2], parts[1], parts[0], numeric);
+    player.setClassName(parts[3]);
+    return player;
+  }
+
   @Override
   public int compareTo(Player o) {
     return Long.compare(o.kills, kills);
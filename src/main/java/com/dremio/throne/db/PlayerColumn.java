@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.db;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Columns of the binary player export, in file order.
+ * Text columns are dictionary encoded, statistics are stored as fixed-width longs.
+ */
+public enum PlayerColumn {
+
+  DATE(Player::getDateStr),
+  GUILD(Player::getGuild),
+  NAME(Player::getName),
+  CLASS(Player::getClassName),
+  KILLS(Player::getKills),
+  ASSISTS(Player::getAssists),
+  DAMAGE_DONE(Player::getDamageDone),
+  DAMAGE_RECEIVED(Player::getDamageReceived),
+  HEALING(Player::getHealing);
+
+  private final Function<Player, String> text;
+  private final ToLongFunction<Player> number;
+
+  PlayerColumn(Function<Player, String> text) {
+    this.text = text;
+    this.number = null;
+  }
+
+  PlayerColumn(ToLongFunction<Player> number) {
+    this.text = null;
+    this.number = number;
+  }
+
+  public boolean isDictionary() {
+    return text != null;
+  }
+
+  String text(Player player) {
+    String value = text.apply(player);
+    return value != null ? value : "";
+  }
+
+  long number(Player player) {
+    return number.applyAsLong(player);
+  }
+}
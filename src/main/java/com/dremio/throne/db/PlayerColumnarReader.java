@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.db;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import static com.dremio.throne.db.PlayerColumnarWriter.DESCRIPTOR_SIZE;
+import static com.dremio.throne.db.PlayerColumnarWriter.HEADER_SIZE;
+import static com.dremio.throne.db.PlayerColumnarWriter.KIND_DICTIONARY;
+
+/**
+ * Memory-mapped reader for files produced by {@link PlayerColumnarWriter}.
+ * Columns are exposed as buffer views over the mapping, so scanning one column never touches the others.
+ */
+public class PlayerColumnarReader implements Closeable {
+
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final int rowCount;
+  private final List<List<String>> dictionaries = new ArrayList<>();
+
+  /**
+   * Map a columnar file for reading.
+   *
+   * @param filename Path to the columnar file
+   * @throws IOException if the file cannot be mapped or is not a columnar player file
+   */
+  public PlayerColumnarReader(String filename) throws IOException {
+    this.channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ);
+    this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    this.buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+    if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != PlayerColumnarWriter.MAGIC) {
+      channel.close();
+      throw new IOException("Not a columnar player file: " + filename);
+    }
+    if (buffer.getInt(4) != PlayerColumnarWriter.VERSION || buffer.getInt(12) != PlayerColumn.values().length) {
+      channel.close();
+      throw new IOException("Unsupported columnar player file version: " + filename);
+    }
+    this.rowCount = buffer.getInt(8);
+
+    for (PlayerColumn column : PlayerColumn.values()) {
+      dictionaries.add(column.isDictionary() ? readDictionary(column) : null);
+    }
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /**
+   * Smallest value of a column; for dictionary columns this is the smallest id.
+   */
+  public long getMin(PlayerColumn column) {
+    return buffer.getLong(descriptor(column) + 8);
+  }
+
+  /**
+   * Largest value of a column; for dictionary columns this is the largest id.
+   */
+  public long getMax(PlayerColumn column) {
+    return buffer.getLong(descriptor(column) + 16);
+  }
+
+  /**
+   * View of a fixed-width statistic column.
+   *
+   * @param column A non-dictionary column
+   * @return Read-only buffer of rowCount values
+   */
+  public LongBuffer longColumn(PlayerColumn column) {
+    checkKind(column, false);
+    return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+        .position((int) dataOffset(column))
+        .slice().order(ByteOrder.LITTLE_ENDIAN)
+        .asLongBuffer().limit(rowCount).asReadOnlyBuffer();
+  }
+
+  /**
+   * View of the dictionary ids of a text column.
+   *
+   * @param column A dictionary column
+   * @return Read-only buffer of rowCount ids
+   */
+  public IntBuffer idColumn(PlayerColumn column) {
+    checkKind(column, true);
+    return buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+        .position((int) dataOffset(column))
+        .slice().order(ByteOrder.LITTLE_ENDIAN)
+        .asIntBuffer().limit(rowCount).asReadOnlyBuffer();
+  }
+
+  /**
+   * Sorted dictionary of a text column; ids index into this list.
+   */
+  public List<String> dictionary(PlayerColumn column) {
+    checkKind(column, true);
+    return dictionaries.get(column.ordinal());
+  }
+
+  public void scan(PlayerColumn column, LongConsumer consumer) {
+    LongBuffer values = longColumn(column);
+    for (int i = 0; i < rowCount; i++) {
+      consumer.accept(values.get(i));
+    }
+  }
+
+  public void scanIds(PlayerColumn column, IntConsumer consumer) {
+    IntBuffer ids = idColumn(column);
+    for (int i = 0; i < rowCount; i++) {
+      consumer.accept(ids.get(i));
+    }
+  }
+
+  public long sum(PlayerColumn column) {
+    long[] total = new long[1];
+    scan(column, value -> total[0] += value);
+    return total[0];
+  }
+
+  /**
+   * Materialise a single row, mostly useful for debugging; scans should prefer column views.
+   */
+  public Player row(int index) {
+    Long[] numeric = new Long[5];
+    int n = 0;
+    for (PlayerColumn column : PlayerColumn.values()) {
+      if (!column.isDictionary()) {
+        numeric[n++] = longColumn(column).get(index);
+      }
+    }
+    Player player = new Player(text(PlayerColumn.NAME, index), text(PlayerColumn.GUILD, index),
+        text(PlayerColumn.DATE, index), numeric);
+    player.setClassName(text(PlayerColumn.CLASS, index));
+    return player;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  private String text(PlayerColumn column, int index) {
+    return dictionary(column).get(idColumn(column).get(index));
+  }
+
+  private List<String> readDictionary(PlayerColumn column) {
+    int size = buffer.getInt(descriptor(column) + 4);
+    int position = (int) buffer.getLong(descriptor(column) + 32);
+    List<String> values = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      int length = buffer.getInt(position);
+      byte[] bytes = new byte[length];
+      buffer.duplicate().position(position + Integer.BYTES).get(bytes);
+      values.add(new String(bytes, StandardCharsets.UTF_8));
+      position += Integer.BYTES + length;
+    }
+    return values;
+  }
+
+  private long dataOffset(PlayerColumn column) {
+    return buffer.getLong(descriptor(column) + 24);
+  }
+
+  private int descriptor(PlayerColumn column) {
+    return HEADER_SIZE + column.ordinal() * DESCRIPTOR_SIZE;
+  }
+
+  private void checkKind(PlayerColumn column, boolean dictionary) {
+    boolean stored = buffer.getInt(descriptor(column)) == KIND_DICTIONARY;
+    if (stored != dictionary) {
+      throw new IllegalArgumentException("Column " + column + " is not a "
+          + (dictionary ? "dictionary" : "numeric") + " column");
+    }
+  }
+}
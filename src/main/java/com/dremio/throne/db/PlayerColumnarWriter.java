@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.db;
+
+import com.dremio.throne.util.PipelineEvents;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Writes players to the compact columnar binary format read by {@link PlayerColumnarReader}.
+ *
+ * <p>Layout (little endian, every section 8-byte aligned):
+ * <pre>
+ *   header      magic, version, rowCount, columnCount (4 x int)
+ *   descriptors per column: kind, dictionarySize (int), min, max, dataOffset, dictionaryOffset (long)
+ *   data        per column: rowCount ids (int) for dictionary columns, rowCount values (long) otherwise
+ *   dictionary  per dictionary column: sorted entries as (int length, UTF-8 bytes)
+ * </pre>
+ * Dictionaries are sorted so ids preserve string order and min/max stay meaningful for text columns.
+ */
+public final class PlayerColumnarWriter {
+
+  static final int MAGIC = 0x43524854; // "THRC"
+  static final int VERSION = 1;
+  static final int KIND_DICTIONARY = 0;
+  static final int KIND_LONG = 1;
+  static final int HEADER_SIZE = 16;
+  static final int DESCRIPTOR_SIZE = 40;
+
+  private PlayerColumnarWriter() {
+  }
+
+  /**
+   * Write players, in the given order, to a columnar binary file.
+   *
+   * @param players Players to write
+   * @param filename Output filename
+   * @throws IOException if writing fails
+   */
+  public static void write(List<Player> players, String filename) throws IOException {
+    PipelineEvents.OutputEvent event = new PipelineEvents.OutputEvent();
+    event.begin();
+    PlayerColumn[] columns = PlayerColumn.values();
+    int rows = players.size();
+
+    List<List<String>> dictionaries = new ArrayList<>();
+    List<Map<String, Integer>> ids = new ArrayList<>();
+    for (PlayerColumn column : columns) {
+      if (!column.isDictionary()) {
+        dictionaries.add(null);
+        ids.add(null);
+        continue;
+      }
+      TreeSet<String> values = new TreeSet<>();
+      for (Player player : players) {
+        values.add(column.text(player));
+      }
+      List<String> dictionary = new ArrayList<>(values);
+      Map<String, Integer> index = new HashMap<>();
+      for (int i = 0; i < dictionary.size(); i++) {
+        index.put(dictionary.get(i), i);
+      }
+      dictionaries.add(dictionary);
+      ids.add(index);
+    }
+
+    // Compute section offsets
+    long[] dataOffsets = new long[columns.length];
+    long[] dictionaryOffsets = new long[columns.length];
+    long offset = align(HEADER_SIZE + (long) DESCRIPTOR_SIZE * columns.length);
+    for (int c = 0; c < columns.length; c++) {
+      dataOffsets[c] = offset;
+      offset = align(offset + (long) rows * (columns[c].isDictionary() ? Integer.BYTES : Long.BYTES));
+    }
+    for (int c = 0; c < columns.length; c++) {
+      if (!columns[c].isDictionary()) {
+        continue;
+      }
+      dictionaryOffsets[c] = offset;
+      for (String value : dictionaries.get(c)) {
+        offset += Integer.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+      }
+      offset = align(offset);
+    }
+
+    if (offset > Integer.MAX_VALUE) {
+      throw new IOException("Too many players for a single columnar file: " + rows);
+    }
+    ByteBuffer buffer = ByteBuffer.allocate((int) offset).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(rows).putInt(columns.length);
+
+    for (int c = 0; c < columns.length; c++) {
+      PlayerColumn column = columns[c];
+      long min = 0;
+      long max = 0;
+      int position = (int) dataOffsets[c];
+      for (int r = 0; r < rows; r++) {
+        Player player = players.get(r);
+        long value;
+        if (column.isDictionary()) {
+          value = ids.get(c).get(column.text(player));
+          buffer.putInt(position + r * Integer.BYTES, (int) value);
+        } else {
+          value = column.number(player);
+          buffer.putLong(position + r * Long.BYTES, value);
+        }
+        min = r == 0 ? value : Math.min(min, value);
+        max = r == 0 ? value : Math.max(max, value);
+      }
+
+      int descriptor = HEADER_SIZE + c * DESCRIPTOR_SIZE;
+      buffer.putInt(descriptor, column.isDictionary() ? KIND_DICTIONARY : KIND_LONG);
+      buffer.putInt(descriptor + 4, column.isDictionary() ? dictionaries.get(c).size() : 0);
+      buffer.putLong(descriptor + 8, min);
+      buffer.putLong(descriptor + 16, max);
+      buffer.putLong(descriptor + 24, dataOffsets[c]);
+      buffer.putLong(descriptor + 32, dictionaryOffsets[c]);
+
+      if (column.isDictionary()) {
+        buffer.position((int) dictionaryOffsets[c]);
+        for (String value : dictionaries.get(c)) {
+          byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+          buffer.putInt(bytes.length).put(bytes);
+        }
+      }
+    }
+
+    buffer.rewind();
+    try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    event.commitFile(filename, "columnar", rows);
+  }
+
+  private static long align(long offset) {
+    return (offset + 7) & ~7L;
+  }
+}
@@ -0,0 +1,332 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.db;
+
+import com.dremio.throne.util.Labels;
+import com.dremio.throne.util.PipelineEvents;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.IsoFields;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Season totals per player, guild and class, plus per player per week and per guild per battle, kept in
+ * rollups.csv and updated with each battle's players so leaderboards never re-read past outputs. Each battle's
+ * rows are kept with the totals so a battle added again replaces its earlier contribution.
+ */
+public class SeasonRollups {
+
+  private static final Logger LOGGER = Logger.getLogger(SeasonRollups.class.getName());
+
+  /** Period of the season-wide rollups. */
+  public static final String SEASON = "season";
+
+  private static final String BATTLE_LINE = "battle";
+  private static final String ROW_LINE = "row";
+
+  /**
+   * Rollup granularity.
+   */
+  public enum Level {
+    PLAYER, GUILD, CLASS, PLAYER_WEEK, GUILD_BATTLE
+  }
+
+  /**
+   * Statistics summed over the battles of one rollup.
+   */
+  public static class Rollup {
+    private final Level level;
+    private final String period;
+    private final String key;
+    private long battles;
+    private long kills;
+    private long assists;
+    private long damageDone;
+    private long damageReceived;
+    private long healing;
+
+    Rollup(Level level, String period, String key) {
+      this.level = level;
+      this.period = period;
+      this.key = key;
+    }
+
+    void add(Player player, int sign) {
+      kills += sign * player.getKills();
+      assists += sign * player.getAssists();
+      damageDone += sign * player.getDamageDone();
+      damageReceived += sign * player.getDamageReceived();
+      healing += sign * player.getHealing();
+    }
+
+    public Level getLevel() {
+      return level;
+    }
+
+    public String getPeriod() {
+      return period;
+    }
+
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * Battles contributing to this rollup.
+     */
+    public long getBattles() {
+      return battles;
+    }
+
+    public long getKills() {
+      return kills;
+    }
+
+    public long getAssists() {
+      return assists;
+    }
+
+    public long getDamageDone() {
+      return damageDone;
+    }
+
+    public long getDamageReceived() {
+      return damageReceived;
+    }
+
+    public long getHealing() {
+      return healing;
+    }
+
+    String toCSV() {
+      return level + "," + period + "," + key + "," + battles + "," + kills + "," + assists + "," + damageDone + ","
+          + damageReceived + "," + healing;
+    }
+
+    static Rollup fromCSV(String line) {
+      String[] parts = line.split(",");
+      if (parts.length != 9) {
+        return null;
+      }
+      try {
+        Rollup rollup = new Rollup(Level.valueOf(parts[0]), parts[1], parts[2]);
+        rollup.battles = Long.parseLong(parts[3]);
+        rollup.kills = Long.parseLong(parts[4]);
+        rollup.assists = Long.parseLong(parts[5]);
+        rollup.damageDone = Long.parseLong(parts[6]);
+        rollup.damageReceived = Long.parseLong(parts[7]);
+        rollup.healing = Long.parseLong(parts[8]);
+        return rollup;
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+    }
+  }
+
+  private final Map<String, Rollup> rollups = new TreeMap<>();
+  /** Players of each battle added, null for battles saved before their rows were kept. */
+  private final Map<String, List<Player>> battles = new TreeMap<>();
+  private final String filename;
+
+  /**
+   * Create rollups backed by a file, loading the rollups it already contains.
+   *
+   * @param filename Path to the rollups file, written by {@link #save()}
+   */
+  public SeasonRollups(String filename) {
+    this.filename = filename;
+    load();
+  }
+
+  /**
+   * Add one battle's players to every rollup, as the battle {@code <date> vs <enemy guild>}.
+   *
+   * @see #add(List, String)
+   */
+  public boolean add(List<Player> players) {
+    return add(players, null);
+  }
+
+  /**
+   * Add one battle's players to every rollup. Each battle's players are kept, so adding a battle again replaces
+   * its earlier contribution instead of counting it twice: a re-run with better reads corrects the rollups.
+   *
+   * @param players Players of one battle, all with the same date
+   * @param battle Key of the battle, or null for {@code <date> vs <enemy guild>}, the first guild other than ours
+   * @return True if the rollups changed
+   */
+  public synchronized boolean add(List<Player> players, String battle) {
+    if (players.isEmpty()) {
+      return false;
+    }
+    String key = battle != null && !battle.trim().isEmpty() ? battle.trim() : battleKey(players);
+    if (battles.containsKey(key)) {
+      List<Player> previous = battles.get(key);
+      if (previous == null) {
+        LOGGER.warning("Battle " + key + " is already in " + filename + " without its rows, rollups not updated");
+        return false;
+      }
+      apply(key, previous, -1);
+      LOGGER.info("Battle " + key + " was already in " + filename + ", its rollups are replaced");
+    }
+    List<Player> rows = new ArrayList<>(players);
+    battles.put(key, rows);
+    apply(key, rows, 1);
+    return true;
+  }
+
+  /**
+   * Rollups of a level, best first.
+   *
+   * @param level Rollup level
+   * @param period Period to keep ({@link #SEASON}, a week such as 2025-W36 or a battle such as
+   *               "2025-09-03 21:00:00 vs Fate"), or null for all
+   * @param metric Statistic to rank by, e.g. Rollup::getKills
+   * @return Sorted rollups
+   */
+  public synchronized List<Rollup> leaderboard(Level level, String period, ToLongFunction<Rollup> metric) {
+    return rollups.values().stream()
+        .filter(rollup -> rollup.level == level && (period == null || rollup.period.equals(period)))
+        .sorted(Comparator.comparingLong(metric).reversed().thenComparing(Rollup::getKey))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Key a battle is added under by default: its date and the enemy guild, so two battles of one day stay apart.
+   */
+  static String battleKey(List<Player> players) {
+    String date = players.get(0).getDateStr();
+    String enemy = players.stream().map(Player::getGuild).filter(guild -> !Labels.SUITS.equals(guild)).findFirst()
+        .orElse(null);
+    return enemy != null ? date + " vs " + enemy : date;
+  }
+
+  public synchronized int getBattleCount() {
+    return battles.size();
+  }
+
+  /**
+   * Write the rollups, replacing the file only once it is complete.
+   *
+   * @throws IOException if writing fails
+   */
+  public synchronized void save() throws IOException {
+    PipelineEvents.OutputEvent event = new PipelineEvents.OutputEvent();
+    event.begin();
+    File file = new File(filename);
+    File temp = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+    try (FileWriter writer = new FileWriter(temp)) {
+      for (Map.Entry<String, List<Player>> battle : battles.entrySet()) {
+        writer.write(BATTLE_LINE + "," + battle.getKey() + "\n");
+        for (Player player : battle.getValue() != null ? battle.getValue() : Collections.<Player>emptyList()) {
+          writer.write(ROW_LINE + "," + player.toCSV() + "\n");
+        }
+      }
+      for (Rollup rollup : rollups.values()) {
+        writer.write(rollup.toCSV() + "\n");
+      }
+    }
+    Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    event.commitFile(filename, "rollups", battles.size() + rollups.size());
+  }
+
+  /**
+   * ISO week of a battle date, e.g. 2025-W36.
+   */
+  static String week(String dateStr) {
+    try {
+      LocalDate date = LocalDate.parse(dateStr.substring(0, Math.min(10, dateStr.length())),
+          DateTimeFormatter.ISO_LOCAL_DATE);
+      return String.format(Locale.ROOT, "%d-W%02d", date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+    } catch (DateTimeParseException e) {
+      return "unknown";
+    }
+  }
+
+  /**
+   * Add (sign 1) or remove (sign -1) a battle's players in every rollup.
+   */
+  private void apply(String battle, List<Player> players, int sign) {
+    String week = week(players.get(0).getDateStr());
+    // A battle counts once per rollup, however many of its players fall in it
+    Set<Rollup> touched = new HashSet<>();
+    for (Player player : players) {
+      touched.add(add(Level.PLAYER, SEASON, player.getName(), player, sign));
+      touched.add(add(Level.GUILD, SEASON, player.getGuild(), player, sign));
+      touched.add(add(Level.CLASS, SEASON, String.valueOf(player.getClassName()), player, sign));
+      touched.add(add(Level.PLAYER_WEEK, week, player.getName(), player, sign));
+      touched.add(add(Level.GUILD_BATTLE, battle, player.getGuild(), player, sign));
+    }
+    for (Rollup rollup : touched) {
+      rollup.battles += sign;
+      if (rollup.battles <= 0) {
+        rollups.remove(id(rollup));
+      }
+    }
+  }
+
+  private Rollup add(Level level, String period, String key, Player player, int sign) {
+    Rollup rollup = rollups.computeIfAbsent(level + "," + period + "," + key, k -> new Rollup(level, period, key));
+    rollup.add(player, sign);
+    return rollup;
+  }
+
+  private static String id(Rollup rollup) {
+    return rollup.level + "," + rollup.period + "," + rollup.key;
+  }
+
+  private void load() {
+    File file = new File(filename);
+    if (!file.exists()) {
+      return;
+    }
+    try {
+      String battle = null;
+      for (String line : Files.readAllLines(file.toPath())) {
+        if (line.startsWith(BATTLE_LINE + ",")) {
+          // Rows follow their battle line; files written before rows were kept only list the battles
+          battle = line.substring(BATTLE_LINE.length() + 1);
+          battles.put(battle, null);
+          continue;
+        }
+        if (line.startsWith(ROW_LINE + ",")) {
+          Player player = Player.fromCSV(line.substring(ROW_LINE.length() + 1));
+          if (player == null || battle == null) {
+            LOGGER.warning("Ignoring malformed rollup line: " + line);
+            continue;
+          }
+          battles.computeIfAbsent(battle, key -> new ArrayList<>()).add(player);
+          continue;
+        }
+        Rollup rollup = Rollup.fromCSV(line);
+        if (rollup != null) {
+          rollups.put(id(rollup), rollup);
+        } else if (!line.trim().isEmpty()) {
+          LOGGER.warning("Ignoring malformed rollup line: " + line);
+        }
+      }
+      LOGGER.info("Loaded " + rollups.size() + " rollups over " + battles.size() + " battles from " + filename);
+    } catch (IOException e) {
+      LOGGER.warning("Failed to read " + filename + ": " + e.getMessage());
+    }
+  }
+}
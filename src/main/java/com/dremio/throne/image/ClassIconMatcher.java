@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.image;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+
+/**
+ * Reads a player's class from the weapon icons of their scoreboard row, by template matching.
+ * <p>
+ * The icons of every cell are shrunk to a small grey patch, centred and normalized, so matching is one dot product
+ * per template and does not depend on resolution or on how bright the background is. Templates are PNG crops of
+ * icon cells named after their class ({@code Tank.png}, {@code Tank_2.png}...) in a library directory. The library
+ * grows by itself: rows of players whose class is known from the roster are added as templates, a few per class.
+ * <p>
+ * Safe for use by several OCR workers.
+ */
+public class ClassIconMatcher {
+
+  private static final Logger LOGGER = Logger.getLogger(ClassIconMatcher.class.getName());
+
+  private static final int PATCH_WIDTH = 48;
+  private static final int PATCH_HEIGHT = 16;
+
+  /** Lowest correlation accepted as a match. */
+  private static final double MIN_SCORE = 0.85;
+
+  /** Lead the best class must have over the next one. */
+  private static final double MIN_MARGIN = 0.05;
+
+  /** Correlation above which a new template adds nothing to an existing one. */
+  private static final double DUPLICATE_SCORE = 0.97;
+
+  private static final int MAX_TEMPLATES = 3;
+
+  /** Luminance range below which a cell holds no icons. */
+  private static final int MIN_CONTRAST = 48;
+
+  private final File directory;
+  private final Map<String, List<float[]>> templates = new LinkedHashMap<>();
+
+  /**
+   * @param directory Template library, created when the first template is learned; null to keep templates in memory
+   */
+  public ClassIconMatcher(File directory) {
+    this.directory = directory;
+    load();
+  }
+
+  /**
+   * Class whose icons match a cell best.
+   *
+   * @param image Screenshot
+   * @param cell Icon cell in image coordinates
+   * @return Class name, or null when no template matches clearly
+   */
+  public String classify(BufferedImage image, Rectangle cell) {
+    float[] patch = patch(image, cell);
+    if (patch == null) {
+      return null;
+    }
+    String best = null;
+    double bestScore = -1;
+    double secondScore = -1;
+    synchronized (templates) {
+      for (Map.Entry<String, List<float[]>> entry : templates.entrySet()) {
+        double score = -1;
+        for (float[] template : entry.getValue()) {
+          score = Math.max(score, correlation(patch, template));
+        }
+        if (score > bestScore) {
+          secondScore = bestScore;
+          bestScore = score;
+          best = entry.getKey();
+        } else if (score > secondScore) {
+          secondScore = score;
+        }
+      }
+    }
+    return bestScore >= MIN_SCORE && bestScore - secondScore >= MIN_MARGIN ? best : null;
+  }
+
+  /**
+   * Add a cell as a template of a class, unless the class has enough templates or one just like it.
+   *
+   * @param className Class of the row's player
+   * @param image Screenshot
+   * @param cell Icon cell in image coordinates
+   */
+  public void learn(String className, BufferedImage image, Rectangle cell) {
+    float[] patch = patch(image, cell);
+    if (patch == null) {
+      return;
+    }
+    int index;
+    synchronized (templates) {
+      List<float[]> known = templates.computeIfAbsent(className, name -> new ArrayList<>());
+      if (known.size() >= MAX_TEMPLATES) {
+        return;
+      }
+      for (float[] template : known) {
+        if (correlation(patch, template) >= DUPLICATE_SCORE) {
+          return;
+        }
+      }
+      known.add(patch);
+      index = known.size();
+    }
+    LOGGER.info("Learned class icon template " + index + " for " + className);
+    if (directory != null) {
+      save(className, index, ImageUtil.crop(image, cell));
+    }
+  }
+
+  /**
+   * Classes with at least one template.
+   */
+  public List<String> getClasses() {
+    synchronized (templates) {
+      return new ArrayList<>(templates.keySet());
+    }
+  }
+
+  private void load() {
+    File[] files = directory != null ? directory.listFiles((dir, name) -> name.endsWith(".png")) : null;
+    if (files == null) {
+      return;
+    }
+    for (File file : files) {
+      String name = file.getName().substring(0, file.getName().length() - ".png".length());
+      String className = name.matches(".*_\\d+") ? name.substring(0, name.lastIndexOf('_')) : name;
+      try {
+        BufferedImage image = ImageIO.read(file);
+        float[] patch = image != null ? patch(image, new Rectangle(0, 0, image.getWidth(), image.getHeight())) : null;
+        if (patch != null) {
+          templates.computeIfAbsent(className, key -> new ArrayList<>()).add(patch);
+        }
+      } catch (IOException e) {
+        LOGGER.warning("Failed to read class icon template " + file + ": " + e.getMessage());
+      }
+    }
+    LOGGER.info("Loaded class icon templates for " + templates.size() + " classes from " + directory);
+  }
+
+  private void save(String className, int index, BufferedImage crop) {
+    File file = new File(directory, index == 1 ? className + ".png" : className + "_" + index + ".png");
+    try {
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        throw new IOException("cannot create " + directory);
+      }
+      ImageIO.write(crop, "png", file);
+    } catch (IOException e) {
+      LOGGER.warning("Failed to save class icon template " + file + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Shrink the icons of a cell to a patch of mean 0 and norm 1. The cell is first cut to the box around its bright
+   * pixels, so the patch does not depend on where the row band starts, then the pixels falling in each patch pixel
+   * are averaged.
+   *
+   * @return Patch, or null for a cell without icons
+   */
+  static float[] patch(BufferedImage image, Rectangle cell) {
+    Rectangle clipped = cell.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+    if (clipped.isEmpty()) {
+      return null;
+    }
+    int[] lum = ImageUtil.luminance(ImageUtil.crop(image, clipped));
+    int min = 255;
+    int max = 0;
+    for (int value : lum) {
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    if (max - min < MIN_CONTRAST) {
+      return null;
+    }
+    int threshold = (min + max) / 2;
+    int x0 = clipped.width;
+    int y0 = clipped.height;
+    int x1 = -1;
+    int y1 = -1;
+    for (int y = 0; y < clipped.height; y++) {
+      for (int x = 0; x < clipped.width; x++) {
+        if (lum[y * clipped.width + x] >= threshold) {
+          x0 = Math.min(x0, x);
+          y0 = Math.min(y0, y);
+          x1 = Math.max(x1, x);
+          y1 = Math.max(y1, y);
+        }
+      }
+    }
+    int width = x1 - x0 + 1;
+    int height = y1 - y0 + 1;
+
+    float[] patch = new float[PATCH_WIDTH * PATCH_HEIGHT];
+    int[] counts = new int[patch.length];
+    for (int y = 0; y < height; y++) {
+      int py = y * PATCH_HEIGHT / height;
+      for (int x = 0; x < width; x++) {
+        int i = py * PATCH_WIDTH + x * PATCH_WIDTH / width;
+        patch[i] += lum[(y0 + y) * clipped.width + x0 + x];
+        counts[i]++;
+      }
+    }
+    double mean = 0;
+    for (int i = 0; i < patch.length; i++) {
+      patch[i] = counts[i] > 0 ? patch[i] / counts[i] : min;
+      mean += patch[i];
+    }
+    mean /= patch.length;
+    double norm = 0;
+    for (int i = 0; i < patch.length; i++) {
+      patch[i] -= mean;
+      norm += patch[i] * patch[i];
+    }
+    norm = Math.sqrt(norm);
+    for (int i = 0; i < patch.length; i++) {
+      patch[i] /= norm;
+    }
+    return patch;
+  }
+
+  private static double correlation(float[] a, float[] b) {
+    double sum = 0;
+    for (int i = 0; i < a.length; i++) {
+      sum += a[i] * b[i];
+    }
+    return sum;
+  }
+}
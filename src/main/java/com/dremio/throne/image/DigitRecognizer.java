@@ -0,0 +1,393 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.image;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Reads the numbers of the scoreboard's stat cells without Tesseract. The game draws them in a single font, so a
+ * cell is cut into glyphs (runs of columns holding bright pixels) and each glyph is matched against templates of
+ * the ten digits. Glyphs much shorter than the digits, such as thousands separators, are ignored.
+ * <p>
+ * Templates are learned from cells Tesseract read: when a cell holds as many glyphs as Tesseract found digits and no
+ * glyph matches another digit's template, each glyph is a candidate for its digit. A candidate becomes a template,
+ * a few per digit, once several cells agree on it, so a single Tesseract misread does not teach a wrong template.
+ * Templates are appended to a glyphs file so later runs start with them. A cell is only read here when every glyph
+ * matches a digit clearly; otherwise it is left to Tesseract.
+ * <p>
+ * Safe for use by several OCR workers.
+ */
+public class DigitRecognizer {
+
+  private static final Logger LOGGER = Logger.getLogger(DigitRecognizer.class.getName());
+
+  /** Glyphs are scaled to this height and centred in a square patch, keeping their proportions. */
+  private static final int PATCH_SIZE = 16;
+
+  /** Lowest correlation accepted for a glyph. */
+  private static final double MIN_SCORE = 0.85;
+
+  /** Lead the best digit must have over the next one. */
+  private static final double MIN_MARGIN = 0.05;
+
+  /** Correlation above which a new template adds nothing to an existing one. */
+  private static final double DUPLICATE_SCORE = 0.97;
+
+  private static final int MAX_TEMPLATES = 3;
+
+  /** Reads of a glyph as the same digit before it becomes a template. */
+  private static final int CONFIRMATIONS = 3;
+
+  /** Unconfirmed glyphs kept per digit. */
+  private static final int MAX_CANDIDATES = 16;
+
+  /** Luminance range below which a cell is empty. */
+  private static final int MIN_CONTRAST = 64;
+
+  /** Glyphs shorter than this share of the tallest glyph of the cell are punctuation. */
+  private static final double MIN_GLYPH_HEIGHT = 0.6;
+
+  private final String filename;
+  private final List<List<float[]>> templates = new ArrayList<>();
+  private final List<List<Candidate>> candidates = new ArrayList<>();
+
+  /**
+   * Glyph waiting for confirmation, with its raw patch for the glyphs file.
+   */
+  private static final class Candidate {
+    final float[] patch;
+    final int[] glyph;
+    int reads = 1;
+
+    Candidate(float[] patch, int[] glyph) {
+      this.patch = patch;
+      this.glyph = glyph;
+    }
+  }
+
+  /**
+   * @param filename Glyphs file templates are loaded from and learned templates appended to, or null to keep them
+   *                 in memory
+   */
+  public DigitRecognizer(String filename) {
+    this.filename = filename;
+    for (int digit = 0; digit < 10; digit++) {
+      templates.add(new ArrayList<>());
+      candidates.add(new ArrayList<>());
+    }
+    if (filename != null) {
+      load();
+    }
+  }
+
+  /**
+   * Read the number of a cell.
+   *
+   * @param image Screenshot
+   * @param cell Stat cell in image coordinates
+   * @return Digits of the number, or null when the cell is empty, some digit has no template yet or a glyph does not
+   *         match a digit clearly
+   */
+  public String recognize(BufferedImage image, Rectangle cell) {
+    if (!isComplete()) {
+      // A digit without template would be read as the closest other digit
+      return null;
+    }
+    List<int[]> glyphs = glyphs(image, cell);
+    if (glyphs == null || glyphs.isEmpty()) {
+      return null;
+    }
+    StringBuilder digits = new StringBuilder();
+    synchronized (templates) {
+      for (int[] glyph : glyphs) {
+        int digit = match(normalize(glyph));
+        if (digit < 0) {
+          return null;
+        }
+        digits.append(digit);
+      }
+    }
+    return digits.toString();
+  }
+
+  /**
+   * Learn the glyphs of a cell read by Tesseract.
+   *
+   * @param image Screenshot
+   * @param cell Stat cell in image coordinates
+   * @param text Tesseract's reading of the cell; ignored unless it only holds digits and spaces
+   */
+  public void learn(BufferedImage image, Rectangle cell, String text) {
+    if (!text.matches("[0-9 ]+")) {
+      return;
+    }
+    String digits = text.replace(" ", "");
+    List<int[]> glyphs = glyphs(image, cell);
+    if (glyphs == null || glyphs.size() != digits.length()) {
+      return;
+    }
+    List<float[]> patches = new ArrayList<>();
+    List<String> learned = new ArrayList<>();
+    synchronized (templates) {
+      // The whole cell must agree with the templates before any glyph of it is used
+      for (int i = 0; i < glyphs.size(); i++) {
+        float[] patch = normalize(glyphs.get(i));
+        int matched = match(patch);
+        if (matched >= 0 && matched != digits.charAt(i) - '0') {
+          // Tesseract and the templates disagree, trust neither
+          return;
+        }
+        patches.add(patch);
+      }
+      for (int i = 0; i < glyphs.size(); i++) {
+        int digit = digits.charAt(i) - '0';
+        float[] patch = patches.get(i);
+        List<float[]> known = templates.get(digit);
+        if (known.size() >= MAX_TEMPLATES || known.stream().anyMatch(t -> correlation(patch, t) >= DUPLICATE_SCORE)) {
+          continue;
+        }
+        Candidate confirmed = confirm(digit, patch, glyphs.get(i));
+        if (confirmed != null) {
+          known.add(confirmed.patch);
+          learned.add(digit + "," + encode(confirmed.glyph));
+        }
+      }
+    }
+    if (!learned.isEmpty()) {
+      LOGGER.fine("Learned " + learned.size() + " digit glyphs from \"" + text + "\"");
+      append(learned);
+    }
+  }
+
+  /**
+   * Count a read of a glyph as a digit.
+   *
+   * @return The candidate the read confirmed, or null while it needs more reads
+   */
+  private Candidate confirm(int digit, float[] patch, int[] glyph) {
+    List<Candidate> waiting = candidates.get(digit);
+    for (Candidate candidate : waiting) {
+      if (correlation(patch, candidate.patch) >= MIN_SCORE) {
+        if (++candidate.reads < CONFIRMATIONS) {
+          return null;
+        }
+        waiting.remove(candidate);
+        return candidate;
+      }
+    }
+    if (waiting.size() < MAX_CANDIDATES) {
+      waiting.add(new Candidate(patch, glyph));
+    }
+    return null;
+  }
+
+  /**
+   * Whether every digit has a template, i.e. any number can be read.
+   */
+  public boolean isComplete() {
+    synchronized (templates) {
+      return templates.stream().noneMatch(List::isEmpty);
+    }
+  }
+
+  /**
+   * Best digit for a glyph.
+   *
+   * @return Digit, or -1 when no digit matches clearly
+   */
+  private int match(float[] patch) {
+    int best = -1;
+    double bestScore = -1;
+    double secondScore = -1;
+    for (int digit = 0; digit < 10; digit++) {
+      double score = -1;
+      for (float[] template : templates.get(digit)) {
+        score = Math.max(score, correlation(patch, template));
+      }
+      if (score > bestScore) {
+        secondScore = bestScore;
+        bestScore = score;
+        best = digit;
+      } else if (score > secondScore) {
+        secondScore = score;
+      }
+    }
+    return bestScore >= MIN_SCORE && bestScore - secondScore >= MIN_MARGIN ? best : -1;
+  }
+
+  /**
+   * Cut a cell into glyph patches, left to right.
+   *
+   * @return Grey patches of PATCH_SIZE x PATCH_SIZE, or null for an empty cell or glyphs touching each other
+   */
+  static List<int[]> glyphs(BufferedImage image, Rectangle cell) {
+    Rectangle clipped = cell.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+    if (clipped.isEmpty()) {
+      return null;
+    }
+    int width = clipped.width;
+    int height = clipped.height;
+    int[] lum = ImageUtil.luminance(ImageUtil.crop(image, clipped));
+    int min = 255;
+    int max = 0;
+    for (int value : lum) {
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    if (max - min < MIN_CONTRAST) {
+      return null;
+    }
+    int threshold = (min + max) / 2;
+
+    // Runs of columns holding ink, with their vertical extent
+    List<int[]> runs = new ArrayList<>();
+    int[] run = null;
+    for (int x = 0; x < width; x++) {
+      int top = -1;
+      int bottom = -1;
+      for (int y = 0; y < height; y++) {
+        if (lum[y * width + x] >= threshold) {
+          top = top < 0 ? y : top;
+          bottom = y;
+        }
+      }
+      if (top < 0) {
+        run = null;
+      } else if (run == null) {
+        run = new int[]{x, x, top, bottom};
+        runs.add(run);
+      } else {
+        run[1] = x;
+        run[2] = Math.min(run[2], top);
+        run[3] = Math.max(run[3], bottom);
+      }
+    }
+    int tallest = runs.stream().mapToInt(r -> r[3] - r[2] + 1).max().orElse(0);
+
+    List<int[]> glyphs = new ArrayList<>();
+    for (int[] r : runs) {
+      int glyphHeight = r[3] - r[2] + 1;
+      int glyphWidth = r[1] - r[0] + 1;
+      if (glyphHeight < MIN_GLYPH_HEIGHT * tallest) {
+        continue;
+      }
+      if (glyphWidth > glyphHeight) {
+        // Touching glyphs, not a digit
+        return null;
+      }
+      int scaledWidth = Math.max(1, Math.round((float) glyphWidth * PATCH_SIZE / glyphHeight));
+      int left = (PATCH_SIZE - scaledWidth) / 2;
+      int[] patch = new int[PATCH_SIZE * PATCH_SIZE];
+      int[] counts = new int[patch.length];
+      for (int y = 0; y < glyphHeight; y++) {
+        int py = y * PATCH_SIZE / glyphHeight;
+        for (int x = 0; x < glyphWidth; x++) {
+          int i = py * PATCH_SIZE + left + x * scaledWidth / glyphWidth;
+          patch[i] += lum[(r[2] + y) * width + r[0] + x];
+          counts[i]++;
+        }
+      }
+      for (int i = 0; i < patch.length; i++) {
+        patch[i] = counts[i] > 0 ? patch[i] / counts[i] : min;
+      }
+      glyphs.add(patch);
+    }
+    return glyphs;
+  }
+
+  /**
+   * Patch of mean 0 and norm 1, so glyphs compare whatever the brightness of the text and background.
+   */
+  private static float[] normalize(int[] glyph) {
+    float[] patch = new float[glyph.length];
+    double mean = 0;
+    for (int value : glyph) {
+      mean += value;
+    }
+    mean /= glyph.length;
+    double norm = 0;
+    for (int i = 0; i < glyph.length; i++) {
+      patch[i] = (float) (glyph[i] - mean);
+      norm += patch[i] * patch[i];
+    }
+    norm = Math.max(1e-6, Math.sqrt(norm));
+    for (int i = 0; i < patch.length; i++) {
+      patch[i] /= norm;
+    }
+    return patch;
+  }
+
+  private static double correlation(float[] a, float[] b) {
+    double sum = 0;
+    for (int i = 0; i < a.length; i++) {
+      sum += a[i] * b[i];
+    }
+    return sum;
+  }
+
+  /**
+   * Two hex characters per patch pixel.
+   */
+  private static String encode(int[] glyph) {
+    StringBuilder hex = new StringBuilder(glyph.length * 2);
+    for (int value : glyph) {
+      hex.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+    }
+    return hex.toString();
+  }
+
+  private static int[] decode(String hex) {
+    int[] glyph = new int[hex.length() / 2];
+    for (int i = 0; i < glyph.length; i++) {
+      glyph[i] = Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+    }
+    return glyph;
+  }
+
+  private void load() {
+    File file = new File(filename);
+    if (!file.exists()) {
+      return;
+    }
+    int count = 0;
+    try {
+      for (String line : Files.readAllLines(file.toPath())) {
+        String[] parts = line.trim().split(",");
+        if (parts.length != 2 || !parts[0].matches("[0-9]") || parts[1].length() != 2 * PATCH_SIZE * PATCH_SIZE) {
+          if (!line.trim().isEmpty()) {
+            LOGGER.warning("Ignoring malformed glyph line in " + filename);
+          }
+          continue;
+        }
+        templates.get(parts[0].charAt(0) - '0').add(normalize(decode(parts[1])));
+        count++;
+      }
+      LOGGER.info("Loaded " + count + " digit glyphs from " + filename);
+    } catch (IOException | NumberFormatException e) {
+      LOGGER.warning("Failed to read " + filename + ": " + e.getMessage());
+    }
+  }
+
+  private synchronized void append(List<String> lines) {
+    if (filename == null) {
+      return;
+    }
+    try (FileWriter writer = new FileWriter(filename, true)) {
+      for (String line : lines) {
+        writer.write(line + "\n");
+      }
+    } catch (IOException e) {
+      LOGGER.warning("Failed to write " + filename + ": " + e.getMessage());
+    }
+  }
+}
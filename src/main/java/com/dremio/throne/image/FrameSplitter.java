@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.image;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.stream.ImageInputStream;
+import org.w3c.dom.Node;
+
+/**
+ * Splits multi-frame images, such as a whole scoreboard scroll exported as one multi-page TIFF or animated GIF,
+ * into one PNG per frame, so frames go through the per-image pipeline (filter, layout, OCR workers) like separate
+ * screenshots instead of being read one after the other in a single Tesseract call.
+ * <p>
+ * GIF frames only hold what changed since the previous frame; they are drawn over the previous ones at their
+ * offset, honouring the "restore to background" disposal, to get whole screenshots back.
+ */
+public final class FrameSplitter {
+
+  private static final String GIF_METADATA = "javax_imageio_gif_image_1.0";
+  private static final String GIF_STREAM_METADATA = "javax_imageio_gif_stream_1.0";
+
+  /**
+   * Whether an image may hold several frames, from its extension.
+   */
+  public static boolean isMultiFrameFormat(File image) {
+    String name = image.getName().toLowerCase(Locale.ROOT);
+    return name.endsWith(".tif") || name.endsWith(".tiff") || name.endsWith(".gif");
+  }
+
+  /**
+   * Split an image into frames.
+   *
+   * @param image Image file
+   * @param directory Directory frames are written to
+   * @return The image itself when it has a single frame, otherwise one PNG per frame in frame order, named after
+   *         the image (scroll.tif gives scroll_frame001.png, scroll_frame002.png...)
+   * @throws IOException if the image cannot be decoded or a frame cannot be written
+   */
+  public static List<File> split(File image, File directory) throws IOException {
+    if (!isMultiFrameFormat(image)) {
+      return Collections.singletonList(image);
+    }
+    try (ImageInputStream input = ImageIO.createImageInputStream(image)) {
+      if (input == null) {
+        throw new IOException("Cannot open " + image);
+      }
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+      if (!readers.hasNext()) {
+        throw new IOException("Unsupported image format: " + image);
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, false, false);
+        int frames = reader.getNumImages(true);
+        if (frames <= 1) {
+          return Collections.singletonList(image);
+        }
+        String name = image.getName().substring(0, image.getName().lastIndexOf('.'));
+        boolean gif = GIF_STREAM_METADATA.equals(nativeFormat(reader.getStreamMetadata()));
+        BufferedImage canvas = null;
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < frames; i++) {
+          BufferedImage frame = reader.read(i);
+          BufferedImage whole = frame;
+          if (gif) {
+            canvas = canvas != null ? canvas : newCanvas(reader.getStreamMetadata(), frame);
+            whole = compose(canvas, frame, reader.getImageMetadata(i));
+          }
+          File file = new File(directory, String.format(Locale.ROOT, "%s_frame%03d.png", name, i + 1));
+          if (!ImageIO.write(whole, "png", file)) {
+            throw new IOException("No PNG writer for frame " + (i + 1) + " of " + image);
+          }
+          files.add(file);
+        }
+        return files;
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * Draw a GIF frame over the previous ones.
+   *
+   * @return Copy of the screen once the frame is drawn; the canvas is then disposed of as the frame asks
+   */
+  private static BufferedImage compose(BufferedImage canvas, BufferedImage frame, IIOMetadata metadata) {
+    Node root = metadata.getAsTree(GIF_METADATA);
+    Node descriptor = child(root, "ImageDescriptor");
+    Node control = child(root, "GraphicControlExtension");
+    int x = descriptor != null ? intAttribute(descriptor, "imageLeftPosition") : 0;
+    int y = descriptor != null ? intAttribute(descriptor, "imageTopPosition") : 0;
+    Graphics2D graphics = canvas.createGraphics();
+    graphics.drawImage(frame, x, y, null);
+    BufferedImage whole = new BufferedImage(canvas.getWidth(), canvas.getHeight(), BufferedImage.TYPE_INT_RGB);
+    Graphics2D copy = whole.createGraphics();
+    copy.drawImage(canvas, 0, 0, null);
+    copy.dispose();
+    if (control != null && "restoreToBackgroundColor".equals(attribute(control, "disposalMethod"))) {
+      graphics.setBackground(new Color(0, 0, 0, 0));
+      graphics.clearRect(x, y, frame.getWidth(), frame.getHeight());
+    }
+    graphics.dispose();
+    return whole;
+  }
+
+  private static BufferedImage newCanvas(IIOMetadata streamMetadata, BufferedImage first) {
+    int width = first.getWidth();
+    int height = first.getHeight();
+    Node screen = streamMetadata != null
+        ? child(streamMetadata.getAsTree(GIF_STREAM_METADATA), "LogicalScreenDescriptor")
+        : null;
+    if (screen != null) {
+      width = Math.max(width, intAttribute(screen, "logicalScreenWidth"));
+      height = Math.max(height, intAttribute(screen, "logicalScreenHeight"));
+    }
+    return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+  }
+
+  private static String nativeFormat(IIOMetadata metadata) {
+    return metadata != null ? metadata.getNativeMetadataFormatName() : null;
+  }
+
+  private static Node child(Node node, String name) {
+    for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (name.equals(child.getNodeName())) {
+        return child;
+      }
+    }
+    return null;
+  }
+
+  private static String attribute(Node node, String name) {
+    Node attribute = node.getAttributes().getNamedItem(name);
+    return attribute != null ? attribute.getNodeValue() : null;
+  }
+
+  private static int intAttribute(Node node, String name) {
+    String value = attribute(node, name);
+    return value != null ? Integer.parseInt(value) : 0;
+  }
+
+  private FrameSplitter() {
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.image;
+
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Pixel helpers shared by the image analysis classes.
+ */
+public final class ImageUtil {
+
+  /**
+   * Luminance (0-255) of every pixel, row-major.
+   */
+  public static int[] luminance(BufferedImage image) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int[] rgb = image.getRGB(0, 0, width, height, null, 0, width);
+    int[] lum = new int[rgb.length];
+    for (int i = 0; i < rgb.length; i++) {
+      lum[i] = luminance(rgb[i]);
+    }
+    return lum;
+  }
+
+  public static int luminance(int rgb) {
+    int r = (rgb >> 16) & 0xFF;
+    int g = (rgb >> 8) & 0xFF;
+    int b = rgb & 0xFF;
+    return (r * 299 + g * 587 + b * 114) / 1000;
+  }
+
+  /**
+   * Copy a region into a new image, so the result does not share a raster with the source.
+   *
+   * @param image Source image
+   * @param region Region to copy, clipped to the image bounds
+   * @return Copied region
+   */
+  public static BufferedImage crop(BufferedImage image, Rectangle region) {
+    Rectangle clipped = region.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+    BufferedImage copy = new BufferedImage(Math.max(1, clipped.width), Math.max(1, clipped.height),
+        BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = copy.createGraphics();
+    try {
+      graphics.drawImage(image, -clipped.x, -clipped.y, null);
+    } finally {
+      graphics.dispose();
+    }
+    return copy;
+  }
+
+  /**
+   * Size of an image file, read from its header without decoding the pixels.
+   *
+   * @return Width and height, or null when the file is not an image ImageIO can read
+   */
+  public static Dimension size(File file) {
+    try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+      Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+      if (readers == null || !readers.hasNext()) {
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(in, true, true);
+        return new Dimension(reader.getWidth(0), reader.getHeight(0));
+      } finally {
+        reader.dispose();
+      }
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  private ImageUtil() {
+  }
+}
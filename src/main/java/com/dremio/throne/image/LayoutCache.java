@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.image;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Scoreboard layouts keyed by screen resolution and UI profile, detected once and persisted to layouts.csv so
+ * later runs crop straight away. A detected layout is only kept once it has the game's columns and rows are found
+ * with it, so a loading screen or a map shot does not decide the layout of its size for good; detection is tried
+ * again on the next images of that size.
+ */
+public class LayoutCache {
+
+  private static final Logger LOGGER = Logger.getLogger(LayoutCache.class.getName());
+
+  /** Images of one size detection is tried on before that size is given up for the run. */
+  static final int MAX_ATTEMPTS = 5;
+
+  private final Map<String, ScoreboardLayout> layouts = new ConcurrentHashMap<>();
+  private final Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+  private final LayoutDetector detector = new LayoutDetector();
+  private final String filename;
+  private final String profile;
+
+  /**
+   * Create a cache backed by a layouts file, loading the layouts it already contains.
+   *
+   * @param filename Path to the layouts file, created on first detection, or null to keep layouts in memory
+   * @param profile Optional UI profile name added to every key
+   */
+  public LayoutCache(String filename, String profile) {
+    this.filename = filename;
+    this.profile = profile;
+    if (filename != null) {
+      load();
+    }
+  }
+
+  /**
+   * Layout for an image, detected and persisted on the first image of a given size that shows a scoreboard.
+   *
+   * @param image Decoded screenshot
+   * @return Layout or null when no table could be detected for this size yet
+   */
+  public ScoreboardLayout get(BufferedImage image) {
+    String key = ScoreboardLayout.key(image.getWidth(), image.getHeight(), profile);
+    ScoreboardLayout layout = layouts.get(key);
+    if (layout != null) {
+      return layout;
+    }
+    AtomicInteger failed = failures.computeIfAbsent(key, k -> new AtomicInteger());
+    if (failed.get() >= MAX_ATTEMPTS) {
+      return null;
+    }
+    ScoreboardLayout detected = detector.detect(image, profile);
+    if (detected == null || !detected.hasStandardColumns() || detector.detectRows(image, detected).isEmpty()) {
+      // Only remembered for this run, a later run may succeed on a better screenshot
+      if (failed.incrementAndGet() == MAX_ATTEMPTS) {
+        LOGGER.warning("No scoreboard layout detected for " + key + " on " + MAX_ATTEMPTS
+            + " images, images of this size are not cropped");
+      }
+      return null;
+    }
+    ScoreboardLayout previous = layouts.putIfAbsent(key, detected);
+    if (previous != null) {
+      // Another worker detected it meanwhile
+      return previous;
+    }
+    LOGGER.info("Detected scoreboard layout " + detected);
+    append(detected);
+    return detected;
+  }
+
+  public int size() {
+    return layouts.size();
+  }
+
+  private void load() {
+    File file = new File(filename);
+    if (!file.exists()) {
+      return;
+    }
+    try {
+      for (String line : Files.readAllLines(file.toPath())) {
+        if (line.trim().isEmpty()) {
+          continue;
+        }
+        ScoreboardLayout layout = ScoreboardLayout.fromCSV(line);
+        if (layout != null) {
+          layouts.put(layout.getKey(), layout);
+        } else {
+          LOGGER.warning("Ignoring malformed layout line: " + line);
+        }
+      }
+      LOGGER.info("Loaded " + size() + " scoreboard layouts from " + filename);
+    } catch (IOException e) {
+      LOGGER.warning("Failed to read " + filename + ": " + e.getMessage());
+    }
+  }
+
+  private synchronized void append(ScoreboardLayout layout) {
+    if (filename == null) {
+      return;
+    }
+    try (FileWriter writer = new FileWriter(filename, true)) {
+      writer.write(layout.toCSV() + "\n");
+    } catch (IOException e) {
+      LOGGER.warning("Failed to write " + filename + ": " + e.getMessage());
+    }
+  }
+}
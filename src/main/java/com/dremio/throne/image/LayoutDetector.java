@@ -0,0 +1,286 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.image;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Finds the scoreboard table in a screenshot from its vertical column separators: thin lines that are
+ * brighter than the pixels on both sides, drawn as one long segment per table row. All separators share the
+ * same segments, which sets them apart from icon strokes (short runs) and scrollbars (one long run).
+ */
+public class LayoutDetector {
+
+  private static final int RADIUS = 3;           // distance of the neighbour pixels compared with a line pixel
+  private static final int CONTRAST = 18;        // luminance difference making a pixel part of a thin line
+  private static final double MIN_COVERAGE = 0.05; // fraction of sampled rows a candidate must be lit on
+  private static final int MIN_RUN = 12;          // average vertical segment length of a separator
+  private static final double SAME_ROWS = 0.8;    // overlap of lit rows between two separators
+  private static final int MIN_COLUMN_WIDTH = 24;
+  static final int MIN_SEPARATORS = 4;
+  private static final int PADDING = 6;
+
+  /**
+   * Detect the table region and column separators.
+   *
+   * @param image Decoded screenshot
+   * @param profile Optional UI profile name, part of the layout key
+   * @return Detected layout or null if the image does not contain a recognizable table
+   */
+  public ScoreboardLayout detect(BufferedImage image, String profile) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    if (width < 4 * RADIUS || height < 4 * RADIUS) {
+      return null;
+    }
+    int[] lum = ImageUtil.luminance(image);
+
+    // Score every x by the number of sampled rows where it looks like a thin vertical line
+    int step = Math.max(1, height / 200);
+    int samples = 0;
+    int[] score = new int[width];
+    for (int y = 0; y < height; y += step) {
+      samples++;
+      int row = y * width;
+      for (int x = RADIUS; x < width - RADIUS; x++) {
+        if (isLine(lum, row, x)) {
+          score[x]++;
+        }
+      }
+    }
+
+    int[] separators = keepConsistent(lum, width, height, 1, findCandidates(score, samples));
+    if (separators.length < MIN_SEPARATORS) {
+      return null;
+    }
+
+    // Vertical extent: rows where at least half of the separators are lit
+    int top = -1;
+    int bottom = -1;
+    for (int y = 0; y < height; y++) {
+      int row = y * width;
+      int lit = 0;
+      for (int separator : separators) {
+        if (isLineNear(lum, row, separator, width)) {
+          lit++;
+        }
+      }
+      if (lit * 2 >= separators.length) {
+        if (top < 0) {
+          top = y;
+        }
+        bottom = y;
+      }
+    }
+    if (top < 0) {
+      return null;
+    }
+
+    // Horizontal extent: outer columns are as wide as their neighbour, or the median column, plus a margin
+    int[] gaps = new int[separators.length - 1];
+    for (int i = 0; i < gaps.length; i++) {
+      gaps[i] = separators[i + 1] - separators[i];
+    }
+    int[] sorted = gaps.clone();
+    Arrays.sort(sorted);
+    int median = sorted[sorted.length / 2];
+    int left = Math.max(0, separators[0] - (int) Math.round(1.25 * Math.max(gaps[0], median)));
+    int right = Math.min(width, separators[separators.length - 1]
+        + (int) Math.round(1.25 * Math.max(gaps[gaps.length - 1], median)));
+    top = Math.max(0, top - PADDING);
+    bottom = Math.min(height - 1, bottom + PADDING);
+
+    Rectangle table = new Rectangle(left, top, right - left, bottom - top + 1);
+    return new ScoreboardLayout(ScoreboardLayout.key(width, height, profile), table, separators);
+  }
+
+  /**
+   * Count the column separators of a table, on an image holding only every rowStep-th row of a screenshot.
+   * Vertical separators survive dropping rows, so this is a cheap signature of a scoreboard.
+   *
+   * @param rows Screenshot with rows subsampled
+   * @param rowStep Rows of the screenshot per row of the subsampled image
+   * @return Number of consistent separators, {@link #MIN_SEPARATORS} or more for a table
+   */
+  public int countSeparators(BufferedImage rows, int rowStep) {
+    int width = rows.getWidth();
+    int height = rows.getHeight();
+    if (width < 4 * RADIUS || height == 0) {
+      return 0;
+    }
+    int[] lum = ImageUtil.luminance(rows);
+    int[] score = new int[width];
+    for (int y = 0; y < height; y++) {
+      for (int x = RADIUS; x < width - RADIUS; x++) {
+        if (isLine(lum, y * width, x)) {
+          score[x]++;
+        }
+      }
+    }
+    return keepConsistent(lum, width, height, rowStep, findCandidates(score, height)).length;
+  }
+
+  /**
+   * Find the table rows of an image with a known layout. Each row draws its own separator segments, so a row
+   * band runs from the middle of the gap above its segments to the middle of the gap below.
+   *
+   * @param image Decoded screenshot
+   * @param layout Layout detected for this image size
+   * @return Row bands as {y0, y1} (inclusive) in image coordinates, top to bottom
+   */
+  public List<int[]> detectRows(BufferedImage image, ScoreboardLayout layout) {
+    int width = image.getWidth();
+    int[] lum = ImageUtil.luminance(image);
+    int[] separators = layout.getSeparators();
+    Rectangle table = layout.getTable();
+    int bottom = Math.min(image.getHeight(), table.y + table.height);
+
+    List<int[]> segments = new ArrayList<>();
+    int start = -1;
+    for (int y = table.y; y <= bottom; y++) {
+      boolean lit = false;
+      if (y < bottom) {
+        int count = 0;
+        for (int separator : separators) {
+          if (isLineNear(lum, y * width, separator, width)) {
+            count++;
+          }
+        }
+        lit = count * 2 >= separators.length;
+      }
+      if (lit && start < 0) {
+        start = y;
+      } else if (!lit && start >= 0) {
+        if (y - start >= MIN_RUN) {
+          segments.add(new int[]{start, y - 1});
+        }
+        start = -1;
+      }
+    }
+
+    List<int[]> rows = new ArrayList<>();
+    for (int i = 0; i < segments.size(); i++) {
+      int[] segment = segments.get(i);
+      int y0 = i == 0 ? Math.max(table.y, segment[0] - PADDING) : (segments.get(i - 1)[1] + segment[0]) / 2 + 1;
+      int y1 = i == segments.size() - 1 ? Math.min(bottom - 1, segment[1] + PADDING)
+          : (segment[1] + segments.get(i + 1)[0]) / 2;
+      rows.add(new int[]{y0, y1});
+    }
+    return rows;
+  }
+
+  private static boolean isLine(int[] lum, int row, int x) {
+    int value = lum[row + x];
+    return value - lum[row + x - RADIUS] >= CONTRAST && value - lum[row + x + RADIUS] >= CONTRAST;
+  }
+
+  private static boolean isLineNear(int[] lum, int row, int x, int width) {
+    for (int dx = -1; dx <= 1; dx++) {
+      int nx = x + dx;
+      if (nx >= RADIUS && nx < width - RADIUS && isLine(lum, row, nx)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Keep candidates drawn as long segments, and among those the largest group lit on the same rows.
+   */
+  private static int[] keepConsistent(int[] lum, int width, int height, int rowStep, int[] candidates) {
+    BitSet[] lit = new BitSet[candidates.length];
+    boolean[] segment = new boolean[candidates.length];
+    for (int i = 0; i < candidates.length; i++) {
+      lit[i] = new BitSet(height);
+      int runs = 0;
+      boolean previous = false;
+      for (int y = 0; y < height; y++) {
+        boolean line = isLineNear(lum, y * width, candidates[i], width);
+        if (line) {
+          lit[i].set(y);
+          if (!previous) {
+            runs++;
+          }
+        }
+        previous = line;
+      }
+      segment[i] = runs > 0 && lit[i].cardinality() * rowStep / runs >= MIN_RUN;
+    }
+
+    int reference = -1;
+    int bestSupport = 0;
+    for (int i = 0; i < candidates.length; i++) {
+      if (!segment[i]) {
+        continue;
+      }
+      int support = 0;
+      for (int j = 0; j < candidates.length; j++) {
+        if (segment[j] && sameRows(lit[i], lit[j])) {
+          support++;
+        }
+      }
+      if (support > bestSupport) {
+        bestSupport = support;
+        reference = i;
+      }
+    }
+    if (reference < 0) {
+      return new int[0];
+    }
+
+    List<Integer> separators = new ArrayList<>();
+    for (int i = 0; i < candidates.length; i++) {
+      if (segment[i] && sameRows(lit[reference], lit[i])) {
+        separators.add(candidates[i]);
+      }
+    }
+    return separators.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /**
+   * Jaccard similarity of the lit rows of two candidates.
+   */
+  private static boolean sameRows(BitSet a, BitSet b) {
+    BitSet intersection = (BitSet) a.clone();
+    intersection.and(b);
+    BitSet union = (BitSet) a.clone();
+    union.or(b);
+    return union.isEmpty() || intersection.cardinality() >= SAME_ROWS * union.cardinality();
+  }
+
+  /**
+   * Group adjacent candidate columns and keep the strongest x of each group.
+   */
+  private static int[] findCandidates(int[] score, int samples) {
+    int threshold = (int) Math.ceil(samples * MIN_COVERAGE);
+    List<Integer> separators = new ArrayList<>();
+    int x = 0;
+    while (x < score.length) {
+      if (score[x] < threshold) {
+        x++;
+        continue;
+      }
+      int best = x;
+      int end = x;
+      while (end + 1 < score.length && (score[end + 1] >= threshold
+          || (end + 2 < score.length && score[end + 2] >= threshold))) {
+        end++;
+        if (score[end] > score[best]) {
+          best = end;
+        }
+      }
+      if (separators.isEmpty() || best - separators.get(separators.size() - 1) >= MIN_COLUMN_WIDTH) {
+        separators.add(best);
+      }
+      x = end + 1;
+    }
+    return separators.stream().mapToInt(Integer::intValue).toArray();
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.image;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Finds scoreboard rows already seen on another screenshot of the batch. The scoreboard is longer than the screen,
+ * so players take several scrolled screenshots that overlap by a few rows; an overlapping row only needs to be read
+ * once.
+ * <p>
+ * A row is compared through the text pixels of each column: bright pixels counted in narrow vertical strips. The
+ * counts do not depend on where the row sits vertically, and the background under the table (which moves with the
+ * map behind it) is too dark to count. Two rows are the same when every column matches; the rank column alone tells
+ * two different rows apart. Edge columns are trimmed (see {@link ScoreboardLayout#getTrimmedColumn}) so chat or UI
+ * text next to the table is ignored.
+ * <p>
+ * Rows are remembered per layout, for the lifetime of the stitcher, so one stitcher is used per batch. Safe for use
+ * by several OCR workers.
+ */
+public class RowStitcher {
+
+  /** Width of the vertical strips text pixels are counted in. */
+  private static final int STRIP_WIDTH = 4;
+
+  /** Luminance from which a pixel is text. */
+  private static final int TEXT_LUMINANCE = 128;
+
+  /** Largest share of a column's text pixels that may differ between two reads of the same row. */
+  private static final double MAX_DIFFERENCE = 0.03;
+
+  private final Map<String, List<int[][]>> seen = new HashMap<>();
+  private final AtomicInteger stitched = new AtomicInteger();
+
+  /**
+   * Check whether a row was already read on another screenshot.
+   *
+   * @param image Screenshot
+   * @param layout Layout of the screenshot, with at least two separators
+   * @param row Row band {y0, y1} in image coordinates, as found by {@link LayoutDetector#detectRows}
+   * @return True if the same row was marked seen on an earlier screenshot
+   */
+  public boolean isDuplicate(BufferedImage image, ScoreboardLayout layout, int[] row) {
+    int[][] signature = signature(image, layout, row);
+    synchronized (seen) {
+      for (int[][] other : seen.getOrDefault(layout.getKey(), Collections.emptyList())) {
+        if (matches(signature, other)) {
+          stitched.incrementAndGet();
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Remember a row once it was read, so later screenshots skip it. Rows whose OCR failed are not marked, the next
+   * screenshot showing them gets another chance.
+   *
+   * @param image Screenshot
+   * @param layout Layout of the screenshot, with at least two separators
+   * @param row Row band {y0, y1} in image coordinates, as found by {@link LayoutDetector#detectRows}
+   */
+  public void markSeen(BufferedImage image, ScoreboardLayout layout, int[] row) {
+    int[][] signature = signature(image, layout, row);
+    synchronized (seen) {
+      seen.computeIfAbsent(layout.getKey(), key -> new ArrayList<>()).add(signature);
+    }
+  }
+
+  /**
+   * Rows found to be duplicates so far.
+   */
+  public int getStitchedRows() {
+    return stitched.get();
+  }
+
+  /**
+   * Text pixel counts per strip, for every column of a row.
+   */
+  static int[][] signature(BufferedImage image, ScoreboardLayout layout, int[] row) {
+    int columns = layout.getColumnCount();
+    int[][] signature = new int[columns][];
+    for (int column = 0; column < columns; column++) {
+      int[] bounds = layout.getTrimmedColumn(column);
+      int x0 = Math.max(0, bounds[0]);
+      int x1 = Math.min(image.getWidth(), bounds[1]);
+      int[] strips = new int[Math.max(0, (x1 - x0) / STRIP_WIDTH)];
+      for (int y = Math.max(0, row[0]); y <= Math.min(image.getHeight() - 1, row[1]); y++) {
+        for (int x = x0; x < x0 + strips.length * STRIP_WIDTH; x++) {
+          if (ImageUtil.luminance(image.getRGB(x, y)) >= TEXT_LUMINANCE) {
+            strips[(x - x0) / STRIP_WIDTH]++;
+          }
+        }
+      }
+      signature[column] = strips;
+    }
+    return signature;
+  }
+
+  static boolean matches(int[][] a, int[][] b) {
+    if (a.length != b.length) {
+      return false;
+    }
+    for (int column = 0; column < a.length; column++) {
+      if (a[column].length != b[column].length) {
+        return false;
+      }
+      long difference = 0;
+      long total = 0;
+      for (int i = 0; i < a[column].length; i++) {
+        difference += Math.abs(a[column][i] - b[column][i]);
+        total += a[column][i] + b[column][i];
+      }
+      if (difference > MAX_DIFFERENCE * total) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.image;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+/**
+ * Cheap check, run before OCR, that a file is a scoreboard screenshot. Only a few rows of the image are decoded
+ * (columns are kept, the table's vertical separators are one pixel wide) and the image is accepted when enough
+ * separators lit on the same rows are found. Loading screens, map shots and memes have none.
+ */
+public class ScoreboardFilter {
+
+  /** Rows decoded from each image. */
+  private static final int SAMPLED_ROWS = 200;
+
+  private final LayoutDetector detector = new LayoutDetector();
+
+  /**
+   * Check a file.
+   *
+   * @param file Image file
+   * @return Null if the file looks like a scoreboard, otherwise the reason it does not
+   */
+  public String reject(File file) {
+    try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+      Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+      if (readers == null || !readers.hasNext()) {
+        return "unsupported image format";
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, true, true);
+        int rowStep = Math.max(1, reader.getHeight(0) / SAMPLED_ROWS);
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(1, rowStep, 0, 0);
+        return reject(reader.read(0, param), rowStep);
+      } finally {
+        reader.dispose();
+      }
+    } catch (IOException e) {
+      return "unreadable image: " + e.getMessage();
+    }
+  }
+
+  /**
+   * Check an image whose rows were subsampled.
+   *
+   * @param rows Image holding every rowStep-th row of the screenshot
+   * @param rowStep Rows of the screenshot per row of the image
+   * @return Null if the image looks like a scoreboard, otherwise the reason it does not
+   */
+  public String reject(BufferedImage rows, int rowStep) {
+    int separators = detector.countSeparators(rows, rowStep);
+    if (separators < LayoutDetector.MIN_SEPARATORS) {
+      return "no scoreboard table (" + separators + " column separators)";
+    }
+    return null;
+  }
+}
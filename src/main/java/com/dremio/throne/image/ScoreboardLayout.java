@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.image;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+/**
+ * Position of the scoreboard table in a screenshot of a given size: the table region and the x position of
+ * every vertical column separator, in image coordinates.
+ */
+public class ScoreboardLayout {
+
+  // Columns of the game's scoreboard, left to right
+  public static final int RANK_COLUMN = 0;
+  public static final int ICON_COLUMN = 1;
+  public static final int GUILD_COLUMN = 2;
+  public static final int NAME_COLUMN = 3;
+  public static final int COLOR_COLUMN = 4;
+  public static final int FIRST_STAT_COLUMN = 5;
+  public static final int COLUMN_COUNT = 10;
+
+  private final String key;
+  private final Rectangle table;
+  private final int[] separators;
+
+  public ScoreboardLayout(String key, Rectangle table, int[] separators) {
+    this.key = key;
+    this.table = new Rectangle(table);
+    this.separators = separators.clone();
+  }
+
+  /**
+   * Cache key for an image: its dimensions, optionally qualified by a UI profile name.
+   */
+  public static String key(int width, int height, String profile) {
+    String key = width + "x" + height;
+    return profile == null || profile.isEmpty() ? key : key + "@" + profile;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public Rectangle getTable() {
+    return new Rectangle(table);
+  }
+
+  public int[] getSeparators() {
+    return separators.clone();
+  }
+
+  public int getColumnCount() {
+    return separators.length + 1;
+  }
+
+  /**
+   * Horizontal extent of a column, from the table edge or a separator to the next one.
+   *
+   * @param index Column index, 0 is the column left of the first separator
+   * @return {x0, x1} in image coordinates
+   */
+  public int[] getColumn(int index) {
+    int x0 = index == 0 ? table.x : separators[index - 1];
+    int x1 = index == separators.length ? table.x + table.width : separators[index];
+    return new int[]{x0, x1};
+  }
+
+  /**
+   * Horizontal extent of a column, edge columns no wider than their neighbour. The table edges are less reliable
+   * than the separators, and chat or UI text next to the table can fall inside the edge columns.
+   *
+   * @param index Column index
+   * @return {x0, x1} in image coordinates
+   */
+  public int[] getTrimmedColumn(int index) {
+    int[] bounds = getColumn(index);
+    int last = separators.length;
+    if (index == 0 && last > 1) {
+      int[] next = getColumn(1);
+      bounds[0] = Math.max(bounds[0], bounds[1] - (next[1] - next[0]));
+    } else if (index == last && last > 1) {
+      int[] previous = getColumn(last - 1);
+      bounds[1] = Math.min(bounds[1], bounds[0] + (previous[1] - previous[0]));
+    }
+    return bounds;
+  }
+
+  /**
+   * Whether the detected columns match the game's scoreboard, so column roles can be used.
+   */
+  public boolean hasStandardColumns() {
+    return getColumnCount() == COLUMN_COUNT;
+  }
+
+  /**
+   * Column containing an x position.
+   *
+   * @param x Position in image coordinates
+   * @return Column index, or -1 when x is outside the table
+   */
+  public int columnAt(int x) {
+    if (x < table.x || x >= table.x + table.width) {
+      return -1;
+    }
+    int index = Arrays.binarySearch(separators, x);
+    return index >= 0 ? index + 1 : -index - 1;
+  }
+
+  /**
+   * Serialize as one layouts.csv line: key,x,y,width,height,sep;sep;...
+   */
+  public String toCSV() {
+    StringBuilder csv = new StringBuilder();
+    csv.append(key).append(",");
+    csv.append(table.x).append(",");
+    csv.append(table.y).append(",");
+    csv.append(table.width).append(",");
+    csv.append(table.height).append(",");
+    for (int i = 0; i < separators.length; i++) {
+      if (i > 0) {
+        csv.append(";");
+      }
+      csv.append(separators[i]);
+    }
+    return csv.toString();
+  }
+
+  /**
+   * Parse a line written by {@link #toCSV()}.
+   *
+   * @param line layouts.csv line
+   * @return Parsed layout or null if the line is malformed
+   */
+  public static ScoreboardLayout fromCSV(String line) {
+    String[] parts = line.trim().split(",");
+    if (parts.length != 6) {
+      return null;
+    }
+    try {
+      Rectangle table = new Rectangle(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]),
+          Integer.parseInt(parts[3]), Integer.parseInt(parts[4]));
+      int[] separators = Arrays.stream(parts[5].split(";")).mapToInt(Integer::parseInt).toArray();
+      return new ScoreboardLayout(parts[0], table, separators);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return toCSV();
+  }
+}
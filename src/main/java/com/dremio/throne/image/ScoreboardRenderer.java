@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.image;
+
+import com.dremio.throne.db.Player;
+import com.dremio.throne.util.Labels;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Draws synthetic scoreboard screenshots with Java2D, following the game's layout: ten columns split by short
+ * separator segments on every row, class icons, guild emblem, name, team colour word and five statistics.
+ */
+public class ScoreboardRenderer {
+
+  /** Separator positions as a fraction of the image width, measured on real screenshots. */
+  private static final double[] SEPARATORS = {0.1027, 0.1498, 0.3218, 0.4938, 0.5587, 0.6182, 0.6773, 0.7662, 0.8551};
+  private static final double TABLE_LEFT = 0.007;
+  private static final double TABLE_RIGHT = 0.945;
+  private static final double ROW_HEIGHT = 0.0862;
+  private static final double TOP = 0.044;
+
+  private static final Color BACKGROUND = new Color(28, 30, 36);
+  private static final Color ROW_LINE = new Color(48, 50, 58);
+  private static final Color SEPARATOR = new Color(96, 96, 102);
+  private static final Color TEXT = new Color(214, 214, 214);
+  private static final Color ICON = new Color(196, 168, 112);
+  private static final Color RED = new Color(212, 58, 48);
+  private static final Color YELLOW = new Color(226, 190, 58);
+
+  private final int width;
+  private final int height;
+  private final boolean english;
+  private final boolean tintColorWords;
+
+  /**
+   * @param width Image width
+   * @param height Image height
+   * @param language Client language, "eng" writes Red/Yellow, anything else Rouge/Jaune
+   * @param tintColorWords Draw the colour word in its team colour instead of the usual grey
+   */
+  public ScoreboardRenderer(int width, int height, String language, boolean tintColorWords) {
+    this.width = width;
+    this.height = height;
+    this.english = language.startsWith("eng");
+    this.tintColorWords = tintColorWords;
+  }
+
+  /**
+   * Number of rows that fit on one screenshot.
+   */
+  public int getRowsPerImage() {
+    return (int) ((height - TOP * height) / rowHeight());
+  }
+
+  /**
+   * Render one screenshot.
+   *
+   * @param players Rows to draw, top to bottom, at most {@link #getRowsPerImage()}
+   * @param colors Team colour of every row, {@link TeamColorClassifier#RED} or {@link TeamColorClassifier#YELLOW}
+   * @param firstRank Rank printed on the first row
+   * @param random Source of background noise
+   * @return The rendered screenshot
+   */
+  public BufferedImage render(List<Player> players, List<String> colors, int firstRank, Random random) {
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    try {
+      g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+      g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      drawBackground(g, random);
+
+      int rowHeight = rowHeight();
+      int top = (int) (TOP * height);
+      int left = (int) (TABLE_LEFT * width);
+      int right = (int) (TABLE_RIGHT * width);
+      Font font = new Font(Font.SANS_SERIF, Font.PLAIN, Math.max(10, (int) (rowHeight * 0.28)));
+      g.setFont(font);
+
+      int rows = Math.min(players.size(), getRowsPerImage());
+      for (int i = 0; i < rows; i++) {
+        int y = top + i * rowHeight;
+        Player player = players.get(i);
+
+        g.setColor(ROW_LINE);
+        g.drawLine(left, y + rowHeight - 1, right, y + rowHeight - 1);
+        g.setColor(SEPARATOR);
+        for (double separator : SEPARATORS) {
+          int x = (int) (separator * width);
+          g.fillRect(x, y + (int) (rowHeight * 0.3), 2, (int) (rowHeight * 0.4));
+        }
+
+        int baseline = y + rowHeight / 2 + g.getFontMetrics().getAscent() / 2 - 2;
+        g.setColor(TEXT);
+        drawCentered(g, String.valueOf(firstRank + i), 0, baseline);
+        drawClassIcons(g, player.getClassName(), column(1), y, rowHeight);
+        drawGuild(g, player.getGuild(), column(2), y, rowHeight, baseline);
+        g.setColor(TEXT);
+        g.drawString(player.getName(), column(3)[0] + rowHeight / 6, baseline);
+
+        String color = colors.get(i);
+        boolean red = TeamColorClassifier.RED.equals(color);
+        g.setColor(tintColorWords ? (red ? RED : YELLOW) : TEXT);
+        drawCentered(g, red ? (english ? "Red" : "Rouge") : (english ? "Yellow" : "Jaune"), 4, baseline);
+
+        g.setColor(TEXT);
+        long[] stats = {player.getKills(), player.getAssists(), player.getDamageDone(),
+            player.getDamageReceived(), player.getHealing()};
+        for (int s = 0; s < stats.length; s++) {
+          drawCentered(g, group(stats[s]), 5 + s, baseline);
+        }
+      }
+    } finally {
+      g.dispose();
+    }
+    return image;
+  }
+
+  /**
+   * Format a number the way the game does, with spaces between thousands.
+   */
+  public static String group(long value) {
+    String digits = Long.toString(value);
+    StringBuilder grouped = new StringBuilder();
+    for (int i = 0; i < digits.length(); i++) {
+      if (i > 0 && (digits.length() - i) % 3 == 0) {
+        grouped.append(' ');
+      }
+      grouped.append(digits.charAt(i));
+    }
+    return grouped.toString();
+  }
+
+  private int rowHeight() {
+    return Math.max(24, (int) (ROW_HEIGHT * height));
+  }
+
+  private int[] column(int index) {
+    int x0 = index == 0 ? (int) (TABLE_LEFT * width) : (int) (SEPARATORS[index - 1] * width);
+    int x1 = index == SEPARATORS.length ? (int) (TABLE_RIGHT * width) : (int) (SEPARATORS[index] * width);
+    return new int[]{x0, x1};
+  }
+
+  private void drawCentered(Graphics2D g, String text, int column, int baseline) {
+    int[] bounds = column(column);
+    FontMetrics metrics = g.getFontMetrics();
+    g.drawString(text, (bounds[0] + bounds[1] - metrics.stringWidth(text)) / 2, baseline);
+  }
+
+  private void drawBackground(Graphics2D g, Random random) {
+    g.setPaint(new GradientPaint(0, 0, BACKGROUND, width, height, BACKGROUND.darker()));
+    g.fillRect(0, 0, width, height);
+
+    // Blurry map shapes behind the table
+    for (int i = 0; i < 12; i++) {
+      int shade = 30 + random.nextInt(20);
+      g.setColor(new Color(shade, shade + 2, shade + 8, 90));
+      int size = height / 4 + random.nextInt(height / 2);
+      g.fillOval(random.nextInt(width), random.nextInt(height), size, size);
+    }
+
+    // Chat and UI text on the right edge, outside the table
+    g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, Math.max(8, height / 60)));
+    int chatX = (int) (TABLE_RIGHT * width) + 6;
+    for (int y = height / 10; y < height; y += height / 25) {
+      g.setColor(new Color(90 + random.nextInt(60), 90 + random.nextInt(60), 90 + random.nextInt(60)));
+      g.drawString("[Guild] " + Long.toString(random.nextLong() & 0xFFFFFFL, 36), chatX, y);
+    }
+  }
+
+  /**
+   * Two weapon icons per row; the pair of shapes is chosen from the class name so each class looks the same
+   * on every screenshot.
+   */
+  private void drawClassIcons(Graphics2D g, String className, int[] column, int y, int rowHeight) {
+    int size = rowHeight / 2;
+    int hash = className == null || className.equals(Labels.UNKNOWN) ? 0 : Math.abs(className.hashCode());
+    int centerY = y + rowHeight / 2;
+    int width = column[1] - column[0];
+    g.setColor(ICON);
+    g.setStroke(new BasicStroke(Math.max(1, size / 10f)));
+    drawWeapon(g, hash % 7, column[0] + width / 4, centerY, size);
+    drawWeapon(g, (hash / 7) % 7, column[0] + 3 * width / 4, centerY, size);
+  }
+
+  private static void drawWeapon(Graphics2D g, int shape, int cx, int cy, int size) {
+    int r = size / 2;
+    switch (shape) {
+      case 0: // sword
+        g.drawLine(cx, cy - r, cx, cy + r);
+        g.drawLine(cx - r / 2, cy + r / 3, cx + r / 2, cy + r / 3);
+        break;
+      case 1: // crossed blades
+        g.drawLine(cx - r, cy - r, cx + r, cy + r);
+        g.drawLine(cx + r, cy - r, cx - r, cy + r);
+        break;
+      case 2: // staff
+        g.drawLine(cx, cy - r / 2, cx, cy + r);
+        g.drawOval(cx - r / 3, cy - r, 2 * r / 3, 2 * r / 3);
+        break;
+      case 3: // bow
+        g.drawArc(cx - r, cy - r, r, 2 * r, -90, 180);
+        g.drawLine(cx - r / 2, cy - r, cx - r / 2, cy + r);
+        break;
+      case 4: // dagger
+        g.drawLine(cx - r / 2, cy + r / 2, cx + r / 2, cy - r / 2);
+        g.drawLine(cx - r / 2, cy - r / 4, cx + r / 4, cy + r / 2);
+        break;
+      case 5: // shield
+        g.drawRoundRect(cx - r / 2, cy - r / 2, r, r + r / 3, r / 2, r / 2);
+        break;
+      default: // wand
+        g.drawLine(cx - r / 2, cy + r, cx + r / 2, cy - r / 2);
+        g.fillOval(cx + r / 3, cy - 2 * r / 3, r / 3, r / 3);
+        break;
+    }
+  }
+
+  private void drawGuild(Graphics2D g, String guild, int[] column, int y, int rowHeight, int baseline) {
+    int size = rowHeight / 3;
+    int x = column[0] + rowHeight / 8;
+    g.setColor(Labels.SUITS.equals(guild) ? new Color(96, 120, 220) : new Color(220, 220, 220));
+    g.fillRoundRect(x, y + (rowHeight - size) / 2, size, size, size / 3, size / 3);
+    g.setColor(TEXT);
+    g.drawString(guild, x + size + rowHeight / 10, baseline);
+  }
+}
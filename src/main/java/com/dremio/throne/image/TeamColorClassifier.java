@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.image;
+
+import com.dremio.throne.util.Labels;
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Classifies a row's team from the pixels of its colour cell, so the colour word never has to be read by Tesseract.
+ * <p>
+ * The game draws the colour word ("Rouge"/"Jaune", "Red"/"Yellow") in the same grey for both teams, so the cue is
+ * the shape of the word: its ink is scaled to a fixed height and matched against word templates of each team, the
+ * way {@link DigitRecognizer} matches digits. Templates are learned from cells Tesseract read, a word shape only
+ * becoming a template once several cells read as the same team agree on it, so a single misread does not teach a
+ * wrong template. UIs that tint the word in the team's colour are classified from its hue without templates.
+ * <p>
+ * Safe for use by several OCR workers; one instance is shared by the batch so every worker benefits from the
+ * templates learned by the others.
+ */
+public class TeamColorClassifier {
+
+  private static final Logger LOGGER = Logger.getLogger(TeamColorClassifier.class.getName());
+
+  public static final String RED = "red";
+  public static final String YELLOW = "yellow";
+
+  private static final float MIN_SATURATION = 0.35f;
+  private static final float MIN_BRIGHTNESS = 0.25f;
+  private static final int MIN_PIXELS = 8;
+  private static final double MIN_AREA_FRACTION = 0.01;
+  private static final int DOMINANCE = 2;         // winning hue must have this many times the pixels of the other
+
+  /** Words are scaled to this height, keeping their proportions, and left-aligned in a patch this wide. */
+  private static final int PATCH_HEIGHT = 16;
+  private static final int PATCH_WIDTH = 96;
+
+  /** Luminance range below which a cell holds no word. */
+  private static final int MIN_CONTRAST = 64;
+
+  /** Lowest correlation accepted for a word. */
+  private static final double MIN_SCORE = 0.8;
+
+  /** Lead the best team must have over the other one. */
+  private static final double MIN_MARGIN = 0.1;
+
+  /** Cells read as the same team a word shape must match before it becomes a template. */
+  private static final int CONFIRMATIONS = 3;
+
+  /** Templates per team, enough for the words of both client languages. */
+  private static final int MAX_TEMPLATES = 4;
+
+  /** Unconfirmed word shapes kept per team. */
+  private static final int MAX_CANDIDATES = 16;
+
+  /**
+   * Word shape waiting for confirmation.
+   */
+  private static final class Candidate {
+    final float[] patch;
+    int reads = 1;
+
+    Candidate(float[] patch) {
+      this.patch = patch;
+    }
+  }
+
+  private final List<float[]> redTemplates = new ArrayList<>();
+  private final List<float[]> yellowTemplates = new ArrayList<>();
+  private final List<Candidate> redCandidates = new ArrayList<>();
+  private final List<Candidate> yellowCandidates = new ArrayList<>();
+
+  /**
+   * Classify the team colour of a cell.
+   *
+   * @param image Decoded screenshot
+   * @param cell Region to sample, clipped to the image bounds
+   * @return {@link #RED}, {@link #YELLOW}, or null when the pixels are not conclusive
+   */
+  public String classify(BufferedImage image, Rectangle cell) {
+    Rectangle region = cell.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+    if (region.isEmpty()) {
+      return null;
+    }
+    String hue = classifyHue(image, region);
+    if (hue != null) {
+      return hue;
+    }
+    float[] patch = wordPatch(image, region);
+    if (patch == null) {
+      return null;
+    }
+    synchronized (this) {
+      if (redTemplates.isEmpty() || yellowTemplates.isEmpty()) {
+        // A word of a team without template would be taken for the other team
+        return null;
+      }
+      double red = bestScore(patch, redTemplates);
+      double yellow = bestScore(patch, yellowTemplates);
+      if (red >= MIN_SCORE && red - yellow >= MIN_MARGIN) {
+        return RED;
+      }
+      if (yellow >= MIN_SCORE && yellow - red >= MIN_MARGIN) {
+        return YELLOW;
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Learn the word shape of a colour cell read by Tesseract.
+   *
+   * @param image Decoded screenshot
+   * @param cell Colour cell in image coordinates
+   * @param text Tesseract's reading of the cell; ignored unless it is a colour word
+   */
+  public void learn(BufferedImage image, Rectangle cell, String text) {
+    String team = team(text);
+    if (team == null) {
+      return;
+    }
+    Rectangle region = cell.intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+    float[] patch = region.isEmpty() ? null : wordPatch(image, region);
+    if (patch == null) {
+      return;
+    }
+    boolean red = RED.equals(team);
+    synchronized (this) {
+      List<float[]> templates = red ? redTemplates : yellowTemplates;
+      List<float[]> others = red ? yellowTemplates : redTemplates;
+      if (bestScore(patch, others) >= MIN_SCORE || bestScore(patch, templates) >= MIN_SCORE
+          || templates.size() >= MAX_TEMPLATES) {
+        // Already known, or the templates disagree with Tesseract and neither is trusted
+        return;
+      }
+      List<Candidate> candidates = red ? redCandidates : yellowCandidates;
+      for (Candidate candidate : candidates) {
+        if (correlation(patch, candidate.patch) >= MIN_SCORE) {
+          if (++candidate.reads >= CONFIRMATIONS) {
+            candidates.remove(candidate);
+            templates.add(candidate.patch);
+            LOGGER.fine("Learned a " + team + " colour word template after " + CONFIRMATIONS + " reads");
+          }
+          return;
+        }
+      }
+      if (candidates.size() < MAX_CANDIDATES) {
+        candidates.add(new Candidate(patch));
+      }
+    }
+  }
+
+  /**
+   * Whether both teams have a word template, i.e. grey colour words can be classified.
+   */
+  public synchronized boolean hasTemplates() {
+    return !redTemplates.isEmpty() && !yellowTemplates.isEmpty();
+  }
+
+  /**
+   * Team of a colour word read by Tesseract, from its first letters so small misreads still count.
+   *
+   * @return {@link #RED}, {@link #YELLOW}, or null when the text is not a colour word
+   */
+  static String team(String text) {
+    for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}]+")) {
+      if (token.length() < 3) {
+        continue;
+      }
+      for (String color : Labels.COLORS) {
+        if (token.startsWith(color.substring(0, 3))) {
+          return color.equals("rouge") || color.equals("red") ? RED : YELLOW;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static String classifyHue(BufferedImage image, Rectangle region) {
+    int[] rgb = image.getRGB(region.x, region.y, region.width, region.height, null, 0, region.width);
+    float[] hsb = new float[3];
+    int red = 0;
+    int yellow = 0;
+    for (int pixel : rgb) {
+      Color.RGBtoHSB((pixel >> 16) & 0xFF, (pixel >> 8) & 0xFF, pixel & 0xFF, hsb);
+      if (hsb[1] < MIN_SATURATION || hsb[2] < MIN_BRIGHTNESS) {
+        continue;
+      }
+      float hue = hsb[0] * 360;
+      if (hue < 20 || hue > 340) {
+        red++;
+      } else if (hue >= 35 && hue <= 70) {
+        yellow++;
+      }
+    }
+
+    int minimum = Math.max(MIN_PIXELS, (int) (rgb.length * MIN_AREA_FRACTION));
+    if (red >= minimum && red >= DOMINANCE * yellow) {
+      return RED;
+    }
+    if (yellow >= minimum && yellow >= DOMINANCE * red) {
+      return YELLOW;
+    }
+    return null;
+  }
+
+  /**
+   * Ink of the word in a cell, scaled to PATCH_HEIGHT and left-aligned in the patch.
+   *
+   * @return Patch of mean 0 and norm 1, or null when the cell holds no word
+   */
+  static float[] wordPatch(BufferedImage image, Rectangle region) {
+    int width = region.width;
+    int height = region.height;
+    int[] lum = ImageUtil.luminance(ImageUtil.crop(image, region));
+    int min = 255;
+    int max = 0;
+    for (int value : lum) {
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    if (max - min < MIN_CONTRAST) {
+      return null;
+    }
+    int threshold = (min + max) / 2;
+    int left = width;
+    int right = -1;
+    int top = height;
+    int bottom = -1;
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        if (lum[y * width + x] >= threshold) {
+          left = Math.min(left, x);
+          right = Math.max(right, x);
+          top = Math.min(top, y);
+          bottom = Math.max(bottom, y);
+        }
+      }
+    }
+    int inkWidth = right - left + 1;
+    int inkHeight = bottom - top + 1;
+    int scaledWidth = Math.min(PATCH_WIDTH, Math.max(1, Math.round((float) inkWidth * PATCH_HEIGHT / inkHeight)));
+    float[] patch = new float[PATCH_WIDTH * PATCH_HEIGHT];
+    int[] counts = new int[patch.length];
+    for (int y = 0; y < inkHeight; y++) {
+      int py = y * PATCH_HEIGHT / inkHeight;
+      for (int x = 0; x < inkWidth; x++) {
+        int i = py * PATCH_WIDTH + x * scaledWidth / inkWidth;
+        patch[i] += Math.max(0, lum[(top + y) * width + left + x] - min);
+        counts[i]++;
+      }
+    }
+    double mean = 0;
+    for (int i = 0; i < patch.length; i++) {
+      patch[i] = counts[i] > 0 ? patch[i] / counts[i] : 0;
+      mean += patch[i];
+    }
+    mean /= patch.length;
+    double norm = 0;
+    for (int i = 0; i < patch.length; i++) {
+      patch[i] -= mean;
+      norm += patch[i] * patch[i];
+    }
+    norm = Math.max(1e-6, Math.sqrt(norm));
+    for (int i = 0; i < patch.length; i++) {
+      patch[i] /= norm;
+    }
+    return patch;
+  }
+
+  private static double bestScore(float[] patch, List<float[]> templates) {
+    double best = -1;
+    for (float[] template : templates) {
+      best = Math.max(best, correlation(patch, template));
+    }
+    return best;
+  }
+
+  private static double correlation(float[] a, float[] b) {
+    double sum = 0;
+    for (int i = 0; i < a.length; i++) {
+      sum += a[i] * b[i];
+    }
+    return sum;
+  }
+}
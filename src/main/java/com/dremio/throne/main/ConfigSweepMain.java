@@ -0,0 +1,241 @@
+package com.dremio.throne.main;
+
+import com.dremio.throne.db.Player;
+import com.dremio.throne.image.LayoutCache;
+import com.dremio.throne.ocr.OCRFileProcessor;
+import com.dremio.throne.ocr.OCRService;
+import com.dremio.throne.ocr.OCRThroneRecognition;
+import com.dremio.throne.ocr.TableExtractor;
+import com.dremio.throne.util.LatencyHistogram;
+import com.dremio.throne.util.MemoryStats;
+import com.dremio.throne.validate.GroundTruth;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Runs a matrix of OCR configurations over a labelled corpus and compares speed, memory and accuracy.
+ * Usage: java -cp throne-1.0-SNAPSHOT-fat.jar com.dremio.throne.main.ConfigSweepMain <folder> <language> [color] [guild] [date] [config...]
+ * A config is written psm=6,oem=1,pre=table,threads=4; pre is one of none, crop or table.
+ */
+public class ConfigSweepMain {
+
+  private static final Logger LOGGER = Logger.getLogger(ConfigSweepMain.class.getName());
+
+  private static final String RESULTS = "sweep_results.csv";
+
+  /** Interval resident memory is sampled at while a configuration runs. */
+  private static final long RSS_SAMPLE_MILLIS = 50;
+
+  /**
+   * One point of the sweep.
+   */
+  static class SweepConfig {
+    int pageSegMode = -1;
+    int engineMode = -1;
+    String preprocessing = "none";
+    int threads = 1;
+
+    static SweepConfig parse(String spec) {
+      SweepConfig config = new SweepConfig();
+      for (String part : spec.split(",")) {
+        String[] keyValue = part.split("=", 2);
+        if (keyValue.length != 2) {
+          throw new IllegalArgumentException("Invalid config part: " + part);
+        }
+        String value = keyValue[1].trim();
+        switch (keyValue[0].trim()) {
+          case "psm":
+            config.pageSegMode = Integer.parseInt(value);
+            break;
+          case "oem":
+            config.engineMode = Integer.parseInt(value);
+            break;
+          case "pre":
+            if (!value.equals("none") && !value.equals("crop") && !value.equals("table")) {
+              throw new IllegalArgumentException("Unknown preprocessing: " + value);
+            }
+            config.preprocessing = value;
+            break;
+          case "threads":
+            config.threads = Math.max(1, Integer.parseInt(value));
+            break;
+          default:
+            throw new IllegalArgumentException("Unknown config key: " + keyValue[0]);
+        }
+      }
+      return config;
+    }
+
+    @Override
+    public String toString() {
+      return "psm=" + pageSegMode + ",oem=" + engineMode + ",pre=" + preprocessing + ",threads=" + threads;
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.out.println("Usage: java -cp <jar> " + ConfigSweepMain.class.getName()
+          + " <folder> <language> [color] [guild] [date] [config...]");
+      System.out.println();
+      System.out.println("  folder  - Images and their " + SyntheticScoreboardMain.GROUND_TRUTH + " (see SyntheticScoreboardMain)");
+      System.out.println("  config  - psm=<n>,oem=<n>,pre=none|crop|table,threads=<n> (default: a built-in matrix)");
+      System.exit(1);
+    }
+
+    String folder = args[0];
+    String language = args[1];
+    String color = args.length > 2 && args[2].equalsIgnoreCase("y") ? "yellow" : "red";
+    String guild = args.length > 3 ? args[3] : "Enemy";
+    String date = args.length > 4 ? args[4] : "2025-09-03 21:00";
+    String dateTimeStr = date.contains(" ") ? date + ":00" : date + " 00:00:00";
+
+    List<SweepConfig> configs = new ArrayList<>();
+    for (int i = 5; i < args.length; i++) {
+      configs.add(SweepConfig.parse(args[i]));
+    }
+    if (configs.isEmpty()) {
+      configs.addAll(defaultMatrix());
+    }
+
+    GroundTruth truth = GroundTruth.load(new File(folder, SyntheticScoreboardMain.GROUND_TRUTH));
+    List<File> images = new ArrayList<>();
+    for (String image : truth.getImages()) {
+      images.add(new File(folder, image));
+    }
+    LOGGER.info("=== Configuration Sweep: " + configs.size() + " configurations x " + images.size() + " images ===");
+
+    ConfigSweepMain sweep = new ConfigSweepMain();
+    List<String> rows = new ArrayList<>();
+    rows.add("config,images_per_sec,p50_ms,p99_ms,peak_heap_mb,max_rss_mb,field_accuracy,row_recall,extra_rows");
+    for (SweepConfig config : configs) {
+      rows.add(sweep.run(config, images, truth, language, color, guild, dateTimeStr));
+    }
+
+    try (FileWriter writer = new FileWriter(RESULTS)) {
+      for (String row : rows) {
+        writer.write(row + "\n");
+      }
+    }
+    printTable(rows);
+    LOGGER.info("✅ Results written to " + RESULTS);
+  }
+
+  private static List<SweepConfig> defaultMatrix() {
+    int cores = Runtime.getRuntime().availableProcessors();
+    List<SweepConfig> configs = new ArrayList<>();
+    for (int psm : new int[]{3, 6, 11}) {
+      for (String preprocessing : new String[]{"none", "crop", "table"}) {
+        for (int threads : new int[]{1, Math.max(1, cores / 2)}) {
+          configs.add(SweepConfig.parse("psm=" + psm + ",oem=1,pre=" + preprocessing + ",threads=" + threads));
+        }
+      }
+    }
+    return configs;
+  }
+
+  /**
+   * Run one configuration over every image.
+   *
+   * @return Result row for sweep_results.csv
+   */
+  String run(SweepConfig config, List<File> images, GroundTruth truth, String language, String color, String guild,
+             String dateTimeStr) throws Exception {
+    truth.reset();
+    LatencyHistogram latencies = new LatencyHistogram();
+    LayoutCache layoutCache = config.preprocessing.equals("none") ? null : new LayoutCache(null, "");
+    ThreadLocal<OCRService> services = ThreadLocal.withInitial(
+        () -> new OCRService(language, config.pageSegMode, config.engineMode));
+    ThreadLocal<TableExtractor> extractors = ThreadLocal.withInitial(() -> new TableExtractor(services.get()));
+    ThreadLocal<OCRThroneRecognition> recognitions = ThreadLocal.withInitial(
+        () -> new OCRThroneRecognition(color, guild, dateTimeStr));
+
+    ExecutorService executor = Executors.newFixedThreadPool(config.threads);
+    ScheduledExecutorService sampler = null;
+    try {
+      // Untimed pass over the first images so every worker has loaded its engine
+      List<Future<?>> warmUp = new ArrayList<>();
+      for (int i = 0; i < Math.min(config.threads, images.size()); i++) {
+        File image = images.get(i);
+        warmUp.add(executor.submit(() -> process(image, config, layoutCache, services.get(), extractors.get())));
+      }
+      for (Future<?> future : warmUp) {
+        future.get();
+      }
+
+      boolean residentReset = MemoryStats.resetPeaks();
+      // The kernel's peak covers every configuration so far unless it could be reset, samples only cover this one
+      AtomicLong maxResident = new AtomicLong(MemoryStats.residentBytes());
+      sampler = Executors.newSingleThreadScheduledExecutor();
+      sampler.scheduleAtFixedRate(() -> maxResident.accumulateAndGet(MemoryStats.residentBytes(), Math::max),
+          RSS_SAMPLE_MILLIS, RSS_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+      long start = System.nanoTime();
+      List<Future<?>> futures = new ArrayList<>();
+      for (File image : images) {
+        futures.add(executor.submit(() -> {
+          long imageStart = System.nanoTime();
+          String text = process(image, config, layoutCache, services.get(), extractors.get());
+          List<Player> players = recognitions.get().recognize(text);
+          latencies.record(System.nanoTime() - imageStart);
+          truth.score(image.getName(), players);
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      sampler.shutdownNow();
+      long resident = maxResident.accumulateAndGet(MemoryStats.residentBytes(), Math::max);
+      if (residentReset) {
+        resident = Math.max(resident, MemoryStats.peakResidentBytes());
+      }
+
+      String row = String.format(Locale.ROOT, "\"%s\",%.2f,%d,%d,%d,%d,%.4f,%.4f,%d", config, images.size() / seconds,
+          latencies.getPercentile(50) / 1_000_000, latencies.getPercentile(99) / 1_000_000,
+          MemoryStats.toMegabytes(MemoryStats.peakHeapBytes()), MemoryStats.toMegabytes(resident),
+          truth.getFieldAccuracy(), truth.getRowRecall(), truth.getExtraRows());
+      LOGGER.info(row);
+      return row;
+    } finally {
+      executor.shutdownNow();
+      if (sampler != null) {
+        sampler.shutdownNow();
+      }
+    }
+  }
+
+  private static String process(File image, SweepConfig config, LayoutCache layoutCache, OCRService service,
+                                TableExtractor extractor) {
+    try {
+      return new OCRFileProcessor(image.getAbsolutePath(), service, layoutCache,
+          config.preprocessing.equals("table") ? extractor : null).call();
+    } catch (Exception e) {
+      LOGGER.warning("Failed to process " + image.getName() + ": " + e.getMessage());
+      return "";
+    }
+  }
+
+  private static void printTable(List<String> rows) {
+    System.out.println();
+    System.out.println(String.format("%-40s %9s %8s %8s %9s %9s %9s %9s %7s", "config", "img/s", "p50 ms",
+        "p99 ms", "heap MB", "max rss MB", "accuracy", "recall", "extra"));
+    for (String row : rows.subList(1, rows.size())) {
+      String config = row.substring(1, row.indexOf('"', 1));
+      String[] values = row.substring(row.indexOf('"', 1) + 2).split(",");
+      System.out.println(String.format(Locale.ROOT, "%-40s %9s %8s %8s %9s %9s %8.1f%% %8.1f%% %7s", config, values[0], values[1],
+          values[2], values[3], values[4], 100 * Double.parseDouble(values[5]), 100 * Double.parseDouble(values[6]),
+          values[7]));
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.dremio.throne.main;
+
+import com.dremio.throne.db.Player;
+import com.dremio.throne.db.SeasonRollups;
+import com.dremio.throne.db.SeasonRollups.Level;
+import com.dremio.throne.db.SeasonRollups.Rollup;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+import java.util.logging.Logger;
+
+/**
+ * Prints season leaderboards from the rollups file, or adds past output CSVs to it.
+ * Usage: java -cp throne-1.0-SNAPSHOT-fat.jar com.dremio.throne.main.LeaderboardMain <rollups.csv> [level] [metric] [period] [top]
+ *        java -cp throne-1.0-SNAPSHOT-fat.jar com.dremio.throne.main.LeaderboardMain <rollups.csv> --add <output.csv>...
+ */
+public class LeaderboardMain {
+
+  private static final Logger LOGGER = Logger.getLogger(LeaderboardMain.class.getName());
+
+  private static final Map<String, ToLongFunction<Rollup>> METRICS = new LinkedHashMap<>();
+
+  static {
+    METRICS.put("kills", Rollup::getKills);
+    METRICS.put("assists", Rollup::getAssists);
+    METRICS.put("damage", Rollup::getDamageDone);
+    METRICS.put("received", Rollup::getDamageReceived);
+    METRICS.put("healing", Rollup::getHealing);
+    METRICS.put("battles", Rollup::getBattles);
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 1) {
+      printUsage();
+      System.exit(1);
+    }
+
+    SeasonRollups rollups = new SeasonRollups(args[0]);
+    if (args.length > 1 && args[1].equals("--add")) {
+      for (int i = 2; i < args.length; i++) {
+        addOutput(rollups, new File(args[i]));
+      }
+      rollups.save();
+      LOGGER.info("✅ " + rollups.getBattleCount() + " battles in " + args[0]);
+      return;
+    }
+
+    Level level = args.length > 1 ? Level.valueOf(args[1].toUpperCase(Locale.ROOT)) : Level.PLAYER;
+    String metricName = args.length > 2 ? args[2].toLowerCase(Locale.ROOT) : "kills";
+    ToLongFunction<Rollup> metric = METRICS.get(metricName);
+    if (metric == null) {
+      System.out.println("Unknown metric " + metricName + ", expected one of " + METRICS.keySet());
+      System.exit(1);
+    }
+    String period = args.length > 3 ? args[3] : (level == Level.PLAYER_WEEK || level == Level.GUILD_BATTLE ? null : SeasonRollups.SEASON);
+    int top = args.length > 4 ? Integer.parseInt(args[4]) : 20;
+
+    List<Rollup> leaderboard = rollups.leaderboard(level, period, metric);
+    System.out.println(String.format("%-4s %-20s %-20s %8s %12s", "#", "period", level.name().toLowerCase(Locale.ROOT),
+        "battles", metricName));
+    for (int i = 0; i < Math.min(top, leaderboard.size()); i++) {
+      Rollup rollup = leaderboard.get(i);
+      System.out.println(String.format("%-4d %-20s %-20s %8d %12d", i + 1, rollup.getPeriod(), rollup.getKey(),
+          rollup.getBattles(), metric.applyAsLong(rollup)));
+    }
+  }
+
+  /**
+   * Add a past output CSV, one battle per date it contains.
+   */
+  private static void addOutput(SeasonRollups rollups, File output) throws Exception {
+    Map<String, List<Player>> battles = new LinkedHashMap<>();
+    for (String line : Files.readAllLines(output.toPath())) {
+      Player player = Player.fromCSV(line);
+      if (player != null) {
+        battles.computeIfAbsent(player.getDateStr(), k -> new ArrayList<>()).add(player);
+      }
+    }
+    for (List<Player> players : battles.values()) {
+      rollups.add(players);
+    }
+    LOGGER.info("Added " + output + " (" + battles.size() + " battles)");
+  }
+
+  private static void printUsage() {
+    System.out.println("Usage: java -cp <jar> " + LeaderboardMain.class.getName() + " <rollups.csv> [level] [metric] [period] [top]");
+    System.out.println("       java -cp <jar> " + LeaderboardMain.class.getName() + " <rollups.csv> --add <output.csv>...");
+    System.out.println();
+    System.out.println("  level   - player, guild, class, player_week or guild_battle (default: player)");
+    System.out.println("  metric  - " + String.join(", ", METRICS.keySet()) + " (default: kills)");
+    System.out.println("  period  - season, a week such as 2025-W36 or a battle such as 2025-09-03 21:00:00 vs Fate (default: season, all for weekly/battle levels)");
+    System.out.println("  top     - Number of rows to print (default: 20)");
+  }
+}
@@ -0,0 +1,414 @@
+package com.dremio.throne.main;
+
+import com.dremio.throne.image.LayoutCache;
+import com.dremio.throne.ocr.OCRFileProcessor;
+import com.dremio.throne.ocr.NativeThreads;
+import com.dremio.throne.ocr.OCRService;
+import com.dremio.throne.ocr.PriorityScheduler;
+import com.dremio.throne.ocr.PriorityScheduler.EngineTask;
+import com.dremio.throne.ocr.PriorityScheduler.Priority;
+import com.dremio.throne.ocr.ProcessEnginePool;
+import com.dremio.throne.util.LatencyHistogram;
+import com.dremio.throne.util.MemoryStats;
+import com.dremio.throne.util.Options;
+import com.dremio.throne.util.RunReport;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Replays a corpus of screenshots against a shared OCR engine pool to find how many images per second one machine
+ * sustains before latency degrades.
+ * <p>
+ * With --rate the load is open-loop: requests are sent on a fixed schedule whatever the pool's progress, and each
+ * latency is measured from the time the request was meant to be sent, so a stalled pool shows in the percentiles
+ * instead of slowing the sender down. With --concurrency a fixed number of clients each wait for their answer
+ * before sending again; adding --rate paces them, and a client that falls behind its schedule has its latency
+ * corrected for the requests it could not send (coordinated omission). Throughput, rejections by full queues, and
+ * heap and native memory over time are written to a report file.
+ * Usage: java -cp throne-1.0-SNAPSHOT-fat.jar com.dremio.throne.main.LoadTestMain <folder> <language> [options]
+ */
+public class LoadTestMain {
+
+  private static final Logger LOGGER = Logger.getLogger(LoadTestMain.class.getName());
+
+  static final String LOAD_SECTION = "load";
+  static final String MEMORY_SECTION = "memory";
+
+  /** Time in-flight requests get to finish once the run is over. */
+  private static final long DRAIN_MILLIS = 60_000;
+
+  private final PriorityScheduler scheduler;
+  private final Priority priority;
+  private final Function<File, EngineTask<String>> requests;
+  private final List<File> corpus;
+  private final LatencyHistogram latencies = new LatencyHistogram();
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong completed = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong unfinished = new AtomicLong();
+
+  /**
+   * @param scheduler Engine pool under test
+   * @param priority Class the requests are submitted as
+   * @param requests Work for one image
+   * @param corpus Images, replayed in a loop
+   */
+  LoadTestMain(PriorityScheduler scheduler, Priority priority, Function<File, EngineTask<String>> requests,
+               List<File> corpus) {
+    this.scheduler = scheduler;
+    this.priority = priority;
+    this.requests = requests;
+    this.corpus = corpus;
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      printUsage();
+      System.exit(1);
+    }
+    String folder = args[0];
+    String language = args[1];
+    double rate = 0;
+    int concurrency = 0;
+    long durationSeconds = 60;
+    int workers = Runtime.getRuntime().availableProcessors();
+    Priority priority = Priority.NORMAL;
+    int queueLimit = -1;
+    long sampleMillis = 1000;
+    String reportFile = "load_report.txt";
+    for (int i = 2; i < args.length; i++) {
+      switch (args[i]) {
+        case "--rate":
+          rate = Double.parseDouble(args[++i]);
+          break;
+        case "--concurrency":
+          concurrency = Integer.parseInt(args[++i]);
+          break;
+        case "--duration":
+          durationSeconds = Long.parseLong(args[++i]);
+          break;
+        case "--workers":
+          workers = Math.max(1, Integer.parseInt(args[++i]));
+          break;
+        case "--priority":
+          priority = Priority.valueOf(args[++i].toUpperCase(Locale.ROOT));
+          break;
+        case "--queue-limit":
+          queueLimit = Integer.parseInt(args[++i]);
+          break;
+        case "--sample":
+          sampleMillis = Math.max(10, Long.parseLong(args[++i]));
+          break;
+        case "--report":
+          reportFile = args[++i];
+          break;
+        default:
+          LOGGER.severe("❌ Unknown option: " + args[i]);
+          printUsage();
+          System.exit(1);
+      }
+    }
+    if (rate <= 0 && concurrency <= 0) {
+      LOGGER.severe("❌ Give --rate or --concurrency");
+      printUsage();
+      System.exit(1);
+    }
+
+    List<File> corpus = Arrays.asList(OCRBatchMain.listImages(folder));
+    if (corpus.isEmpty()) {
+      LOGGER.severe("❌ No images in " + folder);
+      System.exit(1);
+    }
+    int processes = Options.getInt(Options.ENGINE_PROCESSES, 0);
+    ProcessEnginePool engines = processes > 0
+        ? new ProcessEnginePool(processes, language, Options.getInt(Options.ENGINE_DEADLINE, 120) * 1000L,
+            Options.get(Options.ENGINE_HEAP, "512m"))
+        : null;
+    LayoutCache layoutCache = Options.isEnabled(Options.LAYOUT)
+        ? new LayoutCache(Options.get(Options.LAYOUT_FILE, "layouts.csv"), Options.get(Options.LAYOUT_PROFILE, ""))
+        : null;
+    if (engines == null) {
+      new OCRService(language).warmUp();
+    }
+    // Each engine gets its share of the cores, as the batch's workers do, instead of every engine using them all
+    int nativeThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / workers);
+    Function<File, EngineTask<String>> requests = engines != null
+        ? image -> engine -> engines.process(image)
+        : image -> engine -> {
+          NativeThreads.set(nativeThreads);
+          return new OCRFileProcessor(image.getAbsolutePath(), engine, layoutCache).call();
+        };
+
+    Map<Priority, Integer> limits = PriorityScheduler.defaultLimits();
+    if (queueLimit > 0) {
+      limits.put(priority, queueLimit);
+    }
+    LOGGER.info("=== Load Test: " + corpus.size() + " images, " + workers + " engines"
+        + (engines == null ? " of " + nativeThreads + " native threads" : "") + ", "
+        + (concurrency > 0 ? concurrency + " clients" : "open loop") + (rate > 0 ? " at " + rate + " images/sec" : "")
+        + " for " + durationSeconds + " s ===");
+    // Child processes hold the engines, the scheduler's threads then only wait on them
+    Supplier<OCRService> engineFactory = engines != null ? () -> null : () -> new OCRService(language);
+    try (PriorityScheduler scheduler = new PriorityScheduler(workers, engineFactory, 2000, limits)) {
+      LoadTestMain test = new LoadTestMain(scheduler, priority, requests, corpus);
+      test.warmUp(workers);
+      RunReport report = test.run(rate, concurrency, durationSeconds * 1000, sampleMillis);
+      if (engines != null) {
+        engines.report(report);
+      }
+      report.write(reportFile);
+      for (String line : report.getLines(LOAD_SECTION)) {
+        LOGGER.info(line);
+      }
+      LOGGER.info("✅ Report written to " + reportFile);
+    } finally {
+      if (engines != null) {
+        engines.close();
+      }
+    }
+  }
+
+  /**
+   * Untimed requests, one per engine, so engine loading is not measured.
+   */
+  void warmUp(int count) throws InterruptedException {
+    List<Future<String>> futures = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      futures.add(scheduler.submit(priority, requests.apply(corpus.get(i % corpus.size()))));
+    }
+    for (Future<String> future : futures) {
+      try {
+        future.get();
+      } catch (Exception e) {
+        LOGGER.warning("Warm-up request failed: " + e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Run the load.
+   *
+   * @param rate Images per second, 0 for clients sending as fast as they are answered
+   * @param concurrency Clients waiting for their answer before sending again, 0 for an open-loop rate
+   * @param durationMillis Time requests are sent for; requests still running then get a minute to finish
+   * @param sampleMillis Interval of the throughput and memory samples
+   * @return Report with the load summary, memory samples and the scheduler's queue waits
+   */
+  RunReport run(double rate, int concurrency, long durationMillis, long sampleMillis) throws InterruptedException {
+    RunReport report = new RunReport();
+    boolean peaksReset = MemoryStats.resetPeaks();
+    long start = System.nanoTime();
+    ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "load-sampler");
+      thread.setDaemon(true);
+      return thread;
+    });
+    AtomicLong lastCompleted = new AtomicLong();
+    sampler.scheduleAtFixedRate(() -> {
+      long done = completed.get();
+      report.add(MEMORY_SECTION, String.format(Locale.ROOT,
+          "t_s=%.1f completed=%d images_per_sec=%.2f queued=%d heap_mb=%d native_mb=%d rss_mb=%d",
+          (System.nanoTime() - start) / 1e9, done, (done - lastCompleted.getAndSet(done)) * 1000.0 / sampleMillis,
+          scheduler.getQueued(priority), MemoryStats.toMegabytes(MemoryStats.heapUsedBytes()),
+          MemoryStats.toMegabytes(MemoryStats.nativeBytes()), MemoryStats.toMegabytes(MemoryStats.residentBytes())));
+    }, sampleMillis, sampleMillis, TimeUnit.MILLISECONDS);
+
+    long end = start + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+    try {
+      if (concurrency > 0) {
+        runClients(rate, concurrency, end);
+      } else {
+        runOpenLoop(rate, end);
+      }
+    } finally {
+      sampler.shutdownNow();
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    report.add(LOAD_SECTION, concurrency > 0
+        ? "mode=closed-loop clients=" + concurrency + (rate > 0 ? " rate=" + rate : "")
+        : "mode=open-loop rate=" + rate);
+    report.add(LOAD_SECTION, "priority=" + priority.name().toLowerCase(Locale.ROOT));
+    report.add(LOAD_SECTION, String.format(Locale.ROOT, "duration_s=%.1f sent=%d completed=%d failed=%d rejected=%d"
+        + " unfinished=%d rejection_rate=%.4f", seconds, sent.get(), completed.get(), failed.get(), rejected.get(),
+        unfinished.get(), sent.get() == 0 ? 0.0 : (double) rejected.get() / sent.get()));
+    report.add(LOAD_SECTION, String.format(Locale.ROOT, "images_per_sec=%.2f", completed.get() / seconds));
+    report.add(LOAD_SECTION, String.format(Locale.ROOT,
+        "latency_ms p50=%d p90=%d p99=%d p99.9=%d max=%d mean=%.1f values=%d",
+        millis(latencies.getPercentile(50)), millis(latencies.getPercentile(90)), millis(latencies.getPercentile(99)),
+        millis(latencies.getPercentile(99.9)), millis(latencies.getMax()), latencies.getMean() / 1e6,
+        latencies.getCount()));
+    report.add(LOAD_SECTION, "peak_heap_mb=" + MemoryStats.toMegabytes(MemoryStats.peakHeapBytes())
+        // Without a reset the kernel's peak covers the whole process, engine loading included
+        + (peaksReset ? " peak_rss_mb=" : " process_peak_rss_mb=")
+        + MemoryStats.toMegabytes(MemoryStats.peakResidentBytes()));
+    scheduler.report(report);
+    return report;
+  }
+
+  /**
+   * Send on a fixed schedule, never waiting for answers; latencies count from the scheduled send time.
+   */
+  private void runOpenLoop(double rate, long end) throws InterruptedException {
+    long interval = (long) (1e9 / rate);
+    long start = System.nanoTime();
+    List<Future<String>> futures = new ArrayList<>();
+    List<Long> scheduled = new ArrayList<>();
+    List<AtomicBoolean> latencyRecorded = new ArrayList<>();
+    for (long i = 0; ; i++) {
+      long intended = start + i * interval;
+      if (intended >= end) {
+        break;
+      }
+      for (long now = System.nanoTime(); now < intended; now = System.nanoTime()) {
+        LockSupport.parkNanos(intended - now);
+      }
+      File image = corpus.get((int) (i % corpus.size()));
+      EngineTask<String> task = requests.apply(image);
+      AtomicBoolean recorded = new AtomicBoolean();
+      sent.incrementAndGet();
+      try {
+        futures.add(scheduler.submit(priority, engine -> {
+          try {
+            String text = task.call(engine);
+            completed.incrementAndGet();
+            return text;
+          } catch (Exception e) {
+            failed.incrementAndGet();
+            throw e;
+          } finally {
+            record(recorded, intended);
+          }
+        }));
+        scheduled.add(intended);
+        latencyRecorded.add(recorded);
+      } catch (RejectedExecutionException e) {
+        rejected.incrementAndGet();
+      }
+    }
+    drain(futures, scheduled, latencyRecorded);
+  }
+
+  /**
+   * Clients sending their next request once answered, paced when a rate is given.
+   */
+  private void runClients(double rate, int concurrency, long end) throws InterruptedException {
+    // Each client's share of the rate
+    long interval = rate > 0 ? (long) (1e9 * concurrency / rate) : 0;
+    ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+    AtomicLong counter = new AtomicLong();
+    try {
+      List<Future<?>> running = new ArrayList<>();
+      for (int c = 0; c < concurrency; c++) {
+        running.add(clients.submit(() -> {
+          long next = System.nanoTime();
+          while (next < end) {
+            for (long now = System.nanoTime(); now < next; now = System.nanoTime()) {
+              LockSupport.parkNanos(next - now);
+            }
+            File image = corpus.get((int) (counter.getAndIncrement() % corpus.size()));
+            long sendTime = System.nanoTime();
+            sent.incrementAndGet();
+            boolean answered = true;
+            try {
+              scheduler.submit(priority, requests.apply(image)).get();
+              completed.incrementAndGet();
+            } catch (RejectedExecutionException e) {
+              // Turned away at once, its near-zero wait is not a latency
+              rejected.incrementAndGet();
+              answered = false;
+            } catch (Exception e) {
+              failed.incrementAndGet();
+            }
+            long now = System.nanoTime();
+            if (answered) {
+              latencies.recordCorrected(now - sendTime, interval);
+            }
+            // A client behind its schedule sends at once, the missed sends are in the corrected histogram
+            next = interval > 0 ? Math.max(next + interval, now) : now;
+          }
+          return null;
+        }));
+      }
+      for (Future<?> client : running) {
+        try {
+          client.get();
+        } catch (Exception e) {
+          LOGGER.warning("Load client failed: " + e.getMessage());
+        }
+      }
+    } finally {
+      clients.shutdownNow();
+    }
+  }
+
+  /**
+   * Wait for the requests still running; those not done in time count with the latency they had reached, and are
+   * not counted again if they finish later.
+   */
+  private void drain(List<Future<String>> futures, List<Long> scheduled, List<AtomicBoolean> latencyRecorded)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DRAIN_MILLIS);
+    for (int i = 0; i < futures.size(); i++) {
+      try {
+        futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        unfinished.incrementAndGet();
+        futures.get(i).cancel(false);
+        record(latencyRecorded.get(i), scheduled.get(i));
+      } catch (Exception e) {
+        // counted as failed by the request itself
+      }
+    }
+  }
+
+  /**
+   * Record a request's latency unless it already was.
+   */
+  private void record(AtomicBoolean recorded, long intended) {
+    if (recorded.compareAndSet(false, true)) {
+      latencies.record(System.nanoTime() - intended);
+    }
+  }
+
+  private static long millis(long nanos) {
+    return nanos / 1_000_000;
+  }
+
+  private static void printUsage() {
+    System.out.println("Load test of the OCR engine pool");
+    System.out.println("Usage: java -cp throne-1.0-SNAPSHOT-fat.jar com.dremio.throne.main.LoadTestMain <folder> <language> [options]");
+    System.out.println();
+    System.out.println("Options:");
+    System.out.println("  --rate <n>         Images per second, open loop unless --concurrency is given");
+    System.out.println("  --concurrency <n>  Clients each waiting for their answer before sending again");
+    System.out.println("  --duration <s>     Time requests are sent for (default: 60)");
+    System.out.println("  --workers <n>      OCR engines, each using cores / n native threads (default: available cores)");
+    System.out.println("  --priority <p>     interactive, normal or bulk (default: normal)");
+    System.out.println("  --queue-limit <n>  Queued requests accepted before rejecting (default: the class's limit)");
+    System.out.println("  --sample <ms>      Interval of throughput and memory samples (default: 1000)");
+    System.out.println("  --report <file>    Report file (default: load_report.txt)");
+    System.out.println();
+    System.out.println("Examples:");
+    System.out.println("  java -cp <jar> com.dremio.throne.main.LoadTestMain src/test/resources/img fra --rate 2 --duration 120");
+    System.out.println("  java -cp <jar> com.dremio.throne.main.LoadTestMain ./synthetic fra --concurrency 8");
+  }
+}
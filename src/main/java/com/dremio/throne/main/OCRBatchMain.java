@@ -1,20 +1,55 @@
 package com.dremio.throne.main;
 
 import com.dremio.throne.db.Player;
+import com.dremio.throne.db.PlayerClassLoader;
+import com.dremio.throne.db.PlayerColumnarWriter;
+import com.dremio.throne.db.SeasonRollups;
+import com.dremio.throne.image.ClassIconMatcher;
+import com.dremio.throne.image.DigitRecognizer;
+import com.dremio.throne.image.FrameSplitter;
+import com.dremio.throne.image.LayoutCache;
+import com.dremio.throne.image.RowStitcher;
+import com.dremio.throne.image.ScoreboardFilter;
+import com.dremio.throne.image.TeamColorClassifier;
+import com.dremio.throne.ocr.AdaptiveScheduler;
+import com.dremio.throne.ocr.LanguageRouter;
 import com.dremio.throne.ocr.OCRFileProcessor;
 import com.dremio.throne.ocr.OCRService;
 import com.dremio.throne.ocr.OCRThroneRecognition;
+import com.dremio.throne.ocr.ProcessEnginePool;
+import com.dremio.throne.ocr.TableExtractor;
+import com.dremio.throne.util.Options;
+import com.dremio.throne.util.PipelineEvents;
+import com.dremio.throne.util.RawOcrFile;
+import com.dremio.throne.util.RunReport;
+import com.dremio.throne.util.WorkQueue;
+import com.dremio.throne.validate.PlayerAliasCache;
 import com.dremio.throne.validate.PlayerValidator;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Main class for batch OCR processing using OCRFileProcessor.
@@ -24,7 +59,26 @@ public class OCRBatchMain {
 
   private static final Logger LOGGER = Logger.getLogger(OCRBatchMain.class.getName());
 
+  private static final String FILTER_SECTION = "filter";
+  private static final String QUEUE_SECTION = "queue";
+  private static final String FRAMES_SECTION = "frames";
+  private static final String QUEUE_LANGUAGE = "language";
+  private static final String QUEUE_FOLDER = "folder";
+  private static final long QUEUE_POLL_MILLIS = 1000;
+
   public static void main(String[] args) {
+    String queueDirectory = Options.get(Options.QUEUE, null);
+    if (queueDirectory != null && Options.get(Options.QUEUE_ROLE, "coordinator").equalsIgnoreCase("worker")) {
+      // Workers take everything they need from the queue
+      try {
+        new OCRBatchMain().runQueueWorker(openQueue(queueDirectory));
+      } catch (Exception e) {
+        LOGGER.severe("❌ Queue worker failed: " + e.getMessage());
+        e.printStackTrace();
+        System.exit(1);
+      }
+      return;
+    }
     if (args.length < 3) {
       printUsage();
       System.exit(1);
@@ -81,7 +135,11 @@ public class OCRBatchMain {
     try {
       OCRBatchMain processor = new OCRBatchMain();
 
-      processor.processImages(imageFolder, language, color, guild, outputCsv, dateTimeStr);
+      if (queueDirectory != null) {
+        processor.processQueue(openQueue(queueDirectory), imageFolder, language, color, guild, outputCsv, dateTimeStr);
+      } else {
+        processor.processImages(imageFolder, language, color, guild, outputCsv, dateTimeStr);
+      }
 
       LOGGER.info("✅ Processing complete!");
       LOGGER.info("Results written to: " + outputCsv);
@@ -94,6 +152,36 @@ public class OCRBatchMain {
   }
 
   public void processImages(String imageFolder, String language, String color, String guild, String outputCsv, String dateTimeStr) throws Exception {
+    // Create OCR service with specified language, natives and language data load while files are listed
+    warmUp(language);
+
+    File[] imageFiles = listImages(imageFolder);
+    if (imageFiles.length == 0) {
+      LOGGER.warning("No image files found in: " + imageFolder);
+      return;
+    }
+
+    LOGGER.info("Found " + imageFiles.length + " image files to process");
+
+    RunReport report = new RunReport();
+    Map<String, String> skipped = new ConcurrentHashMap<>();
+    List<File> images = Arrays.asList(imageFiles);
+    String[] results = ocrImages(images, language, report, skipped);
+    reportSkipped(report, skipped.size(), new TreeMap<>(skipped).entrySet().stream()
+        .map(entry -> entry.getKey() + ": " + entry.getValue()).collect(Collectors.toList()));
+    writeReport(report);
+
+    finishBatch(aggregate(images, results, skipped), color, guild, outputCsv, dateTimeStr);
+  }
+
+  /**
+   * Image files of a folder.
+   *
+   * @param imageFolder Folder to list
+   * @return Image files, empty if there are none
+   * @throws IOException if the folder does not exist
+   */
+  static File[] listImages(String imageFolder) throws IOException {
     File folder = new File(imageFolder);
 
     // Validate input folder
@@ -108,56 +196,363 @@ public class OCRBatchMain {
           lower.endsWith(".tiff") || lower.endsWith(".tif") || lower.endsWith(".bmp") ||
           lower.endsWith(".gif");
     });
-
-    if (imageFiles == null || imageFiles.length == 0) {
-      LOGGER.warning("No image files found in: " + imageFolder);
-      return;
+    if (imageFiles == null) {
+      return new File[0];
     }
+    Arrays.sort(imageFiles);
+    return imageFiles;
+  }
 
-    LOGGER.info("Found " + imageFiles.length + " image files to process");
-
-    // Create OCR service with specified language
-    OCRService ocrService = new OCRService(language);
+  /**
+   * OCR images, multi-frame TIFF and GIF files split into frames read in parallel like separate images.
+   *
+   * @param images Images to process
+   * @param language OCR language, or comma-separated languages to pick one per image
+   * @param report Report the scheduler settings are added to
+   * @param skipped Filled with the images (or frames) the scoreboard filter rejected, and why
+   * @return OCR output per image, frames joined in frame order, null for skipped or failed images
+   */
+  private String[] ocrImages(List<File> images, String language, RunReport report, Map<String, String> skipped)
+      throws InterruptedException, IOException {
+    if (images.stream().noneMatch(FrameSplitter::isMultiFrameFormat)) {
+      return ocrFiles(images, Collections.emptyMap(), language, report, skipped);
+    }
+    Path frameDirectory = Files.createTempDirectory("throne-frames");
+    try {
+      List<File> files = new ArrayList<>();
+      Map<File, File> sources = new HashMap<>();
+      int[] frameCounts = new int[images.size()];
+      for (int i = 0; i < images.size(); i++) {
+        List<File> frames;
+        try {
+          // One directory per image, scroll.tif and scroll.gif giving frames of the same name
+          File directory = frameDirectory.resolve(Integer.toString(i)).toFile();
+          Files.createDirectories(directory.toPath());
+          frames = FrameSplitter.split(images.get(i), directory);
+        } catch (IOException e) {
+          // Left to the OCR pipeline, which reports the error for this image only
+          LOGGER.warning("Failed to split " + images.get(i).getName() + " into frames: " + e.getMessage());
+          frames = Collections.singletonList(images.get(i));
+        }
+        if (frames.size() > 1) {
+          LOGGER.info("🎞️ " + images.get(i).getName() + ": " + frames.size() + " frames");
+          report.add(FRAMES_SECTION, images.get(i).getName() + " frames=" + frames.size());
+        }
+        files.addAll(frames);
+        frameCounts[i] = frames.size();
+        if (frames.size() > 1) {
+          for (File frame : frames) {
+            sources.put(frame, images.get(i));
+          }
+        }
+      }
 
-    StringBuilder sb = new StringBuilder();
-    // Process each image sequentially
-    for (File imageFile : imageFiles) {
-      try {
-        LOGGER.info("Processing: " + imageFile.getName());
+      String[] frameResults = ocrFiles(files, sources, language, report, skipped);
+      String[] results = new String[images.size()];
+      int frame = 0;
+      for (int i = 0; i < images.size(); i++) {
+        List<String> texts = new ArrayList<>();
+        for (int end = frame + frameCounts[i]; frame < end; frame++) {
+          if (frameResults[frame] != null && !frameResults[frame].trim().isEmpty()) {
+            texts.add(frameResults[frame]);
+          } else if (frameCounts[i] > 1 && !skipped.containsKey(displayName(files.get(frame), sources))) {
+            LOGGER.warning("No OCR output for " + displayName(files.get(frame), sources));
+          }
+        }
+        if (texts.isEmpty() && frameCounts[i] > 1 && files.subList(frame - frameCounts[i], frame).stream()
+            .allMatch(file -> skipped.containsKey(displayName(file, sources)))) {
+          skipped.put(images.get(i).getName(), "every frame skipped");
+        }
+        results[i] = texts.isEmpty() ? null : String.join("\n", texts);
+      }
+      return results;
+    } finally {
+      try (Stream<Path> paths = Files.walk(frameDirectory)) {
+        paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+      }
+    }
+  }
 
+  /**
+   * OCR image files with the workers and preprocessing selected by the options.
+   *
+   * @param images Images to process
+   * @param sources File each frame among the images was split from
+   * @param language OCR language, or comma-separated languages to pick one per image
+   * @param report Report the scheduler settings are added to
+   * @param skipped Filled with the images the scoreboard filter rejected, and why
+   * @return OCR output per image, null for skipped or failed images
+   */
+  private String[] ocrFiles(List<File> images, Map<File, File> sources, String language, RunReport report,
+                            Map<String, String> skipped) throws InterruptedException {
+    RowStitcher stitcher = Options.isEnabled(Options.STITCH) ? new RowStitcher() : null;
+    ClassIconMatcher classIcons = Options.isEnabled(Options.CLASS_ICONS)
+        ? new ClassIconMatcher(new File(Options.get(Options.CLASS_ICONS_DIR, "class_icons")))
+        : null;
+    Map<String, String> roster = classIcons != null ? PlayerClassLoader.loadPlayerClasses() : Collections.emptyMap();
+    DigitRecognizer digits = Options.isEnabled(Options.DIGITS)
+        ? new DigitRecognizer(Options.get(Options.DIGITS_FILE, "digits.csv"))
+        : null;
+    boolean pixelColor = Options.isEnabled(Options.PIXEL_COLOR) || stitcher != null || classIcons != null
+        || digits != null;
+    TeamColorClassifier colorClassifier = pixelColor ? new TeamColorClassifier() : null;
+    LayoutCache layoutCache = Options.isEnabled(Options.LAYOUT) || pixelColor
+        ? new LayoutCache(Options.get(Options.LAYOUT_FILE, "layouts.csv"), Options.get(Options.LAYOUT_PROFILE, ""))
+        : null;
+    List<String> languages = LanguageRouter.parse(language);
+    LanguageRouter router = languages.size() > 1
+        ? new LanguageRouter(languages, layoutCache != null ? layoutCache
+            : new LayoutCache(Options.get(Options.LAYOUT_FILE, "layouts.csv"), Options.get(Options.LAYOUT_PROFILE, "")))
+        : null;
+    // Tesseract instances are not thread-safe, each worker gets its own per language
+    ThreadLocal<Map<String, OCRService>> services = ThreadLocal.withInitial(HashMap::new);
+    ThreadLocal<Map<String, TableExtractor>> tableExtractors = ThreadLocal.withInitial(HashMap::new);
+
+    ScoreboardFilter filter = Options.isEnabled(Options.FILTER) ? new ScoreboardFilter() : null;
+    Set<String> keep = new HashSet<>(Arrays.asList(Options.get(Options.FILTER_KEEP, "").split("\\s*,\\s*")));
+
+    int processes = Options.getInt(Options.ENGINE_PROCESSES, 0);
+    Map<String, ProcessEnginePool> engines = processes > 0 ? new ConcurrentHashMap<>() : null;
+    if (engines != null && (stitcher != null || classIcons != null || digits != null)) {
+      LOGGER.warning("Row stitching, class icons and digit glyphs need the batch process, they are off in OCR workers");
+    }
+    // Each worker process has its own engine and native thread limit, one caller thread keeps each busy
+    AdaptiveScheduler scheduler = engines != null
+        ? new AdaptiveScheduler(Runtime.getRuntime().availableProcessors(), processes, 0)
+        : createScheduler();
+    AtomicBoolean first = new AtomicBoolean(true);
+    String[] results = scheduler.run(images, imageFile -> {
+      String name = displayName(imageFile, sources);
+      // Frames are kept by the name of the file they were split from
+      if (filter != null && !keep.contains(sources.getOrDefault(imageFile, imageFile).getName())) {
+        String reason = filter.reject(imageFile);
+        if (reason != null) {
+          LOGGER.info("⏭️ Skipping " + name + ": " + reason);
+          skipped.put(name, reason);
+          return null;
+        }
+      }
+      String imageLanguage = router != null ? router.route(imageFile, name) : language;
+      LOGGER.info("Processing: " + name + (router != null ? " (" + imageLanguage + ")" : ""));
+
+      String result;
+      if (engines != null) {
+        result = engines.computeIfAbsent(imageLanguage, lang -> new ProcessEnginePool(processes, lang,
+            Options.getInt(Options.ENGINE_DEADLINE, 120) * 1000L, Options.get(Options.ENGINE_HEAP, "512m")))
+            .process(imageFile);
+      } else {
+        OCRService service = services.get().computeIfAbsent(imageLanguage, OCRService::new);
         // Create OCRFileProcessor for this image
         OCRFileProcessor processor = new OCRFileProcessor(
             imageFile.getAbsolutePath(),
-            ocrService
+            service,
+            layoutCache,
+            pixelColor ? tableExtractors.get().computeIfAbsent(imageLanguage,
+                lang -> new TableExtractor(service, stitcher, classIcons, roster, digits, colorClassifier)) : null
         );
+        result = processor.call();
+      }
+      if (Options.isEnabled(Options.TIMING) && first.getAndSet(false)) {
+        LOGGER.info("⏱️ First OCR finished " + StartupBenchmark.millisSinceJvmStart() + " ms after JVM start");
+      }
+      return result;
+    });
+    scheduler.report(report);
+    if (engines != null) {
+      // Workers also exit on their own when the batch process dies, their connection closing
+      new TreeMap<>(engines).forEach((lang, pool) -> {
+        report.add(ProcessEnginePool.REPORT_SECTION, "language=" + lang);
+        pool.report(report);
+        pool.close();
+      });
+    }
+    if (router != null) {
+      router.report(report);
+    }
+    report.add(FILTER_SECTION, "enabled=" + (filter != null));
+    if (stitcher != null) {
+      LOGGER.info("🧵 " + stitcher.getStitchedRows() + " overlapping rows read once");
+    }
+    return results;
+  }
 
-        // Process the image (appends to temp file)
-        String result = processor.call();
-        if (result != null && !result.trim().isEmpty()) {
-          sb.append(result).append('\n');
-        } else {
-          LOGGER.warning("No OCR output for " + imageFile.getName());
-        }
+  /**
+   * Name an image is logged and reported under: its file name, or for a frame the file it was split from and the
+   * frame, e.g. scroll.tif/scroll_frame002.png.
+   */
+  private static String displayName(File file, Map<File, File> sources) {
+    File source = sources.get(file);
+    return source != null ? source.getName() + "/" + file.getName() : file.getName();
+  }
 
-      } catch (Exception e) {
-        LOGGER.warning("Failed to process " + imageFile.getName() + ": " + e.getMessage());
+  /**
+   * Join the OCR output of images in order.
+   */
+  private static String aggregate(List<File> images, String[] results, Map<String, String> skipped) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < images.size(); i++) {
+      if (results[i] != null && !results[i].trim().isEmpty()) {
+        sb.append(results[i]).append('\n');
+      } else if (!skipped.containsKey(images.get(i).getName())) {
+        LOGGER.warning("No OCR output for " + images.get(i).getName());
       }
     }
+    return sb.toString();
+  }
 
-    if (sb.length() == 0) {
+  private static void reportSkipped(RunReport report, int count, List<String> lines) {
+    report.add(FILTER_SECTION, "skipped=" + count);
+    for (String line : lines) {
+      report.add(FILTER_SECTION, line);
+    }
+  }
+
+  private static void writeReport(RunReport report) {
+    try {
+      report.write(RunReport.FILENAME);
+    } catch (IOException e) {
+      LOGGER.warning("Failed to write " + RunReport.FILENAME + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Coordinate a batch through a shared queue directory: split the folder into work items unless the queue
+   * already exists, work on items like any worker, wait for the other workers, then merge their results.
+   *
+   * @throws IOException if the queue directory holds another batch, of another folder or language
+   */
+  public void processQueue(WorkQueue queue, String imageFolder, String language, String color, String guild,
+                           String outputCsv, String dateTimeStr) throws Exception {
+    if (!queue.exists()) {
+      File[] imageFiles = listImages(imageFolder);
+      if (imageFiles.length == 0) {
+        LOGGER.warning("No image files found in: " + imageFolder);
+        return;
+      }
+      Properties parameters = new Properties();
+      parameters.setProperty(QUEUE_LANGUAGE, language);
+      parameters.setProperty(QUEUE_FOLDER, new File(imageFolder).getCanonicalPath());
+      queue.create(Arrays.asList(imageFiles), Math.max(1, Options.getInt(Options.QUEUE_ITEM_SIZE, 10)), parameters);
+    } else {
+      // Resuming another batch would merge its OCR into this output, under this batch's date
+      Properties parameters = queue.getParameters();
+      String folder = parameters.getProperty(QUEUE_FOLDER);
+      if (!language.equals(parameters.getProperty(QUEUE_LANGUAGE))
+          || folder != null && !folder.equals(new File(imageFolder).getCanonicalPath())) {
+        throw new IOException("The queue holds the batch of " + folder + " (" + parameters.getProperty(QUEUE_LANGUAGE)
+            + "), not " + imageFolder + " (" + language + "); use a new queue directory for each batch");
+      }
+      LOGGER.info("Resuming existing queue, " + queue.getItems().size() + " items");
+    }
+
+    runQueueWorker(queue);
+    while (!queue.isFinished()) {
+      Thread.sleep(QUEUE_POLL_MILLIS);
+    }
+
+    RunReport report = new RunReport();
+    List<String> failed = queue.getFailedItems();
+    Map<String, Integer> attempts = queue.getAttempts();
+    List<String> skipped = new ArrayList<>();
+    StringBuilder sb = new StringBuilder();
+    for (String item : queue.getItems()) {
+      String result = queue.getResult(item);
+      if (result != null && !result.trim().isEmpty()) {
+        sb.append(result);
+      }
+      skipped.addAll(queue.getSkipped(item));
+    }
+    report.add(QUEUE_SECTION, "items=" + queue.getItems().size());
+    report.add(QUEUE_SECTION, "retried=" + attempts.values().stream().filter(attempt -> attempt > 1).count());
+    report.add(QUEUE_SECTION, "failed=" + failed.size());
+    for (String item : failed) {
+      report.add(QUEUE_SECTION, "failed item " + item + ": " + queue.getImages(item).stream().map(File::getName)
+          .collect(Collectors.joining(",")));
+      LOGGER.warning("Item " + item + " failed after " + attempts.get(item) + " attempts, its images are missing");
+    }
+    reportSkipped(report, skipped.size(), skipped);
+    writeReport(report);
+
+    finishBatch(sb.toString(), color, guild, outputCsv, dateTimeStr);
+  }
+
+  /**
+   * Claim and process queue items until every item is finished.
+   */
+  public void runQueueWorker(WorkQueue queue) throws Exception {
+    while (!queue.exists()) {
+      LOGGER.info("Waiting for the queue to be created");
+      Thread.sleep(QUEUE_POLL_MILLIS);
+    }
+    String language = queue.getParameters().getProperty(QUEUE_LANGUAGE);
+    warmUp(language);
+    LOGGER.info("Worker " + queue.getWorkerId() + " processing queue items");
+
+    try {
+      int processed = 0;
+      while (true) {
+        WorkQueue.Lease lease = queue.claim();
+        if (lease == null) {
+          if (queue.isFinished()) {
+            break;
+          }
+          // Everything left is leased, wait for results or for a lease to expire
+          Thread.sleep(QUEUE_POLL_MILLIS);
+          continue;
+        }
+        List<File> images = queue.getImages(lease.getItem());
+        Map<String, String> skipped = new ConcurrentHashMap<>();
+        String[] results = ocrImages(images, language, new RunReport(), skipped);
+        queue.complete(lease, aggregate(images, results, skipped), new TreeMap<>(skipped).entrySet().stream()
+            .map(entry -> entry.getKey() + ": " + entry.getValue()).collect(Collectors.toList()));
+        processed++;
+        LOGGER.info("Item " + lease.getItem() + " done (" + images.size() + " images, attempt " + lease.getAttempt() + ")");
+      }
+      LOGGER.info("✅ Queue finished, " + processed + " items processed by this worker");
+    } finally {
+      queue.close();
+    }
+  }
+
+  /**
+   * Load the natives and the language data of every language of the batch in the background.
+   */
+  private static void warmUp(String language) {
+    for (String lang : LanguageRouter.parse(language)) {
+      new OCRService(lang).warmUp();
+    }
+  }
+
+  static WorkQueue openQueue(String directory) {
+    return new WorkQueue(new File(directory), Options.getInt(Options.QUEUE_LEASE, 120) * 1000L,
+        Math.max(1, Options.getInt(Options.QUEUE_ATTEMPTS, 3)));
+  }
+
+  /**
+   * Turn OCR output into the output CSV, errors.csv and the optional outputs.
+   */
+  private void finishBatch(String aggregatedOcrText, String color, String guild, String outputCsv, String dateTimeStr)
+      throws IOException {
+    if (aggregatedOcrText.isEmpty()) {
       LOGGER.warning("No OCR output for any images");
       return;
     }
 
-    // Process aggregated OCR output to CSV
-    String aggregatedOcrText = sb.toString();
-
     // Use OCRThroneRecognition to extract and clean data
-    OCRThroneRecognition recognition = new OCRThroneRecognition(color, guild, dateTimeStr);
+    PlayerAliasCache aliasCache = Options.isEnabled(Options.ALIASES)
+        ? new PlayerAliasCache(Options.get(Options.ALIASES_FILE, "aliases.csv"), PlayerClassLoader.loadPlayerClasses().keySet())
+        : null;
+    OCRThroneRecognition recognition = new OCRThroneRecognition(color, guild, dateTimeStr, aliasCache);
     List<Player> players = recognition.recognize(aggregatedOcrText);
 
     // Write to output CSV
     writeCSV(players, outputCsv);
+    if (Options.isEnabled(Options.BINARY_OUTPUT)) {
+      writeBinary(players, outputCsv);
+    }
+    if (Options.isEnabled(Options.ROLLUPS)) {
+      updateRollups(players);
+    }
 
     // Write errors to file with proper formatting
     try {
@@ -168,7 +563,7 @@ public class OCRBatchMain {
 
     // Write pure Tesseract output to file
     try {
-      writeTesseractOutput(aggregatedOcrText);
+      writeTesseractOutput(aggregatedOcrText, color, guild, dateTimeStr);
     } catch (Exception e) {
       LOGGER.warning("Failed to write tesseract_output.txt: " + e.getMessage());
     }
@@ -186,25 +581,105 @@ public class OCRBatchMain {
    * @throws IOException if writing fails
    */
   private void writeCSV(List<Player> csvLines, String filename) throws IOException {
+    PipelineEvents.OutputEvent event = new PipelineEvents.OutputEvent();
+    event.begin();
     List<String> lines = csvLines.stream().sorted().map(Player::toCSV).collect(Collectors.toList());
     try (FileWriter writer = new FileWriter(filename)) {
       for (String line : lines) {
         writer.write(line + "\n");
       }
     }
+    event.commitFile(filename, "csv", lines.size());
   }
 
   /**
-   * Write pure Tesseract output to tesseract_output.txt file.
+   * Write players to a columnar binary file next to the CSV, in the same order.
    *
-   * @param tesseractOutput Raw OCR output from Tesseract
+   * @param players Players to write
+   * @param outputCsv Output CSV filename, its extension is replaced by .thrc
    * @throws IOException if writing fails
    */
-  private void writeTesseractOutput(String tesseractOutput) throws IOException {
-    try (FileWriter writer = new FileWriter("tesseract_output.txt")) {
-      writer.write(tesseractOutput);
+  private void writeBinary(List<Player> players, String outputCsv) throws IOException {
+    String filename = binaryFilename(outputCsv);
+    PlayerColumnarWriter.write(players.stream().sorted().collect(Collectors.toList()), filename);
+    LOGGER.info("Columnar output written to " + filename);
+  }
+
+  /**
+   * Add this batch to the season rollups.
+   *
+   * @param players Players of this battle
+   * @throws IOException if the rollups cannot be written
+   */
+  private void updateRollups(List<Player> players) throws IOException {
+    String filename = Options.get(Options.ROLLUPS_FILE, "rollups.csv");
+    SeasonRollups rollups = new SeasonRollups(filename);
+    if (rollups.add(players, Options.get(Options.ROLLUPS_BATTLE, null))) {
+      rollups.save();
+      LOGGER.info("Season rollups updated in " + filename + " (" + rollups.getBattleCount() + " battles)");
     }
+  }
+
+  /**
+   * Scheduler for the workers requested with throne.workers: 1 by default, a fixed count, or auto.
+   */
+  static AdaptiveScheduler createScheduler() {
+    int cores = Runtime.getRuntime().availableProcessors();
+    String workers = Options.get(Options.WORKERS, "1").trim();
+    if (workers.equalsIgnoreCase("auto")) {
+      return new AdaptiveScheduler(cores);
+    }
+    int count = Math.max(1, Options.getInt(Options.WORKERS, 1));
+    // A single worker keeps Tesseract's own default, which already uses every core
+    return new AdaptiveScheduler(cores, count, count > 1 ? Math.max(1, cores / count) : 0);
+  }
+
+  static String binaryFilename(String outputCsv) {
+    int dot = outputCsv.lastIndexOf('.');
+    int separator = Math.max(outputCsv.lastIndexOf('/'), outputCsv.lastIndexOf('\\'));
+    return (dot > separator ? outputCsv.substring(0, dot) : outputCsv) + ".thrc";
+  }
+
+  /**
+   * Write pure Tesseract output to tesseract_output.txt file, with the batch parameters next to it so
+   * {@link ReplayMain} can parse it again. With throne.raw.dir, also keep a copy named after the battle date.
+   *
+   * @param tesseractOutput Raw OCR output from Tesseract
+   * @param color Team colour of our guild
+   * @param guild Enemy guild name
+   * @param dateTimeStr Battle date and time
+   * @throws IOException if writing fails
+   */
+  private void writeTesseractOutput(String tesseractOutput, String color, String guild, String dateTimeStr)
+      throws IOException {
+    PipelineEvents.OutputEvent event = new PipelineEvents.OutputEvent();
+    event.begin();
+    RawOcrFile.write(new File("tesseract_output.txt"), tesseractOutput, color, guild, dateTimeStr);
+    event.commitFile("tesseract_output.txt", "tesseract text", tesseractOutput.split("\n").length);
     LOGGER.info("Pure Tesseract output written to tesseract_output.txt");
+
+    String rawDirectory = Options.get(Options.RAW_DIR, null);
+    if (rawDirectory != null) {
+      File directory = new File(rawDirectory);
+      if (!directory.isDirectory() && !directory.mkdirs()) {
+        throw new IOException("Cannot create " + directory);
+      }
+      File raw = new File(directory, rawFilename(dateTimeStr, guild));
+      if (raw.exists()) {
+        // Same date and enemy: a re-run of that battle, its earlier output is replaced as in the rollups
+        LOGGER.warning("Replacing the raw OCR output of the same battle in " + raw);
+      }
+      RawOcrFile.write(raw, tesseractOutput, color, guild, dateTimeStr);
+      LOGGER.info("Raw OCR output kept in " + raw);
+    }
+  }
+
+  /**
+   * Name of a battle's raw OCR copy: its date and enemy guild, so two battles of one day do not share a file.
+   */
+  private static String rawFilename(String dateTimeStr, String guild) {
+    return dateTimeStr.replace(' ', '_').replace(':', '-') + "_vs_" + guild.replaceAll("[^\\p{L}\\p{N}_-]", "_")
+        + ".txt";
   }
 
   /**
@@ -216,7 +691,7 @@ public class OCRBatchMain {
     System.out.println();
     System.out.println("Parameters:");
     System.out.println("  folder      - Path to folder containing images (required)");
-    System.out.println("  language    - OCR language code (required)");
+    System.out.println("  language    - OCR language code, or codes separated by commas (fra,eng) to pick one per image (required)");
     System.out.println("  color       - Color filter: 'y' (yellow) or 'r' (red) (required)");
     System.out.println("  guild       - Guild name for non-matching colors (default: Enemy)");
     System.out.println("  output.csv  - Output CSV filename (default: output.csv)");
@@ -233,7 +708,27 @@ public class OCRBatchMain {
     System.out.println("  java OCRBatchMain ./images fra r Dragons");
     System.out.println("  java OCRBatchMain ./images eng y Phoenix results.csv");
     System.out.println("  java OCRBatchMain ./images fra r Dragons results.csv \"2025-09-06 21:30\"");
+    System.out.println("  java OCRBatchMain ./images fra,eng r Dragons      # French and English clients mixed");
     System.out.println();
     System.out.println("Supported languages: eng, fra, deu, spa, ita, por, etc.");
+    System.out.println();
+    System.out.println("Options (-Dname=value):");
+    System.out.println("  " + Options.BINARY_OUTPUT + "=true  - Also write a columnar binary copy of the output (.thrc)");
+    System.out.println("  " + Options.LAYOUT + "=true  - Crop screenshots to the scoreboard table (layouts cached in layouts.csv)");
+    System.out.println("  " + Options.TIMING + "=true  - Log the time from JVM start to the first OCR result");
+    System.out.println("  " + Options.ALIASES + "=true  - Correct misspelled roster names, corrections remembered in aliases.csv");
+    System.out.println("  " + Options.RAW_DIR + "=<dir>  - Keep each battle's raw OCR output there, for ReplayMain");
+    System.out.println("  " + Options.ROLLUPS + "=true  - Add the batch to the season rollups in rollups.csv (see LeaderboardMain)");
+    System.out.println("  " + Options.ROLLUPS_BATTLE + "=<key>  - Battle the batch replaces in the rollups (default: <date> vs <enemy guild>)");
+    System.out.println("  " + Options.WORKERS + "=auto|<n>  - OCR workers, auto measures and balances them against Tesseract threads");
+    System.out.println("  " + Options.ENGINE_PROCESSES + "=<n>  - Run OCR in n child JVMs, restarted when they crash or miss their deadline");
+    System.out.println("  " + Options.FILTER + "=true  - Skip images that do not look like a scoreboard before OCR");
+    System.out.println("  " + Options.FILTER_KEEP + "=a.png,b.png  - Always OCR these images");
+    System.out.println("  " + Options.QUEUE + "=<dir>  - Share the batch with other processes through a queue directory");
+    System.out.println("  " + Options.QUEUE_ROLE + "=worker  - Only process queue items (no arguments needed)");
+    System.out.println("  " + Options.PIXEL_COLOR + "=true  - Read the team colour from pixels, rebuild rows from the table layout");
+    System.out.println("  " + Options.STITCH + "=true  - Read rows shared by overlapping scrolled screenshots only once");
+    System.out.println("  " + Options.DIGITS + "=true  - Read stat numbers from digit glyphs learned from Tesseract (digits.csv)");
+    System.out.println("  " + Options.CLASS_ICONS + "=true  - Read unknown players' class from their icons (templates in class_icons/)");
   }
 }
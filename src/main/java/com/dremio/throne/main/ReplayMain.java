@@ -0,0 +1,211 @@
+package com.dremio.throne.main;
+
+import com.dremio.throne.db.Player;
+import com.dremio.throne.db.PlayerClassLoader;
+import com.dremio.throne.ocr.OCRThroneRecognition;
+import com.dremio.throne.util.Options;
+import com.dremio.throne.util.RawOcrFile;
+import com.dremio.throne.validate.PlayerAliasCache;
+import com.dremio.throne.validate.PlayerValidator;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Parses saved raw OCR output again, without Tesseract, to see the effect of changes to name cleanup, class.csv or
+ * validation on past batches. Files are replayed in parallel, each into its own output and errors CSV.
+ * Usage: java -cp throne-1.0-SNAPSHOT-fat.jar com.dremio.throne.main.ReplayMain [options] <raw.txt|directory>...
+ */
+public class ReplayMain {
+
+  private static final Logger LOGGER = Logger.getLogger(ReplayMain.class.getName());
+
+  private final String defaultColor;
+  private final String defaultGuild;
+  private final String defaultDate;
+  private final File outputDirectory;
+  private final PlayerAliasCache aliasCache;
+
+  /**
+   * @param defaultColor Team colour (red or yellow) for files saved without parameters, or null
+   * @param defaultGuild Enemy guild for files saved without parameters
+   * @param defaultDate Battle date for files saved without parameters, or null
+   * @param outputDirectory Directory the output and errors CSVs are written to
+   */
+  public ReplayMain(String defaultColor, String defaultGuild, String defaultDate, File outputDirectory) {
+    this.defaultColor = defaultColor;
+    this.defaultGuild = defaultGuild;
+    this.defaultDate = defaultDate;
+    this.outputDirectory = outputDirectory;
+    this.aliasCache = Options.isEnabled(Options.ALIASES)
+        ? new PlayerAliasCache(Options.get(Options.ALIASES_FILE, "aliases.csv"), PlayerClassLoader.loadPlayerClasses().keySet())
+        : null;
+  }
+
+  public static void main(String[] args) throws Exception {
+    String color = null;
+    String guild = "Enemy";
+    String date = null;
+    String output = "replay";
+    int threads = Runtime.getRuntime().availableProcessors();
+    List<String> inputs = new ArrayList<>();
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "--color":
+          color = args[++i].equalsIgnoreCase("y") || args[i].equalsIgnoreCase("yellow") ? "yellow" : "red";
+          break;
+        case "--guild":
+          guild = args[++i];
+          break;
+        case "--date":
+          date = args[++i];
+          break;
+        case "--out":
+          output = args[++i];
+          break;
+        case "--threads":
+          threads = Math.max(1, Integer.parseInt(args[++i]));
+          break;
+        default:
+          inputs.add(args[i]);
+      }
+    }
+    if (inputs.isEmpty()) {
+      printUsage();
+      System.exit(1);
+    }
+
+    List<File> files = listRawFiles(inputs);
+    if (files.isEmpty()) {
+      LOGGER.warning("No raw OCR files found in " + inputs);
+      return;
+    }
+    File outputDirectory = new File(output);
+    if (!outputDirectory.isDirectory() && !outputDirectory.mkdirs()) {
+      throw new IOException("Cannot create " + outputDirectory);
+    }
+
+    long start = System.nanoTime();
+    List<String> failed = new ReplayMain(color, guild, date, outputDirectory).replay(files, threads);
+    LOGGER.info("✅ Replayed " + (files.size() - failed.size()) + "/" + files.size() + " files in "
+        + (System.nanoTime() - start) / 1_000_000 + " ms, output in " + outputDirectory);
+    if (!failed.isEmpty()) {
+      LOGGER.severe("❌ Failed: " + failed);
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Raw OCR files named on the command line: files as given, directories for their .txt files.
+   */
+  static List<File> listRawFiles(List<String> inputs) {
+    List<File> files = new ArrayList<>();
+    for (String input : inputs) {
+      File file = new File(input);
+      if (file.isDirectory()) {
+        File[] raw = file.listFiles((dir, name) -> name.toLowerCase().endsWith(".txt"));
+        if (raw != null) {
+          Arrays.sort(raw);
+          files.addAll(Arrays.asList(raw));
+        }
+      } else if (file.isFile()) {
+        files.add(file);
+      } else {
+        LOGGER.warning("Skipping " + input + ": not found");
+      }
+    }
+    return files;
+  }
+
+  /**
+   * Replay files in parallel.
+   *
+   * @param files Raw OCR files
+   * @param threads Files replayed at once
+   * @return Names of the files that could not be replayed
+   * @throws InterruptedException if interrupted while waiting for the files
+   */
+  public List<String> replay(List<File> files, int threads) throws InterruptedException {
+    ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, files.size()));
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (File file : files) {
+        futures.add(executor.submit(() -> replay(file)));
+      }
+      List<String> failed = new ArrayList<>();
+      for (int i = 0; i < files.size(); i++) {
+        try {
+          futures.get(i).get();
+        } catch (Exception e) {
+          Throwable cause = e.getCause() != null ? e.getCause() : e;
+          LOGGER.warning("Failed to replay " + files.get(i) + ": " + cause.getMessage());
+          failed.add(files.get(i).getName());
+        }
+      }
+      return failed;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Recognize, write and validate the players of one raw OCR file.
+   *
+   * @param raw Raw OCR file
+   * @return Players written
+   * @throws IOException if the file cannot be read, has no parameters, or the output cannot be written
+   */
+  public int replay(File raw) throws IOException {
+    Properties metadata = RawOcrFile.readMetadata(raw);
+    String color = metadata.getProperty(RawOcrFile.COLOR, defaultColor);
+    String guild = metadata.getProperty(RawOcrFile.GUILD, defaultGuild);
+    String date = metadata.getProperty(RawOcrFile.DATE, defaultDate);
+    if (color == null || date == null) {
+      throw new IOException("no " + RawOcrFile.metadataFile(raw).getName() + ", give --color and --date");
+    }
+
+    String text = new String(Files.readAllBytes(raw.toPath()), StandardCharsets.UTF_8);
+    OCRThroneRecognition recognition = new OCRThroneRecognition(color, guild, date, aliasCache);
+    List<Player> players = recognition.recognize(text);
+
+    String name = raw.getName().replaceFirst("\\.[^.]*$", "");
+    File output = new File(outputDirectory, name + ".csv");
+    File errors = new File(outputDirectory, name + ".errors.csv");
+    List<String> lines = players.stream().sorted().map(Player::toCSV).collect(Collectors.toList());
+    try (FileWriter writer = new FileWriter(output)) {
+      for (String line : lines) {
+        writer.write(line + "\n");
+      }
+    }
+    recognition.writeErrorsToFile(errors.getPath());
+    new PlayerValidator().validatePlayers(players, errors.getPath());
+    LOGGER.info(raw.getName() + ": " + players.size() + " players written to " + output);
+    return players.size();
+  }
+
+  private static void printUsage() {
+    System.out.println("Parse saved raw OCR output again, without Tesseract");
+    System.out.println("Usage: java -cp throne-1.0-SNAPSHOT-fat.jar com.dremio.throne.main.ReplayMain [options] <raw.txt|directory>...");
+    System.out.println();
+    System.out.println("Raw files are tesseract_output.txt or the files kept with -D" + Options.RAW_DIR + "; their colour,");
+    System.out.println("guild and date are read from the .properties file next to them.");
+    System.out.println();
+    System.out.println("Options:");
+    System.out.println("  --color y|r     Team colour for files without a .properties file");
+    System.out.println("  --guild <name>  Enemy guild for files without a .properties file (default: Enemy)");
+    System.out.println("  --date <date>   Battle date (yyyy-MM-dd HH:mm:ss) for files without a .properties file");
+    System.out.println("  --out <dir>     Output directory, one <name>.csv and <name>.errors.csv per file (default: replay)");
+    System.out.println("  --threads <n>   Files replayed at once (default: available cores)");
+  }
+}
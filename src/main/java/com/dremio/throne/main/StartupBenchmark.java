@@ -0,0 +1,136 @@
+package com.dremio.throne.main;
+
+import com.dremio.throne.ocr.OCRService;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Measures time to first OCR of fresh JVMs, with and without a class-data-sharing archive.
+ * Usage: java -cp throne-1.0-SNAPSHOT-fat.jar com.dremio.throne.main.StartupBenchmark <image> <language> [runs] [archive.jsa]
+ */
+public class StartupBenchmark {
+
+  private static final Logger LOGGER = Logger.getLogger(StartupBenchmark.class.getName());
+
+  private static final String PROBE = "--probe";
+  private static final String RESULT_PREFIX = "STARTUP ";
+
+  public static void main(String[] args) throws Exception {
+    if (args.length >= 3 && args[0].equals(PROBE)) {
+      probe(args[1], args[2]);
+      return;
+    }
+    if (args.length < 2) {
+      System.out.println("Usage: java -cp <jar> " + StartupBenchmark.class.getName() + " <image> <language> [runs] [archive.jsa]");
+      System.exit(1);
+    }
+
+    String image = args[0];
+    String language = args[1];
+    int runs = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+    String archive = args.length > 3 ? args[3] : "throne.jsa";
+
+    LOGGER.info("=== Startup Benchmark ===");
+    LOGGER.info("Image: " + image + ", language: " + language + ", runs: " + runs);
+    report("default", measure(image, language, runs, null));
+    if (new File(archive).exists()) {
+      report("AppCDS " + archive, measure(image, language, runs, archive));
+    } else {
+      LOGGER.info("No archive " + archive + " found, run ./run-ocr.sh --train-cds first to compare");
+    }
+  }
+
+  /**
+   * Milliseconds elapsed since this JVM was started, as reported by the operating system.
+   */
+  public static long millisSinceJvmStart() {
+    return ProcessHandle.current().info().startInstant()
+        .map(start -> Instant.now().toEpochMilli() - start.toEpochMilli())
+        .orElse(-1L);
+  }
+
+  /**
+   * Child side: OCR one image and print the timings on stdout.
+   */
+  private static void probe(String image, String language) throws Exception {
+    long mainEntered = millisSinceJvmStart();
+    OCRService ocrService = new OCRService(language);
+    ocrService.warmUp();
+    String text = ocrService.extractText(new File(image));
+    long firstOcr = millisSinceJvmStart();
+    System.out.println(RESULT_PREFIX + mainEntered + " " + firstOcr + " " + text.length());
+  }
+
+  /**
+   * Launch fresh JVMs running the probe.
+   *
+   * @return For every run: {wall ms, ms to main, ms to first OCR}
+   */
+  private static List<long[]> measure(String image, String language, int runs, String archive) throws Exception {
+    String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    List<long[]> results = new ArrayList<>();
+    for (int run = 0; run < runs; run++) {
+      List<String> command = new ArrayList<>();
+      command.add(java);
+      if (archive != null) {
+        command.add("-XX:SharedArchiveFile=" + archive);
+        command.add("-Xshare:auto");
+      }
+      command.add("-cp");
+      command.add(System.getProperty("java.class.path"));
+      command.add(StartupBenchmark.class.getName());
+      command.add(PROBE);
+      command.add(image);
+      command.add(language);
+
+      long start = System.nanoTime();
+      Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+      long[] result = null;
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (line.startsWith(RESULT_PREFIX)) {
+            String[] parts = line.substring(RESULT_PREFIX.length()).trim().split(" ");
+            result = new long[]{0, Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+          }
+        }
+      }
+      int exit = process.waitFor();
+      if (exit != 0 || result == null) {
+        throw new IllegalStateException("Probe run failed with exit code " + exit);
+      }
+      result[0] = (System.nanoTime() - start) / 1_000_000;
+      results.add(result);
+    }
+    return results;
+  }
+
+  private static void report(String variant, List<long[]> results) {
+    LOGGER.info(String.format("%-24s wall p50 %5d ms | main p50 %5d ms | first OCR p50 %5d ms min %5d ms",
+        variant, median(results, 0), median(results, 1), median(results, 2), min(results, 2)));
+  }
+
+  private static long median(List<long[]> results, int index) {
+    List<Long> values = new ArrayList<>();
+    for (long[] result : results) {
+      values.add(result[index]);
+    }
+    Collections.sort(values);
+    return values.get(values.size() / 2);
+  }
+
+  private static long min(List<long[]> results, int index) {
+    long min = Long.MAX_VALUE;
+    for (long[] result : results) {
+      min = Math.min(min, result[index]);
+    }
+    return min;
+  }
+}
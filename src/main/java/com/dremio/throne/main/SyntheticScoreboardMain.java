@@ -0,0 +1,183 @@
+package com.dremio.throne.main;
+
+import com.dremio.throne.db.Player;
+import com.dremio.throne.db.PlayerClassLoader;
+import com.dremio.throne.image.ScoreboardRenderer;
+import com.dremio.throne.image.TeamColorClassifier;
+import com.dremio.throne.util.Labels;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+
+/**
+ * Generates a corpus of synthetic scoreboard screenshots and the matching ground truth, for benchmarks and
+ * accuracy checks at any scale.
+ * Usage: java -cp throne-1.0-SNAPSHOT-fat.jar com.dremio.throne.main.SyntheticScoreboardMain <folder> <count> [language] [color] [guild] [date] [seed]
+ */
+public class SyntheticScoreboardMain {
+
+  private static final Logger LOGGER = Logger.getLogger(SyntheticScoreboardMain.class.getName());
+
+  public static final String GROUND_TRUTH = "ground_truth.csv";
+
+  private static final int[][] RESOLUTIONS = {{2250, 870}, {2169, 794}, {1920, 742}};
+  private static final String[] SYLLABLES = {"ka", "ro", "zi", "mel", "dra", "th", "or", "vex", "ly", "an",
+      "qu", "is", "bor", "ne", "x", "sha", "ul", "tor", "mi", "ga"};
+
+  private final Random random;
+  private final List<String> rosterNames;
+  private final Map<String, String> roster;
+  private final List<String> classes;
+  private final String language;
+  private final String suitsColor;
+  private final String guild;
+  private final String dateTimeStr;
+  private final boolean tintColorWords;
+
+  public SyntheticScoreboardMain(String language, String suitsColor, String guild, String dateTimeStr, long seed,
+                                 boolean tintColorWords) {
+    this.random = new Random(seed);
+    this.roster = PlayerClassLoader.loadPlayerClasses();
+    this.roster.values().removeIf(String::isEmpty);
+    this.rosterNames = new ArrayList<>(new TreeSet<>(roster.keySet()));
+    this.classes = new ArrayList<>(new TreeSet<>(roster.values()));
+    this.language = language;
+    this.suitsColor = suitsColor;
+    this.guild = guild;
+    this.dateTimeStr = dateTimeStr;
+    this.tintColorWords = tintColorWords;
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 2) {
+      System.out.println("Usage: java -cp <jar> " + SyntheticScoreboardMain.class.getName()
+          + " <folder> <count> [language] [color] [guild] [date] [seed]");
+      System.out.println();
+      System.out.println("Writes <count> screenshots and " + GROUND_TRUTH + " (image,date,team,playerName,playerClass,"
+          + "Kills,Assists,DamageDone,DamageReceived,Healing).");
+      System.out.println("Defaults: language fra, color r, guild Enemy, date 2025-09-03 21:00, seed 42.");
+      System.out.println("Colour words are drawn in grey like the game, add -Dthrone.synthetic.tint=true to tint them.");
+      System.exit(1);
+    }
+    System.setProperty("java.awt.headless", "true");
+
+    String folder = args[0];
+    int count = Integer.parseInt(args[1]);
+    String language = args.length > 2 ? args[2] : "fra";
+    String color = args.length > 3 && args[3].equalsIgnoreCase("y") ? TeamColorClassifier.YELLOW : TeamColorClassifier.RED;
+    String guild = args.length > 4 ? args[4] : "Enemy";
+    String date = args.length > 5 ? args[5] : "2025-09-03 21:00";
+    long seed = args.length > 6 ? Long.parseLong(args[6]) : 42L;
+    String dateTimeStr = date.contains(" ") ? date + ":00" : date + " 00:00:00";
+
+    SyntheticScoreboardMain generator = new SyntheticScoreboardMain(language, color, guild, dateTimeStr, seed,
+        Boolean.getBoolean("throne.synthetic.tint"));
+    long start = System.nanoTime();
+    generator.generate(new File(folder), count);
+    LOGGER.info("✅ Generated " + count + " screenshots in " + folder + " in "
+        + (System.nanoTime() - start) / 1_000_000 + " ms");
+  }
+
+  /**
+   * Write count screenshots and the ground truth file into a folder.
+   *
+   * @param folder Output folder, created if missing
+   * @param count Number of screenshots
+   * @throws IOException if writing fails
+   */
+  public void generate(File folder, int count) throws IOException {
+    if (!folder.exists() && !folder.mkdirs()) {
+      throw new IOException("Cannot create folder: " + folder);
+    }
+    int digits = Math.max(5, String.valueOf(count).length());
+    try (FileWriter truth = new FileWriter(new File(folder, GROUND_TRUTH))) {
+      for (int i = 0; i < count; i++) {
+        int[] resolution = RESOLUTIONS[random.nextInt(RESOLUTIONS.length)];
+        ScoreboardRenderer renderer = new ScoreboardRenderer(resolution[0], resolution[1], language, tintColorWords);
+
+        List<Player> players = randomPlayers(renderer.getRowsPerImage());
+        List<String> colors = new ArrayList<>();
+        for (Player player : players) {
+          colors.add(Labels.SUITS.equals(player.getGuild()) ? suitsColor : otherColor());
+        }
+        int firstRank = 1 + random.nextInt(5) * renderer.getRowsPerImage();
+        BufferedImage image = renderer.render(players, colors, firstRank, random);
+
+        String name = String.format("synthetic_%0" + digits + "d.png", i + 1);
+        ImageIO.write(image, "png", new File(folder, name));
+        for (Player player : players) {
+          truth.write(name + "," + player.toCSV() + "\n");
+        }
+      }
+    }
+  }
+
+  /**
+   * One screen of players sorted by kills, about half from our roster and half enemies.
+   */
+  private List<Player> randomPlayers(int rows) {
+    List<Player> players = new ArrayList<>();
+    Set<String> names = new HashSet<>();
+    while (players.size() < rows) {
+      boolean suits = random.nextBoolean();
+      String name;
+      String className;
+      if (suits && !rosterNames.isEmpty()) {
+        name = rosterNames.get(random.nextInt(rosterNames.size()));
+        className = roster.get(name);
+      } else {
+        name = randomName();
+        className = classes.isEmpty() ? Labels.UNKNOWN : classes.get(random.nextInt(classes.size()));
+      }
+      if (!names.add(name)) {
+        continue;
+      }
+      Player player = new Player(name, suits ? Labels.SUITS : guild, dateTimeStr, randomStats(className));
+      player.setClassName(className);
+      players.add(player);
+    }
+    Collections.sort(players);
+    return players;
+  }
+
+  /**
+   * Statistics within the ranges PlayerValidator accepts for the class.
+   */
+  private Long[] randomStats(String className) {
+    boolean tank = "Tank".equalsIgnoreCase(className);
+    boolean healer = "Healer".equalsIgnoreCase(className);
+    long kills = tank || healer ? random.nextInt(30) : 10 + random.nextInt(70);
+    long assists = 20 + random.nextInt(120);
+    long damageDone = tank || healer ? 50_000 + random.nextInt(1_500_000) : 500_000 + random.nextInt(5_500_000);
+    long damageReceived = 300_000 + random.nextInt(2_600_000);
+    long healing = healer ? 800_000 + random.nextInt(4_000_000) : 5_000 + random.nextInt(250_000);
+    return new Long[]{kills, assists, damageDone, damageReceived, healing};
+  }
+
+  private String randomName() {
+    StringBuilder name = new StringBuilder();
+    int syllables = 2 + random.nextInt(3);
+    for (int i = 0; i < syllables; i++) {
+      name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+    }
+    if (random.nextInt(4) == 0) {
+      name.append(random.nextInt(10));
+    }
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  private String otherColor() {
+    return TeamColorClassifier.RED.equals(suitsColor) ? TeamColorClassifier.YELLOW : TeamColorClassifier.RED;
+  }
+}
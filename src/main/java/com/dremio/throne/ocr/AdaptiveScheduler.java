@@ -0,0 +1,264 @@
+package com.dremio.throne.ocr;
+
+import com.dremio.throne.util.LatencyHistogram;
+import com.dremio.throne.util.RunReport;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Runs OCR over a batch of images, splitting the cores between Java workers and Tesseract's own OpenMP threads.
+ * In adaptive mode every split (1, 2, 4... workers, each engine getting cores / workers native threads) is
+ * measured on the first images, the fastest is kept, and a neighbouring split is re-measured between rounds so
+ * the choice follows the batch. Splits within 5% of each other are ranked by CPU use.
+ */
+public class AdaptiveScheduler {
+
+    private static final Logger LOGGER = Logger.getLogger(AdaptiveScheduler.class.getName());
+
+    public static final String REPORT_SECTION = "scheduler";
+
+    /** Relative throughput difference below which two splits are considered equal. */
+    private static final double TOLERANCE = 0.05;
+
+    private static final String WARM_UP = "warm-up";
+
+    /**
+     * Work done for one image, called from worker threads.
+     */
+    public interface ImageTask {
+        String process(File image) throws Exception;
+    }
+
+    /**
+     * Java workers and native threads per engine, with the last throughput and CPU use measured for it.
+     */
+    static class Split {
+        final int workers;
+        /** OpenMP threads per OCR call, 0 to leave Tesseract's default. */
+        final int nativeThreads;
+        double imagesPerSecond = -1;
+        double cpuShare;
+
+        Split(int workers, int nativeThreads) {
+            this.workers = workers;
+            this.nativeThreads = nativeThreads;
+        }
+
+        @Override
+        public String toString() {
+            return "workers=" + workers + " native_threads=" + (nativeThreads > 0 ? String.valueOf(nativeThreads) : "default");
+        }
+    }
+
+    private final int cores;
+    private final List<Split> splits = new ArrayList<>();
+    private final List<String> phases = new ArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    private int current;
+    private boolean probeUp = true;
+
+    /**
+     * Adaptive scheduler trying every power-of-two worker count up to the core count.
+     *
+     * @param cores Cores to share between workers and native threads
+     */
+    public AdaptiveScheduler(int cores) {
+        this.cores = Math.max(1, cores);
+        for (int workers = 1; workers < this.cores; workers *= 2) {
+            splits.add(new Split(workers, Math.max(1, this.cores / workers)));
+        }
+        splits.add(new Split(this.cores, 1));
+    }
+
+    /**
+     * Scheduler with a fixed split.
+     *
+     * @param cores Cores to share between workers and native threads
+     * @param workers Java workers
+     * @param nativeThreads Native threads per engine, 0 to leave Tesseract's default
+     */
+    public AdaptiveScheduler(int cores, int workers, int nativeThreads) {
+        this.cores = Math.max(1, cores);
+        splits.add(new Split(Math.max(1, workers), nativeThreads));
+    }
+
+    public boolean isAdaptive() {
+        return splits.size() > 1;
+    }
+
+    /**
+     * Process every image.
+     *
+     * @param images Images to process
+     * @param task Work for one image
+     * @return Results in image order, null for images that failed
+     */
+    public String[] run(List<File> images, ImageTask task) throws InterruptedException {
+        String[] results = new String[images.size()];
+        int maxWorkers = splits.stream().mapToInt(split -> split.workers).max().orElse(1);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(maxWorkers, runnable -> {
+            Thread thread = new Thread(runnable, "ocr-worker-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            int position = 0;
+            if (isAdaptive()) {
+                // The first image pays for loading the engine, it would penalise whichever split is measured first
+                position = runPhase(WARM_UP, 0, position, 1, images, task, results, pool);
+                for (int i = 0; i < splits.size() && position < images.size(); i++) {
+                    position = runPhase("probe", i, position, probeSize(splits.get(i)), images, task, results, pool);
+                }
+                current = 0;
+                for (int i = 1; i < splits.size(); i++) {
+                    current = better(current, i);
+                }
+                LOGGER.info("Scheduler picked " + splits.get(current));
+            }
+            while (position < images.size()) {
+                position = runPhase("run", current, position, roundSize(splits.get(current)), images, task, results, pool);
+                if (isAdaptive() && position < images.size()) {
+                    int neighbour = neighbour();
+                    position = runPhase("probe", neighbour, position, probeSize(splits.get(neighbour)), images, task,
+                        results, pool);
+                    int chosen = better(current, neighbour);
+                    if (chosen != current) {
+                        LOGGER.info("Scheduler switched to " + splits.get(chosen));
+                        current = chosen;
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Record the chosen split and every measured phase.
+     */
+    public void report(RunReport report) {
+        report.add(REPORT_SECTION, "cores=" + cores);
+        report.add(REPORT_SECTION, "mode=" + (isAdaptive() ? "adaptive" : "fixed"));
+        report.add(REPORT_SECTION, "native_thread_control=" + NativeThreads.isAvailable());
+        report.add(REPORT_SECTION, "chosen=" + splits.get(current));
+        report.add(REPORT_SECTION, "failed_images=" + failures.get());
+        for (String phase : phases) {
+            report.add(REPORT_SECTION, phase);
+        }
+    }
+
+    private int runPhase(String kind, int splitIndex, int from, int count, List<File> images, ImageTask task,
+                         String[] results, ExecutorService pool) throws InterruptedException {
+        Split split = splits.get(splitIndex);
+        int to = Math.min(images.size(), from + count);
+        AtomicInteger cursor = new AtomicInteger(from);
+        LatencyHistogram latencies = new LatencyHistogram();
+        long cpuStart = processCpuTime();
+        long start = System.nanoTime();
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int w = 0; w < Math.min(split.workers, to - from); w++) {
+            workers.add(pool.submit(() -> {
+                if (split.nativeThreads > 0) {
+                    NativeThreads.set(split.nativeThreads);
+                }
+                for (int i = cursor.getAndIncrement(); i < to; i = cursor.getAndIncrement()) {
+                    long imageStart = System.nanoTime();
+                    try {
+                        results[i] = task.process(images.get(i));
+                    } catch (Throwable t) {
+                        // Errors too (JNA memory access, missing natives): only this image is lost, not the
+                        // rest of the worker's share of the phase
+                        failures.incrementAndGet();
+                        LOGGER.warning("Failed to process " + images.get(i).getName() + ": " + t);
+                    }
+                    latencies.record(System.nanoTime() - imageStart);
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                LOGGER.warning("OCR worker failed: " + e.getCause());
+            }
+        }
+
+        if (kind.equals(WARM_UP)) {
+            return to;
+        }
+        long wall = Math.max(1, System.nanoTime() - start);
+        long cpu = processCpuTime() - cpuStart;
+        split.imagesPerSecond = (to - from) / (wall / 1e9);
+        split.cpuShare = cpuStart < 0 ? 0 : (double) cpu / wall / cores;
+        phases.add(String.format(Locale.ROOT, "%s %s images=%d images_per_sec=%.2f cpu=%.0f%% p50_ms=%d p99_ms=%d",
+            kind, split, to - from, split.imagesPerSecond, 100 * split.cpuShare,
+            latencies.getPercentile(50) / 1_000_000, latencies.getPercentile(99) / 1_000_000));
+        LOGGER.fine(phases.get(phases.size() - 1));
+        return to;
+    }
+
+    /**
+     * Index of the better of two measured splits.
+     */
+    int better(int a, int b) {
+        Split first = splits.get(a);
+        Split second = splits.get(b);
+        if (second.imagesPerSecond < 0) {
+            return a;
+        }
+        if (first.imagesPerSecond < 0 || second.imagesPerSecond > first.imagesPerSecond * (1 + TOLERANCE)) {
+            return b;
+        }
+        if (first.imagesPerSecond > second.imagesPerSecond * (1 + TOLERANCE)) {
+            return a;
+        }
+        return second.cpuShare < first.cpuShare ? b : a;
+    }
+
+    /**
+     * Next split to re-measure, alternating between fewer and more workers than the current one.
+     */
+    private int neighbour() {
+        probeUp = !probeUp;
+        int index = current + (probeUp ? 1 : -1);
+        if (index < 0 || index >= splits.size()) {
+            index = current + (probeUp ? -1 : 1);
+        }
+        return index;
+    }
+
+    /**
+     * Enough images for every worker of a split to finish two.
+     */
+    private static int probeSize(Split split) {
+        return Math.max(4, 2 * split.workers);
+    }
+
+    private static int roundSize(Split split) {
+        return Math.max(32, 8 * split.workers);
+    }
+
+    /**
+     * CPU time of the whole process in nanoseconds, native threads included, or -1 when not available.
+     */
+    private static long processCpuTime() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) bean).getProcessCpuTime();
+        }
+        return -1;
+    }
+}
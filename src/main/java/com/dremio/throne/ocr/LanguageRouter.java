@@ -0,0 +1,159 @@
+package com.dremio.throne.ocr;
+
+import com.dremio.throne.image.ImageUtil;
+import com.dremio.throne.image.LayoutCache;
+import com.dremio.throne.image.ScoreboardLayout;
+import com.dremio.throne.util.Labels;
+import com.dremio.throne.util.RunReport;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import javax.imageio.ImageIO;
+
+/**
+ * Picks the OCR language of each screenshot of a mixed batch, e.g. French and English clients, so the batch runs
+ * in one pass with an engine of the right language per image.
+ * <p>
+ * The cue is the team colour column, which holds a colour word on every row ("rouge"/"jaune" on French clients,
+ * "red"/"yellow" on English ones): the top of the column is read by a probe engine loaded with every candidate
+ * language, a few words on a strip a few hundred pixels wide, and the language with most colour words wins.
+ * Images without a detected layout or without a colour word go to the first language. Safe for use by several OCR
+ * workers, each with its own probe engine.
+ */
+public class LanguageRouter {
+
+    private static final Logger LOGGER = Logger.getLogger(LanguageRouter.class.getName());
+
+    public static final String REPORT_SECTION = "languages";
+
+    /** Share of the table height probed from its top, enough for several rows. */
+    private static final double PROBE_HEIGHT = 0.3;
+
+    /** Letters a misread colour word must share with the real one, from its start. */
+    private static final int PREFIX_LENGTH = 3;
+
+    private final List<String> languages;
+    private final LayoutCache layoutCache;
+    private final ThreadLocal<OCRService> probes;
+    private final Map<String, String> routes = new ConcurrentHashMap<>();
+
+    /**
+     * @param languages Candidate languages, the first one for images without a cue
+     * @param layoutCache Layouts the colour column is found with
+     */
+    public LanguageRouter(List<String> languages, LayoutCache layoutCache) {
+        this.languages = new ArrayList<>(languages);
+        this.layoutCache = layoutCache;
+        String probeLanguage = String.join("+", languages);
+        this.probes = ThreadLocal.withInitial(() -> new OCRService(probeLanguage));
+    }
+
+    /**
+     * Languages of a batch's language argument: one Tesseract language (possibly combined, such as fra+eng), or
+     * several separated by commas to route each image to one of them.
+     */
+    public static List<String> parse(String language) {
+        return Arrays.stream(language.split(",")).map(String::trim).filter(lang -> !lang.isEmpty())
+            .collect(Collectors.toList());
+    }
+
+    public List<String> getLanguages() {
+        return languages;
+    }
+
+    /**
+     * Language of an image, recorded for the report.
+     *
+     * @param image Screenshot file
+     * @param name Name of the image in the report, unique in the batch (frames of two inputs may share a file name)
+     * @return One of the candidate languages
+     */
+    public String route(File image, String name) {
+        String language = languages.get(0);
+        String cue = "no layout";
+        try {
+            BufferedImage decoded = ImageIO.read(image);
+            ScoreboardLayout layout = decoded != null ? layoutCache.get(decoded) : null;
+            if (layout != null) {
+                String text = probes.get().extractText(ImageUtil.crop(decoded, probeRegion(layout)), name);
+                Map<String, Integer> votes = vote(text, languages);
+                if (votes.isEmpty()) {
+                    cue = "no colour word";
+                } else {
+                    // Ties go to the earlier candidate
+                    for (String candidate : languages) {
+                        if (votes.getOrDefault(candidate, 0) > votes.getOrDefault(language, 0)) {
+                            language = candidate;
+                        }
+                    }
+                    cue = votes.entrySet().stream().map(entry -> entry.getKey() + "=" + entry.getValue())
+                        .collect(Collectors.joining(" "));
+                }
+            }
+        } catch (IOException | OCRService.OCRException e) {
+            cue = "probe failed: " + e.getMessage();
+        }
+        routes.put(name, language + " (" + cue + ")");
+        LOGGER.fine(name + " routed to " + language + " (" + cue + ")");
+        return language;
+    }
+
+    /**
+     * Record the language chosen for every image, and the image count per language.
+     */
+    public void report(RunReport report) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (String route : routes.values()) {
+            counts.merge(route.substring(0, route.indexOf(' ')), 1, Integer::sum);
+        }
+        report.add(REPORT_SECTION, "candidates=" + String.join(",", languages));
+        counts.forEach((language, count) -> report.add(REPORT_SECTION, language + " images=" + count));
+        new TreeMap<>(routes).forEach((image, route) -> report.add(REPORT_SECTION, image + ": " + route));
+    }
+
+    /**
+     * Top of the colour column, or of the whole table when the columns are not the game's.
+     */
+    static Rectangle probeRegion(ScoreboardLayout layout) {
+        Rectangle table = layout.getTable();
+        int height = Math.max(1, (int) (table.height * PROBE_HEIGHT));
+        if (!layout.hasStandardColumns()) {
+            return new Rectangle(table.x, table.y, table.width, height);
+        }
+        int[] column = layout.getTrimmedColumn(ScoreboardLayout.COLOR_COLUMN);
+        return new Rectangle(column[0], table.y, column[1] - column[0], height);
+    }
+
+    /**
+     * Colour words of a probe per candidate language.
+     *
+     * @return Word count per language, only languages with at least one word
+     */
+    static Map<String, Integer> vote(String text, List<String> languages) {
+        Map<String, Integer> votes = new HashMap<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}]+")) {
+            if (token.length() < PREFIX_LENGTH) {
+                continue;
+            }
+            for (Map.Entry<String, String> color : Labels.COLOR_LANGUAGES.entrySet()) {
+                if (token.startsWith(color.getKey().substring(0, PREFIX_LENGTH))
+                    && languages.contains(color.getValue())) {
+                    votes.merge(color.getValue(), 1, Integer::sum);
+                    break;
+                }
+            }
+        }
+        return votes;
+    }
+}
@@ -0,0 +1,60 @@
+package com.dremio.throne.ocr;
+
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import java.util.logging.Logger;
+
+/**
+ * Per-thread control of the OpenMP threads Tesseract uses inside one OCR call.
+ * omp_set_num_threads only affects the calling thread, so each OCR worker sets its own value before OCR.
+ * When the OpenMP runtime cannot be loaded (Tesseract built without OpenMP, other runtimes) calls are ignored.
+ */
+public final class NativeThreads {
+
+    private static final Logger LOGGER = Logger.getLogger(NativeThreads.class.getName());
+
+    /** GNU OpenMP on Linux, and its MinGW build shipped with Windows Tesseract. */
+    private static final String[] LIBRARIES = {"gomp", "libgomp-1"};
+
+    interface OpenMP extends Library {
+        void omp_set_num_threads(int threads);
+    }
+
+    private static final OpenMP OPENMP = load();
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private static OpenMP load() {
+        for (String library : LIBRARIES) {
+            try {
+                return Native.load(library, OpenMP.class);
+            } catch (UnsatisfiedLinkError e) {
+                // try the next name
+            }
+        }
+        LOGGER.info("OpenMP runtime not found, Tesseract native threads are not controlled");
+        return null;
+    }
+
+    public static boolean isAvailable() {
+        return OPENMP != null;
+    }
+
+    /**
+     * Limit the threads of OCR calls started from this thread.
+     *
+     * @param threads Thread count, at least 1
+     */
+    public static void set(int threads) {
+        if (OPENMP == null) {
+            return;
+        }
+        Integer current = CURRENT.get();
+        if (current == null || current != threads) {
+            OPENMP.omp_set_num_threads(Math.max(1, threads));
+            CURRENT.set(threads);
+        }
+    }
+
+    private NativeThreads() {
+    }
+}
@@ -1,8 +1,14 @@
 package com.dremio.throne.ocr;
 
+import com.dremio.throne.image.ImageUtil;
+import com.dremio.throne.image.LayoutCache;
+import com.dremio.throne.image.ScoreboardLayout;
+import com.dremio.throne.util.PipelineEvents;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import javax.imageio.ImageIO;
 import java.util.concurrent.Callable;
 import java.util.logging.Logger;
 
@@ -16,6 +22,8 @@ public class OCRFileProcessor implements Callable<String> {
     
     private final String filename;
     private final OCRService ocrService;
+    private final LayoutCache layoutCache;
+    private final TableExtractor tableExtractor;
 
     /**
      * Constructor for OCR file processor with custom output file.
@@ -24,8 +32,33 @@ public class OCRFileProcessor implements Callable<String> {
      * @param ocrService Preconfigured OCR service
      */
     public OCRFileProcessor(String filename, OCRService ocrService) {
+        this(filename, ocrService, null);
+    }
+
+    /**
+     * Constructor for OCR file processor cropping images to the scoreboard table before OCR.
+     *
+     * @param filename Path to the image file to process
+     * @param ocrService Preconfigured OCR service
+     * @param layoutCache Shared layout cache, or null to OCR the full image
+     */
+    public OCRFileProcessor(String filename, OCRService ocrService, LayoutCache layoutCache) {
+        this(filename, ocrService, layoutCache, null);
+    }
+
+    /**
+     * Constructor for OCR file processor rebuilding table rows from the layout, with team colours read from pixels.
+     *
+     * @param filename Path to the image file to process
+     * @param ocrService Preconfigured OCR service
+     * @param layoutCache Shared layout cache, or null to OCR the full image
+     * @param tableExtractor Row extractor used when a layout is known, or null to OCR the cropped table as a page
+     */
+    public OCRFileProcessor(String filename, OCRService ocrService, LayoutCache layoutCache, TableExtractor tableExtractor) {
         this.filename = filename;
         this.ocrService = ocrService;
+        this.layoutCache = layoutCache;
+        this.tableExtractor = tableExtractor;
     }
     
     /**
@@ -43,8 +76,58 @@ public class OCRFileProcessor implements Callable<String> {
         }
         
         LOGGER.info("Processing image: " + filename);
-        
-        // Extract text using OCR
-        return ocrService.extractText(imageFile);
+
+        PipelineEvents.ImageEvent event = new PipelineEvents.ImageEvent();
+        event.begin();
+        event.mode = "full page";
+        String text = null;
+        try {
+            text = process(imageFile, event);
+            return text;
+        } finally {
+            if (event.shouldCommit()) {
+                event.image = imageFile.getName();
+                event.bytes = imageFile.length();
+                if (event.width == 0) {
+                    // Tesseract decoded the file itself, only its header is read here
+                    setSize(event, imageFile);
+                }
+                event.lines = text == null || text.isEmpty() ? 0 : text.split("\n").length;
+                event.commit();
+            }
+        }
+    }
+
+    private static void setSize(PipelineEvents.ImageEvent event, File imageFile) {
+        Dimension size = ImageUtil.size(imageFile);
+        if (size != null) {
+            event.width = size.width;
+            event.height = size.height;
+        }
+    }
+
+    private String process(File imageFile, PipelineEvents.ImageEvent event) throws Exception {
+        if (layoutCache == null) {
+            // Extract text using OCR
+            return ocrService.extractText(imageFile);
+        }
+
+        BufferedImage image = ImageIO.read(imageFile);
+        if (image == null) {
+            throw new IOException("Unsupported image format: " + filename);
+        }
+        event.width = image.getWidth();
+        event.height = image.getHeight();
+        ScoreboardLayout layout = layoutCache.get(image);
+        if (layout == null) {
+            return ocrService.extractText(image, imageFile.getName());
+        }
+        if (tableExtractor != null) {
+            event.mode = "table rows";
+            return tableExtractor.extract(image, layout, imageFile.getName());
+        }
+        // Only the scoreboard table is sent to Tesseract
+        event.mode = "cropped table";
+        return ocrService.extractText(ImageUtil.crop(image, layout.getTable()), imageFile.getName());
     }
 }
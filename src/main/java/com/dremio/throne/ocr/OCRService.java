@@ -1,16 +1,34 @@
 package com.dremio.throne.ocr;
 
+import com.dremio.throne.image.ImageUtil;
+import com.dremio.throne.util.PipelineEvents;
+import net.sourceforge.tess4j.ITessAPI.TessPageIteratorLevel;
+import net.sourceforge.tess4j.TessAPI;
 import net.sourceforge.tess4j.Tesseract;
 import net.sourceforge.tess4j.TesseractException;
+import net.sourceforge.tess4j.Word;
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
 import java.util.logging.Logger;
+import javax.imageio.ImageIO;
 
 /**
  * OCR Service using Tesseract for text extraction from images.
+ * Construction is cheap: the native library and language data are only loaded on first OCR,
+ * or ahead of time in the background with {@link #warmUp()}.
  */
 public class OCRService {
-    
+
+    private static final Logger LOGGER = Logger.getLogger(OCRService.class.getName());
+
     private final Tesseract tesseract;
+    private final String language;
+    private final String datapath;
     
     /**
      * Initialize OCR service with specified language.
@@ -18,16 +36,81 @@ public class OCRService {
      * @param language OCR language code (e.g., "eng", "fra", "deu")
      */
     public OCRService(String language) {
+        this(language, -1, -1);
+    }
+
+    /**
+     * Initialize OCR service with specified language and Tesseract modes.
+     *
+     * @param language OCR language code (e.g., "eng", "fra", "deu")
+     * @param pageSegMode Tesseract page segmentation mode (--psm), -1 for Tesseract's default
+     * @param engineMode Tesseract OCR engine mode (--oem), -1 for Tesseract's default
+     */
+    public OCRService(String language, int pageSegMode, int engineMode) {
         this.tesseract = new Tesseract();
         this.tesseract.setLanguage(language);
+        if (pageSegMode >= 0) {
+            this.tesseract.setPageSegMode(pageSegMode);
+        }
+        if (engineMode >= 0) {
+            this.tesseract.setOcrEngineMode(engineMode);
+        }
+        this.language = language;
         
         // Set tessdata path if available
         String tessdataPath = System.getenv("TESSDATA_PREFIX");
         if (tessdataPath != null) {
             this.tesseract.setDatapath(tessdataPath);
         }
+        this.datapath = tessdataPath;
     }
-    
+
+    public String getLanguage() {
+        return language;
+    }
+
+    /**
+     * Load the Tesseract native library, the image decoders and the language data in a background thread,
+     * so they are ready by the time the first image has been listed and decoded. The engine itself is still
+     * initialised by the first OCR call: tess4j sets it up and tears it down on every call.
+     *
+     * @return The started daemon thread
+     */
+    public Thread warmUp() {
+        Thread thread = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                // Loads the native library through JNA
+                String version = TessAPI.INSTANCE.TessVersion();
+                ImageIO.getImageReadersBySuffix("png").hasNext();
+                // Pull the traineddata files into the page cache, Tesseract reads them on every init
+                for (String lang : language.split("\\+")) {
+                    File trainedData = new File(datapath != null ? datapath : "./", lang + ".traineddata");
+                    if (trainedData.exists()) {
+                        readFully(trainedData);
+                    }
+                }
+                LOGGER.info("🔥 Tesseract " + version + " and " + language + " data loaded in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } catch (Throwable t) {
+                // The first OCR call reports the actual error
+                LOGGER.fine("OCR engine warm-up failed: " + t.getMessage());
+            }
+        }, "ocr-warm-up");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static void readFully(File file) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            while (in.read(buffer) >= 0) {
+                // discard, only warming the page cache
+            }
+        }
+    }
+
     /**
      * Extract text from an image file.
      * 
@@ -40,11 +123,84 @@ public class OCRService {
             throw new OCRException("Image file does not exist: " + imageFile.getAbsolutePath());
         }
         
+        PipelineEvents.OcrEvent event = new PipelineEvents.OcrEvent();
+        event.begin();
         try {
             String result = tesseract.doOCR(imageFile);
-            return result != null ? result.trim() : "";
+            result = result != null ? result.trim() : "";
+            event.characters = result.length();
+            return result;
         } catch (TesseractException e) {
             throw new OCRException("Failed to extract text from image: " + e.getMessage(), e);
+        } finally {
+            if (event.shouldCommit()) {
+                event.image = imageFile.getName();
+                event.call = "doOCR file";
+                event.bytes = imageFile.length();
+                Dimension size = ImageUtil.size(imageFile);
+                if (size != null) {
+                    event.width = size.width;
+                    event.height = size.height;
+                }
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Extract text from an already decoded image, e.g. a region cropped from a screenshot.
+     *
+     * @param image The decoded image to process
+     * @param name Image name used in error messages
+     * @return Extracted text from the image
+     * @throws OCRException if OCR processing fails
+     */
+    public String extractText(BufferedImage image, String name) throws OCRException {
+        PipelineEvents.OcrEvent event = new PipelineEvents.OcrEvent();
+        event.begin();
+        try {
+            String result = tesseract.doOCR(image);
+            result = result != null ? result.trim() : "";
+            event.characters = result.length();
+            return result;
+        } catch (TesseractException e) {
+            throw new OCRException("Failed to extract text from image " + name + ": " + e.getMessage(), e);
+        } finally {
+            commit(event, name, "doOCR image", image);
+        }
+    }
+
+    /**
+     * Extract words with their bounding boxes, in image coordinates, in a single Tesseract pass.
+     *
+     * @param image The decoded image to process
+     * @param name Image name used in error messages
+     * @return Recognized words
+     * @throws OCRException if OCR processing fails
+     */
+    public List<Word> extractWords(BufferedImage image, String name) throws OCRException {
+        PipelineEvents.OcrEvent event = new PipelineEvents.OcrEvent();
+        event.begin();
+        try {
+            List<Word> words = tesseract.getWords(image, TessPageIteratorLevel.RIL_WORD);
+            event.characters = words.stream()
+                .mapToInt(word -> word.getText() != null ? word.getText().length() : 0)
+                .sum();
+            return words;
+        } catch (RuntimeException e) {
+            throw new OCRException("Failed to extract words from image " + name + ": " + e.getMessage(), e);
+        } finally {
+            commit(event, name, "getWords", image);
+        }
+    }
+
+    private static void commit(PipelineEvents.OcrEvent event, String name, String call, BufferedImage image) {
+        if (event.shouldCommit()) {
+            event.image = name;
+            event.call = call;
+            event.width = image.getWidth();
+            event.height = image.getHeight();
+            event.commit();
         }
     }
 
@@ -3,7 +3,9 @@ package com.dremio.throne.ocr;
 import com.dremio.throne.db.Player;
 import com.dremio.throne.db.PlayerClassLoader;
 import com.dremio.throne.util.Labels;
+import com.dremio.throne.util.PipelineEvents;
 import com.dremio.throne.util.Util;
+import com.dremio.throne.validate.PlayerAliasCache;
 import com.dremio.throne.validate.PlayerNameMatcher;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -22,27 +24,41 @@ public class OCRThroneRecognition {
   private final String currentColor;
   private final String enemyGuild;
   private final String dateStr;
+  private final PlayerAliasCache aliasCache;
 
   public OCRThroneRecognition(String currentColor, String enemyGuild, String dateStr) {
+    this(currentColor, enemyGuild, dateStr, null);
+  }
+
+  /**
+   * @param aliasCache Corrections of our own players' names, or null to keep names as cleaned up
+   */
+  public OCRThroneRecognition(String currentColor, String enemyGuild, String dateStr, PlayerAliasCache aliasCache) {
     this.currentColor = currentColor;
     this.enemyGuild = enemyGuild;
     this.dateStr = dateStr;
+    this.aliasCache = aliasCache;
   }
 
   /**
    * Extract relevant data from Tesseract output and convert to CSV format.
    * Also creates errors.csv file for invalid lines.
+   * A player read on several overlapping screenshots keeps the best read, see {@link #readQuality(String)}.
    *
    * @param tesseractOutput Raw Tesseract output text
    * @return List of valid CSV lines (player data with exactly 6 columns)
    */
   public List<Player> recognize(String tesseractOutput) {
-    Set<Player> players = new HashSet<>();
+    Map<Player, Player> players = new LinkedHashMap<>();
+    Map<Player, Long> qualities = new HashMap<>();
 
     if (tesseractOutput == null || tesseractOutput.trim().isEmpty()) {
       return Collections.emptyList();
     }
 
+    PipelineEvents.RecognitionEvent event = new PipelineEvents.RecognitionEvent();
+    event.begin();
+    int errorCount = errorLines.size();
     String[] lines = tesseractOutput.split("\n");
 
     for (String line : lines) {
@@ -52,11 +68,70 @@ public class OCRThroneRecognition {
         continue;
       }
       var className = classes.getOrDefault(player.getName(), Labels.UNKNOWN);
+      if (className.equals(Labels.UNKNOWN)) {
+        className = iconClass(line);
+      }
       player.setClassName(className);
-      players.add(player);
+      long quality = readQuality(line);
+      Long previous = qualities.get(player);
+      if (previous == null || quality > previous) {
+        // Replacing the value of an existing key keeps the first read's position
+        players.put(player, player);
+        qualities.put(player, quality);
+      }
+    }
+    event.lines = lines.length;
+    event.players = players.size();
+    event.errors = errorLines.size() - errorCount;
+    event.commit();
+    return new ArrayList<>(players.values());
+  }
 
+  /**
+   * Class read from the row's icons by the table extractor, in the icon column three columns before the colour.
+   *
+   * @param line OCR line
+   * @return Class, or UNKNOWN when the line has none
+   */
+  private String iconClass(String line) {
+    String[] columns = line.split("\\|");
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = columns[i].trim();
+    }
+    int colorIndex = findColorColumn(columns);
+    if (colorIndex >= 3 && columns[colorIndex - 3].startsWith(Labels.CLASS_PREFIX)) {
+      return columns[colorIndex - 3].substring(Labels.CLASS_PREFIX.length());
     }
-    return new ArrayList<>(players);
+    return Labels.UNKNOWN;
+  }
+
+  /**
+   * Score a line so the best of several reads of a row can be kept: the most numbers read first, then the fewest
+   * characters dropped from them (stray letters and symbols are OCR noise), then the most digits.
+   *
+   * @param line OCR line
+   * @return Higher for better reads
+   */
+  private long readQuality(String line) {
+    String[] columns = line.split("\\|");
+    int colorIndex = findColorColumn(Arrays.stream(columns).map(String::trim).toArray(String[]::new));
+    long numbers = 0;
+    long noise = 0;
+    long digits = 0;
+    for (int i = colorIndex + 1; i < columns.length; i++) {
+      String value = columns[i].trim();
+      if (value.chars().anyMatch(Character::isDigit)) {
+        numbers++;
+      }
+      for (char c : value.toCharArray()) {
+        if (Character.isDigit(c)) {
+          digits++;
+        } else if (c != ' ' && c != ',' && c != '.' && c != '\'') {
+          noise++;
+        }
+      }
+    }
+    return numbers * 1_000_000L - noise * 1_000L + digits;
   }
 
   /**
@@ -88,9 +163,22 @@ public class OCRThroneRecognition {
     if (line.isEmpty()) {
       return null;
     }
+    PipelineEvents.LineEvent event = new PipelineEvents.LineEvent();
+    event.begin();
+    Player player = parseLine(line, event);
+    if (event.shouldCommit()) {
+      event.parsed = player != null;
+      event.player = player != null ? player.getName() : null;
+      event.commit();
+    }
+    return player;
+  }
+
+  private Player parseLine(String line, PipelineEvents.LineEvent event) {
 
     // Split by pipe character
     String[] columns = line.split("\\|");
+    event.columns = columns.length;
 
     // Clean up each column
     for (int i = 0; i < columns.length; i++) {
@@ -113,6 +201,13 @@ public class OCRThroneRecognition {
       return null;
     }
 
+    String color = extractColorFromColumn(columns[colorIndex]);
+    String guild = color.equalsIgnoreCase(currentColor) ? Labels.SUITS : enemyGuild;
+    // The roster only lists our own players, an enemy with a similar name must not be renamed
+    if (aliasCache != null && guild.equals(Labels.SUITS)) {
+      playerName = aliasCache.resolve(playerName);
+    }
+
     // Extract numeric columns after color
     List<Long> numericValues = new ArrayList<>();
     for (int i = colorIndex + 1; i < columns.length; i++) {
@@ -120,8 +215,6 @@ public class OCRThroneRecognition {
       numericValues.add(Util.parseLongSafely(cleanValue));
     }
 
-    String color = extractColorFromColumn(columns[colorIndex]);
-    String guild = color.equalsIgnoreCase(currentColor) ? Labels.SUITS : enemyGuild;
     if (numericValues.size() != 5) {
       return new Player(playerName, guild, dateStr, numericValues.toArray(new Long[0]));
     }
@@ -194,7 +287,19 @@ public class OCRThroneRecognition {
   }
 
   public void writeErrorsToFile() throws IOException {
-    try (FileWriter writer = new FileWriter("errors.csv")) {
+    writeErrorsToFile("errors.csv");
+  }
+
+  /**
+   * Write the lines that did not give a valid player.
+   *
+   * @param filename Errors file, replaced
+   * @throws IOException if writing fails
+   */
+  public void writeErrorsToFile(String filename) throws IOException {
+    PipelineEvents.OutputEvent event = new PipelineEvents.OutputEvent();
+    event.begin();
+    try (FileWriter writer = new FileWriter(filename)) {
       for (String errorLine : errorLines) {
         Player player = processLine(errorLine);
         if (player == null) {
@@ -207,5 +312,6 @@ public class OCRThroneRecognition {
         writer.write(player.toCSV() + "\n");
       }
     }
+    event.commitFile(filename, "error lines", errorLines.size());
   }
 }
@@ -0,0 +1,287 @@
+package com.dremio.throne.ocr;
+
+import com.dremio.throne.image.LayoutCache;
+import com.dremio.throne.util.LatencyHistogram;
+import com.dremio.throne.util.RunReport;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Shares a pool of OCR engines between work of different urgency, e.g. a live single-screenshot lookup and a
+ * month-long backfill, so the lookup does not wait behind thousands of queued images.
+ * <p>
+ * Each class of work has its own bounded queue; submitting to a full queue is rejected rather than queued without
+ * limit. A free worker takes the head of the most urgent queue, but queued work is promoted one class for every
+ * aging period it has waited, up to normal, so bulk work still makes progress while normal work keeps arriving;
+ * interactive work is never overtaken by aged work, however large the backlog. Each worker owns one engine,
+ * Tesseract instances not being thread-safe.
+ */
+public class PriorityScheduler implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(PriorityScheduler.class.getName());
+
+    public static final String REPORT_SECTION = "priority";
+
+    /** Most urgent class aged work is promoted to, interactive work always going first. */
+    private static final Priority PROMOTION_LIMIT = Priority.NORMAL;
+
+    /**
+     * Classes of work, most urgent first.
+     */
+    public enum Priority {
+        INTERACTIVE(16),
+        NORMAL(256),
+        BULK(4096);
+
+        private final int defaultLimit;
+
+        Priority(int defaultLimit) {
+            this.defaultLimit = defaultLimit;
+        }
+
+        /** Queued tasks accepted by default. */
+        public int getDefaultLimit() {
+            return defaultLimit;
+        }
+    }
+
+    /**
+     * Work done with the engine of the worker running it.
+     */
+    public interface EngineTask<T> {
+        T call(OCRService engine) throws Exception;
+    }
+
+    /**
+     * Queued task, with its submission time for aging and wait times.
+     */
+    private static class Entry {
+        final FutureTask<?> task;
+        final long submitted = System.nanoTime();
+
+        Entry(FutureTask<?> task) {
+            this.task = task;
+        }
+    }
+
+    /**
+     * Queue and statistics of one class.
+     */
+    private static class Lane {
+        final int limit;
+        final ArrayDeque<Entry> queue = new ArrayDeque<>();
+        final LatencyHistogram waits = new LatencyHistogram();
+        long submitted;
+        long rejected;
+        long promoted;
+
+        Lane(int limit) {
+            this.limit = limit;
+        }
+    }
+
+    private final Map<Priority, Lane> lanes = new EnumMap<>(Priority.class);
+    private final long agingNanos;
+    private final List<Thread> workers = new ArrayList<>();
+    private final ThreadLocal<OCRService> engine;
+    private boolean closed;
+
+    /**
+     * Scheduler with the default queue limits.
+     *
+     * @param workerCount Worker threads, i.e. engines
+     * @param engines Creates the engine of each worker, on first use
+     * @param agingMillis Wait after which queued work is promoted one class
+     */
+    public PriorityScheduler(int workerCount, Supplier<OCRService> engines, long agingMillis) {
+        this(workerCount, engines, agingMillis, defaultLimits());
+    }
+
+    /**
+     * @param workerCount Worker threads, i.e. engines
+     * @param engines Creates the engine of each worker, on first use
+     * @param agingMillis Wait after which queued work is promoted one class
+     * @param limits Queued tasks accepted per class, default limit for missing classes
+     */
+    public PriorityScheduler(int workerCount, Supplier<OCRService> engines, long agingMillis,
+                             Map<Priority, Integer> limits) {
+        this.agingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, agingMillis));
+        this.engine = ThreadLocal.withInitial(engines);
+        for (Priority priority : Priority.values()) {
+            lanes.put(priority, new Lane(Math.max(1, limits.getOrDefault(priority, priority.getDefaultLimit()))));
+        }
+        for (int i = 0; i < Math.max(1, workerCount); i++) {
+            Thread thread = new Thread(this::work, "ocr-priority-" + (i + 1));
+            thread.setDaemon(true);
+            workers.add(thread);
+            thread.start();
+        }
+    }
+
+    public static Map<Priority, Integer> defaultLimits() {
+        Map<Priority, Integer> limits = new EnumMap<>(Priority.class);
+        for (Priority priority : Priority.values()) {
+            limits.put(priority, priority.getDefaultLimit());
+        }
+        return limits;
+    }
+
+    /**
+     * Queue work.
+     *
+     * @param priority Class of the work
+     * @param task Work, run with a worker's engine
+     * @return Result of the work
+     * @throws RejectedExecutionException if the queue of the class is full or the scheduler is closed
+     */
+    public synchronized <T> Future<T> submit(Priority priority, EngineTask<T> task) {
+        Lane lane = lanes.get(priority);
+        if (closed) {
+            throw new RejectedExecutionException("Scheduler is closed");
+        }
+        if (lane.queue.size() >= lane.limit) {
+            lane.rejected++;
+            throw new RejectedExecutionException(priority.name().toLowerCase(Locale.ROOT) + " queue is full ("
+                + lane.limit + " tasks)");
+        }
+        FutureTask<T> future = new FutureTask<>(() -> task.call(engine.get()));
+        lane.queue.add(new Entry(future));
+        lane.submitted++;
+        notify();
+        return future;
+    }
+
+    /**
+     * Queue the OCR of an image, as {@link OCRFileProcessor} does it.
+     *
+     * @param priority Class of the work
+     * @param image Image to read
+     * @param layoutCache Shared layout cache, or null to OCR the full image
+     * @return OCR output of the image
+     * @throws RejectedExecutionException if the queue of the class is full or the scheduler is closed
+     */
+    public Future<String> submit(Priority priority, File image, LayoutCache layoutCache) {
+        return submit(priority, engine -> new OCRFileProcessor(image.getAbsolutePath(), engine, layoutCache).call());
+    }
+
+    /**
+     * Tasks waiting in the queue of a class.
+     */
+    public synchronized int getQueued(Priority priority) {
+        return lanes.get(priority).queue.size();
+    }
+
+    /**
+     * Time tasks of a class waited in their queue before a worker took them.
+     */
+    public LatencyHistogram getQueueWait(Priority priority) {
+        return lanes.get(priority).waits;
+    }
+
+    /**
+     * Record submitted, rejected and promoted tasks and queue waits per class.
+     */
+    public synchronized void report(RunReport report) {
+        report.add(REPORT_SECTION, "workers=" + workers.size());
+        report.add(REPORT_SECTION, "aging_ms=" + TimeUnit.NANOSECONDS.toMillis(agingNanos));
+        for (Map.Entry<Priority, Lane> entry : lanes.entrySet()) {
+            Lane lane = entry.getValue();
+            report.add(REPORT_SECTION, String.format(Locale.ROOT,
+                "%s limit=%d submitted=%d rejected=%d promoted=%d wait_p50_ms=%d wait_p99_ms=%d wait_max_ms=%d",
+                entry.getKey().name().toLowerCase(Locale.ROOT), lane.limit, lane.submitted, lane.rejected,
+                lane.promoted, lane.waits.getPercentile(50) / 1_000_000, lane.waits.getPercentile(99) / 1_000_000,
+                lane.waits.getMax() / 1_000_000));
+        }
+    }
+
+    /**
+     * Stop taking work; queued tasks are cancelled and running ones interrupted.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            for (Lane lane : lanes.values()) {
+                for (Entry entry : lane.queue) {
+                    entry.task.cancel(false);
+                }
+                lane.queue.clear();
+            }
+            notifyAll();
+        }
+        for (Thread thread : workers) {
+            thread.interrupt();
+        }
+    }
+
+    private void work() {
+        while (true) {
+            FutureTask<?> task;
+            try {
+                task = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == null) {
+                return;
+            }
+            // Exceptions are kept by the task for its submitter
+            task.run();
+        }
+    }
+
+    /**
+     * Wait for the next task: the head with the most urgent class once promoted for its wait (never above normal),
+     * the oldest on ties.
+     *
+     * @return Task, or null once closed
+     */
+    private synchronized FutureTask<?> take() throws InterruptedException {
+        while (true) {
+            if (closed) {
+                return null;
+            }
+            long now = System.nanoTime();
+            Priority best = null;
+            long bestRank = Long.MAX_VALUE;
+            long bestSubmitted = Long.MAX_VALUE;
+            for (Map.Entry<Priority, Lane> entry : lanes.entrySet()) {
+                Entry head = entry.getValue().queue.peek();
+                if (head == null) {
+                    continue;
+                }
+                long rank = Math.max(Math.min(entry.getKey().ordinal(), PROMOTION_LIMIT.ordinal()),
+                    entry.getKey().ordinal() - (now - head.submitted) / agingNanos);
+                if (rank < bestRank || rank == bestRank && head.submitted - bestSubmitted < 0) {
+                    best = entry.getKey();
+                    bestRank = rank;
+                    bestSubmitted = head.submitted;
+                }
+            }
+            if (best == null) {
+                wait();
+                continue;
+            }
+            Lane lane = lanes.get(best);
+            Entry head = lane.queue.poll();
+            lane.waits.record(now - head.submitted);
+            if (bestRank < best.ordinal()) {
+                lane.promoted++;
+                LOGGER.fine("Promoted " + best.name().toLowerCase(Locale.ROOT) + " task after "
+                    + TimeUnit.NANOSECONDS.toMillis(now - head.submitted) + " ms");
+            }
+            return head.task;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.dremio.throne.ocr;
+
+import com.dremio.throne.ocr.ProcessEngineWorker.Frame;
+import com.dremio.throne.util.LatencyHistogram;
+import com.dremio.throne.util.RunReport;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Runs OCR in child JVMs instead of calling Tesseract in the batch process. A native crash or hang on a corrupt
+ * image then only costs that image: each request has a deadline, and a worker that misses it or dies is killed
+ * and started again for the next image. Each worker has its own heap and native memory, and its own OpenMP
+ * thread limit (cores / workers), so several engines run side by side without oversubscribing the machine.
+ * <p>
+ * Workers are long-lived {@link ProcessEngineWorker} JVMs holding a warm engine, started on first use. A caller
+ * borrows an idle worker for each image, so as many images are read at once as there are workers. Safe for use by
+ * several threads.
+ */
+public class ProcessEnginePool implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ProcessEnginePool.class.getName());
+
+    public static final String REPORT_SECTION = "engines";
+
+    /** Time a new worker has to connect back, JVM start included. */
+    private static final int CONNECT_TIMEOUT_MILLIS = 60_000;
+
+    /** System property prefixes passed on to workers, so they see the batch's options and native paths. */
+    private static final List<String> INHERITED_PROPERTIES = Arrays.asList("throne.", "jna.", "java.library.path");
+
+    /**
+     * Error reported by a worker that is still running.
+     */
+    private static class ImageFailedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        ImageFailedException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * One child JVM and its connection, both null while the worker is not running.
+     */
+    private final class Worker {
+        final int index;
+        Process process;
+        Socket socket;
+        DataInputStream in;
+        DataOutputStream out;
+        int nextId;
+
+        Worker(int index) {
+            this.index = index;
+        }
+
+        boolean isRunning() {
+            return process != null && process.isAlive();
+        }
+
+        void start() throws IOException {
+            String token = UUID.randomUUID().toString();
+            try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                server.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+                List<String> command = command(server.getLocalPort(), token);
+                ProcessBuilder builder = new ProcessBuilder(command).inheritIO();
+                if (threadLimit > 0) {
+                    builder.environment().put("OMP_THREAD_LIMIT", String.valueOf(threadLimit));
+                }
+                process = builder.start();
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    stop();
+                    throw new IOException("OCR worker " + index + " did not connect within "
+                        + CONNECT_TIMEOUT_MILLIS / 1000 + " s");
+                }
+            }
+            socket.setTcpNoDelay(true);
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            socket.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+            Frame hello = ProcessEngineWorker.read(in);
+            if (hello.type != ProcessEngineWorker.HELLO || !hello.text().equals(token)) {
+                stop();
+                throw new IOException("OCR worker " + index + " sent an unexpected greeting");
+            }
+            starts.incrementAndGet();
+            LOGGER.fine("OCR worker " + index + " started (pid " + process.pid() + ")");
+        }
+
+        String process(File image, long deadlineNanos) throws Exception {
+            int id = ++nextId;
+            ProcessEngineWorker.write(out, new Frame(id, ProcessEngineWorker.REQUEST,
+                image.getAbsolutePath().getBytes(StandardCharsets.UTF_8)));
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+            if (remaining <= 0) {
+                throw new SocketTimeoutException();
+            }
+            socket.setSoTimeout((int) Math.min(Integer.MAX_VALUE, remaining));
+            Frame reply = ProcessEngineWorker.read(in);
+            if (reply.id != id) {
+                throw new IOException("OCR worker " + index + " answered request " + reply.id + " instead of " + id);
+            }
+            if (reply.type == ProcessEngineWorker.ERROR) {
+                throw new ImageFailedException(reply.text());
+            }
+            return reply.text();
+        }
+
+        void stop() {
+            try {
+                if (socket != null) {
+                    socket.close();
+                }
+            } catch (IOException e) {
+                // the process is killed anyway
+            }
+            if (process != null) {
+                process.destroyForcibly();
+                try {
+                    process.waitFor(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            process = null;
+            socket = null;
+            in = null;
+            out = null;
+        }
+
+        int exitCode() {
+            try {
+                return process != null && process.waitFor(1, TimeUnit.SECONDS) ? process.exitValue() : -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+        }
+    }
+
+    private final String mainClass;
+    private final List<String> workerArguments;
+    private final List<String> jvmOptions;
+    private final long deadlineMillis;
+    private final int threadLimit;
+    private final List<Worker> workers = new ArrayList<>();
+    private final BlockingQueue<Worker> idle;
+    private final AtomicInteger starts = new AtomicInteger();
+    private final AtomicInteger timeouts = new AtomicInteger();
+    private final AtomicInteger crashes = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private volatile boolean closed;
+
+    /**
+     * Pool of Tesseract workers.
+     *
+     * @param processes Child JVMs
+     * @param language OCR language code
+     * @param deadlineMillis Time an image may take before its worker is restarted
+     * @param heap Maximum heap of each worker (-Xmx value, e.g. 512m), or null for the JVM default
+     */
+    public ProcessEnginePool(int processes, String language, long deadlineMillis, String heap) {
+        this(processes, ProcessEngineWorker.class.getName(), Arrays.asList(language), deadlineMillis,
+            heap != null ? Arrays.asList("-Xmx" + heap) : new ArrayList<>());
+    }
+
+    /**
+     * @param processes Child JVMs
+     * @param mainClass Main class of the workers, calling {@link ProcessEngineWorker#serve} with its first two
+     *                  arguments
+     * @param workerArguments Arguments given to the workers after the port and token
+     * @param deadlineMillis Time an image may take before its worker is restarted
+     * @param jvmOptions Options of the worker JVMs
+     */
+    ProcessEnginePool(int processes, String mainClass, List<String> workerArguments, long deadlineMillis,
+                      List<String> jvmOptions) {
+        int count = Math.max(1, processes);
+        this.mainClass = mainClass;
+        this.workerArguments = workerArguments;
+        this.jvmOptions = jvmOptions;
+        this.deadlineMillis = Math.max(1, deadlineMillis);
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.threadLimit = count > 1 ? Math.max(1, cores / count) : 0;
+        this.idle = new ArrayBlockingQueue<>(count);
+        for (int i = 0; i < count; i++) {
+            Worker worker = new Worker(i + 1);
+            workers.add(worker);
+            idle.add(worker);
+        }
+    }
+
+    /**
+     * OCR an image in the next idle worker, waiting for one if they are all busy.
+     *
+     * @param image Image to read
+     * @return OCR output of the image
+     * @throws TimeoutException if the image took longer than the deadline; its worker is restarted
+     * @throws IOException if the worker failed to read the image, crashed or could not be started
+     * @throws InterruptedException if interrupted while waiting for a worker
+     */
+    public String process(File image) throws Exception {
+        Worker worker = idle.take();
+        try {
+            if (closed) {
+                throw new IOException("OCR worker pool is closed");
+            }
+            if (!worker.isRunning()) {
+                worker.stop();
+                worker.start();
+            }
+            // Workers load the natives and language data before greeting, JVM start and loading do not count
+            // against the image
+            long start = System.nanoTime();
+            String text = worker.process(image, start + TimeUnit.MILLISECONDS.toNanos(deadlineMillis));
+            latencies.record(System.nanoTime() - start);
+            return text;
+        } catch (SocketTimeoutException e) {
+            timeouts.incrementAndGet();
+            LOGGER.warning("⏳ " + image.getName() + " took over " + deadlineMillis + " ms, restarting OCR worker "
+                + worker.index);
+            worker.stop();
+            throw new TimeoutException(image.getName() + " took over " + deadlineMillis + " ms");
+        } catch (ImageFailedException e) {
+            // The worker reported the error and is still usable
+            failures.incrementAndGet();
+            throw new IOException(e.getMessage());
+        } catch (IOException e) {
+            crashes.incrementAndGet();
+            int exitCode = worker.exitCode();
+            LOGGER.warning("💥 OCR worker " + worker.index + " died on " + image.getName() + " (exit code " + exitCode
+                + "), restarting it");
+            worker.stop();
+            throw new IOException("OCR worker died on " + image.getName() + " (exit code " + exitCode + ")", e);
+        } finally {
+            idle.add(worker);
+        }
+    }
+
+    /**
+     * Record worker starts, timeouts, crashes and per-image latency.
+     */
+    public void report(RunReport report) {
+        report.add(REPORT_SECTION, "processes=" + workers.size());
+        report.add(REPORT_SECTION, "deadline_ms=" + deadlineMillis);
+        report.add(REPORT_SECTION, "native_thread_limit=" + (threadLimit > 0 ? String.valueOf(threadLimit) : "default"));
+        report.add(REPORT_SECTION, String.format(Locale.ROOT,
+            "starts=%d timeouts=%d crashes=%d failed_images=%d images=%d p50_ms=%d p99_ms=%d",
+            starts.get(), timeouts.get(), crashes.get(), failures.get(), latencies.getCount(),
+            latencies.getPercentile(50) / 1_000_000, latencies.getPercentile(99) / 1_000_000));
+    }
+
+    /**
+     * Stop every worker, waiting for the images being read.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        List<Worker> stopped = new ArrayList<>();
+        try {
+            while (stopped.size() < workers.size()) {
+                Worker worker = idle.take();
+                worker.stop();
+                stopped.add(worker);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            workers.forEach(Worker::stop);
+        } finally {
+            idle.addAll(stopped);
+        }
+    }
+
+    private List<String> command(int port, String token) {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(jvmOptions);
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (INHERITED_PROPERTIES.stream().anyMatch(name::startsWith)) {
+                command.add("-D" + name + "=" + System.getProperty(name));
+            }
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass);
+        command.add(String.valueOf(port));
+        command.add(token);
+        command.addAll(workerArguments);
+        return command;
+    }
+}
@@ -0,0 +1,145 @@
+package com.dremio.throne.ocr;
+
+import com.dremio.throne.image.LayoutCache;
+import com.dremio.throne.util.Options;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Logger;
+
+/**
+ * Child JVM of a {@link ProcessEnginePool}: holds one warm OCR engine and reads the images the pool sends it, one
+ * at a time, until the pool closes the connection.
+ * <p>
+ * The pool and its workers talk over a loopback socket rather than the child's standard output, which Tesseract
+ * writes warnings to. Every message is a frame: payload length (int), request id (int), type (byte), payload. The
+ * worker opens the connection with a HELLO frame holding the token it was started with, so the pool knows which
+ * child connected; requests carry an image path, replies the OCR text or the error message, all in UTF-8.
+ * <p>
+ * Usage: ProcessEngineWorker port token language
+ */
+public class ProcessEngineWorker {
+
+    private static final Logger LOGGER = Logger.getLogger(ProcessEngineWorker.class.getName());
+
+    static final byte HELLO = 1;
+    static final byte REQUEST = 2;
+    static final byte RESULT = 3;
+    static final byte ERROR = 4;
+
+    /** Largest payload accepted, far above any OCR output. */
+    private static final int MAX_PAYLOAD = 64 * 1024 * 1024;
+
+    /**
+     * Work done for one image.
+     */
+    public interface Handler {
+        String process(File image) throws Exception;
+    }
+
+    /**
+     * One message.
+     */
+    static final class Frame {
+        final int id;
+        final byte type;
+        final byte[] payload;
+
+        Frame(int id, byte type, byte[] payload) {
+            this.id = id;
+            this.type = type;
+            this.payload = payload;
+        }
+
+        String text() {
+            return new String(payload, StandardCharsets.UTF_8);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 3) {
+            System.err.println("Usage: ProcessEngineWorker <port> <token> <language>");
+            System.exit(1);
+        }
+        OCRService ocrService = new OCRService(args[2]);
+        // Loaded before HELLO, so the pool's deadline for the first image does not cover it
+        ocrService.warmUp().join();
+        boolean pixelColor = Options.isEnabled(Options.PIXEL_COLOR) || Options.isEnabled(Options.STITCH)
+            || Options.isEnabled(Options.CLASS_ICONS) || Options.isEnabled(Options.DIGITS);
+        // Stitching, class icons and digit glyphs share state across the batch, they stay in the batch process
+        LayoutCache layoutCache = Options.isEnabled(Options.LAYOUT) || pixelColor
+            ? new LayoutCache(Options.get(Options.LAYOUT_FILE, "layouts.csv"), Options.get(Options.LAYOUT_PROFILE, ""))
+            : null;
+        TableExtractor tableExtractor = pixelColor ? new TableExtractor(ocrService) : null;
+        serve(Integer.parseInt(args[0]), args[1],
+            image -> new OCRFileProcessor(image.getPath(), ocrService, layoutCache, tableExtractor).call());
+    }
+
+    /**
+     * Connect to the pool and process its requests until it closes the connection.
+     *
+     * @param port Loopback port the pool listens on
+     * @param token Token the pool started this worker with
+     * @param handler Work done for each image
+     * @throws IOException if the connection fails
+     */
+    public static void serve(int port, String token, Handler handler) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            write(out, new Frame(0, HELLO, token.getBytes(StandardCharsets.UTF_8)));
+            while (true) {
+                Frame request;
+                try {
+                    request = read(in);
+                } catch (EOFException e) {
+                    return;
+                }
+                if (request.type != REQUEST) {
+                    throw new IOException("Unexpected frame type " + request.type);
+                }
+                Frame reply;
+                try {
+                    String text = handler.process(new File(request.text()));
+                    reply = new Frame(request.id, RESULT, (text == null ? "" : text).getBytes(StandardCharsets.UTF_8));
+                } catch (Exception e) {
+                    LOGGER.warning("Failed to process " + request.text() + ": " + e.getMessage());
+                    String message = e.getMessage() != null ? e.getMessage() : e.toString();
+                    reply = new Frame(request.id, ERROR, message.getBytes(StandardCharsets.UTF_8));
+                }
+                write(out, reply);
+            }
+        }
+    }
+
+    static void write(DataOutputStream out, Frame frame) throws IOException {
+        out.writeInt(frame.payload.length);
+        out.writeInt(frame.id);
+        out.writeByte(frame.type);
+        out.write(frame.payload);
+        out.flush();
+    }
+
+    /**
+     * @throws EOFException if the connection was closed before a frame started
+     */
+    static Frame read(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_PAYLOAD) {
+            throw new IOException("Corrupt frame, payload of " + length + " bytes");
+        }
+        int id = in.readInt();
+        byte type = in.readByte();
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return new Frame(id, type, payload);
+    }
+}
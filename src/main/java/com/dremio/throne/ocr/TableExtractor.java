@@ -0,0 +1,273 @@
+package com.dremio.throne.ocr;
+
+import com.dremio.throne.image.ClassIconMatcher;
+import com.dremio.throne.image.DigitRecognizer;
+import com.dremio.throne.image.ImageUtil;
+import com.dremio.throne.image.LayoutDetector;
+import com.dremio.throne.image.RowStitcher;
+import com.dremio.throne.image.ScoreboardLayout;
+import com.dremio.throne.image.TeamColorClassifier;
+import com.dremio.throne.util.Labels;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import net.sourceforge.tess4j.Word;
+
+/**
+ * Layout-aware extraction of the scoreboard table.
+ * Rows come from the separator segments and columns from the layout, so each row is rebuilt as a clean
+ * pipe-separated line instead of relying on Tesseract reading the separators as '|'.
+ * The team colour is read from the pixels of the colour cell; only inconclusive cells are left for OCR, and teach
+ * the classifier the shape of the colour word Tesseract read in them.
+ * With a {@link RowStitcher}, rows already read on an overlapping screenshot are blanked before OCR and left out.
+ * With a {@link ClassIconMatcher}, players missing from the roster get the class read from their row's icons,
+ * written as {@link Labels#CLASS_PREFIX} and the class in the icon column.
+ * With a {@link DigitRecognizer}, stat cells are read from digit glyphs and blanked before OCR; Tesseract only reads
+ * the cells whose glyphs do not all match, and teaches the recognizer the glyphs of those it reads.
+ */
+public class TableExtractor {
+
+    private static final Logger LOGGER = Logger.getLogger(TableExtractor.class.getName());
+
+    private static final int CELL_MARGIN = 2;
+
+    private final OCRService ocrService;
+    private final LayoutDetector detector = new LayoutDetector();
+    private final TeamColorClassifier colorClassifier;
+    private final RowStitcher stitcher;
+    private final ClassIconMatcher classIcons;
+    private final Map<String, String> roster;
+    private final DigitRecognizer digits;
+
+    public TableExtractor(OCRService ocrService) {
+        this(ocrService, null);
+    }
+
+    /**
+     * @param stitcher Rows seen on the batch's other screenshots, shared by all extractors, or null to read every row
+     */
+    public TableExtractor(OCRService ocrService, RowStitcher stitcher) {
+        this(ocrService, stitcher, null, Collections.emptyMap());
+    }
+
+    /**
+     * @param stitcher Rows seen on the batch's other screenshots, shared by all extractors, or null to read every row
+     * @param classIcons Class icon templates, shared by all extractors, or null to leave classes to the roster
+     * @param roster Class of every known player, rows of these players teach the templates their class
+     */
+    public TableExtractor(OCRService ocrService, RowStitcher stitcher, ClassIconMatcher classIcons,
+                          Map<String, String> roster) {
+        this(ocrService, stitcher, classIcons, roster, null);
+    }
+
+    /**
+     * @param stitcher Rows seen on the batch's other screenshots, shared by all extractors, or null to read every row
+     * @param classIcons Class icon templates, shared by all extractors, or null to leave classes to the roster
+     * @param roster Class of every known player, rows of these players teach the templates their class
+     * @param digits Digit glyph templates, shared by all extractors, or null to OCR every stat cell
+     */
+    public TableExtractor(OCRService ocrService, RowStitcher stitcher, ClassIconMatcher classIcons,
+                          Map<String, String> roster, DigitRecognizer digits) {
+        this(ocrService, stitcher, classIcons, roster, digits, new TeamColorClassifier());
+    }
+
+    /**
+     * @param stitcher Rows seen on the batch's other screenshots, shared by all extractors, or null to read every row
+     * @param classIcons Class icon templates, shared by all extractors, or null to leave classes to the roster
+     * @param roster Class of every known player, rows of these players teach the templates their class
+     * @param digits Digit glyph templates, shared by all extractors, or null to OCR every stat cell
+     * @param colorClassifier Colour word templates, shared by all extractors
+     */
+    public TableExtractor(OCRService ocrService, RowStitcher stitcher, ClassIconMatcher classIcons,
+                          Map<String, String> roster, DigitRecognizer digits, TeamColorClassifier colorClassifier) {
+        this.ocrService = ocrService;
+        this.colorClassifier = colorClassifier;
+        this.stitcher = stitcher;
+        this.classIcons = classIcons;
+        this.roster = roster;
+        this.digits = digits;
+    }
+
+    /**
+     * Extract the scoreboard rows of a screenshot.
+     *
+     * @param image Decoded screenshot
+     * @param layout Layout detected for this image size
+     * @param name Image name used in logs and error messages
+     * @return One pipe-separated line per table row, in the format expected by {@link OCRThroneRecognition}
+     * @throws OCRService.OCRException if OCR processing fails
+     */
+    public String extract(BufferedImage image, ScoreboardLayout layout, String name) throws OCRService.OCRException {
+        Rectangle table = layout.getTable();
+        if (!layout.hasStandardColumns()) {
+            return ocrService.extractText(ImageUtil.crop(image, table), name);
+        }
+        List<int[]> rows = detector.detectRows(image, layout);
+        if (rows.isEmpty()) {
+            return ocrService.extractText(ImageUtil.crop(image, table), name);
+        }
+
+        // Blank rows already read on an overlapping screenshot, then classify team colours and read numbers from
+        // pixels, blanking the cells read so Tesseract skips them
+        BufferedImage tableImage = ImageUtil.crop(image, table);
+        int[] colorColumn = layout.getColumn(ScoreboardLayout.COLOR_COLUMN);
+        String[] colors = new String[rows.size()];
+        boolean[] stitched = new boolean[rows.size()];
+        String[][] numbers = new String[rows.size()][ScoreboardLayout.COLUMN_COUNT];
+        int classified = 0;
+        int stitchedCount = 0;
+        int numbersRead = 0;
+        Graphics2D graphics = tableImage.createGraphics();
+        try {
+            for (int i = 0; i < rows.size(); i++) {
+                int[] row = rows.get(i);
+                if (stitcher != null && stitcher.isDuplicate(image, layout, row)) {
+                    stitched[i] = true;
+                    stitchedCount++;
+                    graphics.setColor(new Color(image.getRGB(table.x, row[0])));
+                    graphics.fillRect(0, row[0] - table.y, table.width, row[1] - row[0] + 1);
+                    continue;
+                }
+                Rectangle cell = colorCell(colorColumn, row);
+                colors[i] = colorClassifier.classify(image, cell);
+                if (colors[i] != null) {
+                    classified++;
+                    graphics.setColor(new Color(image.getRGB(cell.x, cell.y)));
+                    graphics.fillRect(cell.x - table.x, cell.y - table.y, cell.width, cell.height);
+                }
+                for (int column = ScoreboardLayout.FIRST_STAT_COLUMN; digits != null
+                    && column < ScoreboardLayout.COLUMN_COUNT; column++) {
+                    Rectangle statCell = statCell(layout, row, column);
+                    numbers[i][column] = digits.recognize(image, statCell);
+                    if (numbers[i][column] != null) {
+                        numbersRead++;
+                        graphics.setColor(new Color(image.getRGB(statCell.x, statCell.y)));
+                        graphics.fillRect(statCell.x - table.x, statCell.y - table.y, statCell.width, statCell.height);
+                    }
+                }
+            }
+        } finally {
+            graphics.dispose();
+        }
+        LOGGER.fine(name + ": team colour read from pixels for " + classified + "/" + rows.size() + " rows");
+        if (digits != null) {
+            LOGGER.fine(name + ": " + numbersRead + " stat cells read from digit glyphs");
+        }
+        if (stitchedCount > 0) {
+            LOGGER.info(name + ": " + stitchedCount + "/" + rows.size() + " rows already read on another screenshot");
+            if (stitchedCount == rows.size()) {
+                return "";
+            }
+        }
+
+        List<Word> words = ocrService.extractWords(tableImage, name);
+
+        // Place every word in its row and column
+        StringBuilder[][] cells = new StringBuilder[rows.size()][ScoreboardLayout.COLUMN_COUNT];
+        for (Word word : words) {
+            String text = word.getText() != null ? word.getText().trim() : "";
+            if (text.isEmpty()) {
+                continue;
+            }
+            Rectangle box = word.getBoundingBox();
+            int row = rowAt(rows, table.y + box.y + box.height / 2);
+            int column = layout.columnAt(table.x + box.x + box.width / 2);
+            if (row < 0 || column < 0) {
+                continue;
+            }
+            StringBuilder cell = cells[row][column];
+            if (cell == null) {
+                cells[row][column] = new StringBuilder(text);
+            } else {
+                cell.append(' ').append(text);
+            }
+        }
+
+        int[] iconColumn = layout.getColumn(ScoreboardLayout.ICON_COLUMN);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rows.size(); i++) {
+            if (stitched[i] || cells[i][ScoreboardLayout.NAME_COLUMN] == null) {
+                continue;
+            }
+            if (stitcher != null) {
+                stitcher.markSeen(image, layout, rows.get(i));
+            }
+            if (classIcons != null) {
+                int[] row = rows.get(i);
+                Rectangle cell = new Rectangle(iconColumn[0] + CELL_MARGIN, row[0],
+                    iconColumn[1] - iconColumn[0] - 2 * CELL_MARGIN, row[1] - row[0] + 1);
+                String className = readClass(image, cell, cells[i][ScoreboardLayout.NAME_COLUMN].toString());
+                if (className != null) {
+                    cells[i][ScoreboardLayout.ICON_COLUMN] = new StringBuilder(Labels.CLASS_PREFIX + className);
+                }
+            }
+            if (colors[i] != null) {
+                cells[i][ScoreboardLayout.COLOR_COLUMN] = new StringBuilder(colors[i]);
+            } else if (cells[i][ScoreboardLayout.COLOR_COLUMN] != null) {
+                colorClassifier.learn(image, colorCell(colorColumn, rows.get(i)),
+                    cells[i][ScoreboardLayout.COLOR_COLUMN].toString());
+            }
+            for (int column = ScoreboardLayout.FIRST_STAT_COLUMN; digits != null
+                && column < ScoreboardLayout.COLUMN_COUNT; column++) {
+                if (numbers[i][column] != null) {
+                    cells[i][column] = new StringBuilder(numbers[i][column]);
+                } else if (cells[i][column] != null) {
+                    digits.learn(image, statCell(layout, rows.get(i), column), cells[i][column].toString());
+                }
+            }
+            for (int column = 0; column < ScoreboardLayout.COLUMN_COUNT; column++) {
+                if (column > 0) {
+                    sb.append(" | ");
+                }
+                if (cells[i][column] != null) {
+                    sb.append(cells[i][column]);
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString().trim();
+    }
+
+    /**
+     * Learn the icons of a known player's class, or read the class of an unknown player from their icons.
+     *
+     * @return Class read from the icons, or null when the player is known or no template matches
+     */
+    private String readClass(BufferedImage image, Rectangle cell, String nameText) {
+        String known = roster.get(OCRThroneRecognition.cleanupPlayerName(nameText));
+        if (known != null && !known.isEmpty() && !known.equals(Labels.UNKNOWN)) {
+            classIcons.learn(known, image, cell);
+            return null;
+        }
+        return classIcons.classify(image, cell);
+    }
+
+    private static Rectangle colorCell(int[] colorColumn, int[] row) {
+        return new Rectangle(colorColumn[0] + CELL_MARGIN, row[0], colorColumn[1] - colorColumn[0] - 2 * CELL_MARGIN,
+            row[1] - row[0] + 1);
+    }
+
+    /**
+     * Stat cell of a row, the last column trimmed so text right of the table is left out.
+     */
+    private static Rectangle statCell(ScoreboardLayout layout, int[] row, int column) {
+        int[] bounds = layout.getTrimmedColumn(column);
+        return new Rectangle(bounds[0] + CELL_MARGIN, row[0], bounds[1] - bounds[0] - 2 * CELL_MARGIN,
+            row[1] - row[0] + 1);
+    }
+
+    private static int rowAt(List<int[]> rows, int y) {
+        for (int i = 0; i < rows.size(); i++) {
+            int[] row = rows.get(i);
+            if (y >= row[0] && y <= row[1]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
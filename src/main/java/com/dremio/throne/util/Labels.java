@@ -4,12 +4,18 @@
 
 package com.dremio.throne.util;
 
+import java.util.Map;
 import java.util.Set;
 
 public class Labels {
 
   public static final Set<String> COLORS = Set.of("rouge", "jaune", "yellow", "red");
+  /** Tesseract language of the client each colour word is written by. */
+  public static final Map<String, String> COLOR_LANGUAGES = Map.of("rouge", "fra", "jaune", "fra", "yellow", "eng",
+      "red", "eng");
   public static final String UNKNOWN = "UNKNOWN";
   public static final String SUITS = "Suits";
+  /** Marks a class read from the row's icons in the icon column of a table line. */
+  public static final String CLASS_PREFIX = "class:";
 
 }
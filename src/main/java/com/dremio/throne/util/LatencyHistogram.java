@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.util;
+
+import java.util.Arrays;
+
+/**
+ * Thread-safe recorder of latency values with exact percentiles.
+ * Values are kept as recorded, which is fine for the tens of thousands of images a benchmark processes.
+ */
+public class LatencyHistogram {
+
+  private long[] values = new long[1024];
+  private int count;
+  private boolean sorted = true;
+
+  public synchronized void record(long value) {
+    if (count == values.length) {
+      values = Arrays.copyOf(values, values.length * 2);
+    }
+    values[count++] = value;
+    sorted = false;
+  }
+
+  /**
+   * Record a value and correct for coordinated omission: when a request took longer than the interval at which
+   * requests were meant to be sent, the requests that should have been sent meanwhile are recorded too, with the
+   * latency they would have seen.
+   *
+   * @param value Measured latency
+   * @param expectedInterval Interval between two intended requests, in the same unit, 0 to disable correction
+   */
+  public synchronized void recordCorrected(long value, long expectedInterval) {
+    record(value);
+    if (expectedInterval <= 0) {
+      return;
+    }
+    for (long missed = value - expectedInterval; missed >= expectedInterval; missed -= expectedInterval) {
+      record(missed);
+    }
+  }
+
+  public synchronized int getCount() {
+    return count;
+  }
+
+  /**
+   * Value at a percentile.
+   *
+   * @param percentile Percentile between 0 and 100
+   * @return Recorded value at that percentile, 0 when empty
+   */
+  public synchronized long getPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    if (!sorted) {
+      Arrays.sort(values, 0, count);
+      sorted = true;
+    }
+    int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+    return values[Math.max(0, Math.min(count - 1, index))];
+  }
+
+  public synchronized long getMax() {
+    return getPercentile(100);
+  }
+
+  public synchronized double getMean() {
+    if (count == 0) {
+      return 0;
+    }
+    double total = 0;
+    for (int i = 0; i < count; i++) {
+      total += values[i];
+    }
+    return total / count;
+  }
+
+  public synchronized void reset() {
+    count = 0;
+    sorted = true;
+  }
+}
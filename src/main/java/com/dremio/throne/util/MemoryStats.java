@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Heap and process memory figures for benchmarks. Process figures come from /proc and are -1 elsewhere.
+ */
+public final class MemoryStats {
+
+  private static final File PROC_STATUS = new File("/proc/self/status");
+  private static final File PROC_CLEAR_REFS = new File("/proc/self/clear_refs");
+
+  /**
+   * Reset the heap pools' peak usage and, where the kernel allows it (Linux 4.0 and later), the process's peak
+   * resident set size.
+   *
+   * @return Whether the peak resident set size was reset too; if not, {@link #peakResidentBytes()} still covers the
+   *         whole life of the process
+   */
+  public static boolean resetPeaks() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pool.resetPeakUsage();
+      }
+    }
+    if (!PROC_CLEAR_REFS.exists()) {
+      return false;
+    }
+    try {
+      // "5" resets the peak resident set size to the current one
+      Files.write(PROC_CLEAR_REFS.toPath(), "5".getBytes(StandardCharsets.US_ASCII));
+      return true;
+    } catch (IOException | SecurityException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Sum of the heap pools' peak usage since the last {@link #resetPeaks()}.
+   */
+  public static long peakHeapBytes() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+
+  public static long heapUsedBytes() {
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  /**
+   * Resident set size of the process, covering heap, native Tesseract buffers and mapped files.
+   */
+  public static long residentBytes() {
+    return procStatus("VmRSS:");
+  }
+
+  /**
+   * Peak resident set size of the process since the last {@link #resetPeaks()} that could reset it, otherwise since
+   * the process started.
+   */
+  public static long peakResidentBytes() {
+    return procStatus("VmHWM:");
+  }
+
+  /**
+   * Resident memory that is not Java heap: Tesseract, JNA, metaspace, thread stacks, mapped files.
+   */
+  public static long nativeBytes() {
+    long resident = residentBytes();
+    return resident < 0 ? -1 : Math.max(0, resident - ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getCommitted());
+  }
+
+  public static long toMegabytes(long bytes) {
+    return bytes < 0 ? -1 : bytes / (1024 * 1024);
+  }
+
+  private static long procStatus(String field) {
+    if (!PROC_STATUS.exists()) {
+      return -1;
+    }
+    try {
+      for (String line : Files.readAllLines(PROC_STATUS.toPath())) {
+        if (line.startsWith(field)) {
+          // e.g. "VmRSS:     123456 kB"
+          String[] parts = line.substring(field.length()).trim().split("\\s+");
+          return Long.parseLong(parts[0]) * 1024;
+        }
+      }
+    } catch (IOException | NumberFormatException e) {
+      return -1;
+    }
+    return -1;
+  }
+
+  private MemoryStats() {
+  }
+}
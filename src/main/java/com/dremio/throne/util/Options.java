@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.util;
+
+/**
+ * Optional features, toggled with -D system properties so the positional command line stays unchanged.
+ */
+public final class Options {
+
+  /** Also write a columnar binary copy of the output CSV (output name with a .thrc extension). */
+  public static final String BINARY_OUTPUT = "throne.binary";
+
+  /** Crop screenshots to the scoreboard table, detected once per resolution and cached. */
+  public static final String LAYOUT = "throne.layout";
+
+  /** File the detected layouts are persisted to. */
+  public static final String LAYOUT_FILE = "throne.layout.file";
+
+  /** UI profile name added to layout keys, for clients sharing a resolution but not a layout. */
+  public static final String LAYOUT_PROFILE = "throne.layout.profile";
+
+  /** Rebuild table rows from the layout and read the team colour from pixels (implies layout detection). */
+  public static final String PIXEL_COLOR = "throne.pixelColor";
+
+  /** Read each row of overlapping scrolled screenshots once (implies pixel colours and layout detection). */
+  public static final String STITCH = "throne.stitch";
+
+  /** Read the class of players missing from the roster from their row's icons (implies pixel colours). */
+  public static final String CLASS_ICONS = "throne.classIcons";
+
+  /** Directory of class icon templates, learned from rows of players in the roster. */
+  public static final String CLASS_ICONS_DIR = "throne.classIcons.dir";
+
+  /** Read stat numbers from digit glyphs learned from Tesseract, OCR only the rest (implies pixel colours). */
+  public static final String DIGITS = "throne.digits";
+
+  /** File the learned digit glyphs are kept in. */
+  public static final String DIGITS_FILE = "throne.digits.file";
+
+  /** Correct our own players' misspelled names against the roster, remembering corrections across runs. */
+  public static final String ALIASES = "throne.aliases";
+
+  /** File the learned name aliases are persisted to. */
+  public static final String ALIASES_FILE = "throne.aliases.file";
+
+  /** Add each batch to the season rollups, for leaderboards without re-reading past outputs. */
+  public static final String ROLLUPS = "throne.rollups";
+
+  /** File the season rollups are kept in. */
+  public static final String ROLLUPS_FILE = "throne.rollups.file";
+
+  /** Key of the batch's battle in the season rollups, instead of "<date> vs <enemy guild>". */
+  public static final String ROLLUPS_BATTLE = "throne.rollups.battle";
+
+  /** Directory each battle's raw OCR output is kept in, with its parameters, to be parsed again by ReplayMain. */
+  public static final String RAW_DIR = "throne.raw.dir";
+
+  /** OCR workers: a count, or auto to balance workers against Tesseract's native threads while the batch runs. */
+  public static final String WORKERS = "throne.workers";
+
+  /** Run OCR in this many child JVMs instead of in the batch process, 0 (default) to keep it in-process. */
+  public static final String ENGINE_PROCESSES = "throne.engine.processes";
+
+  /** Seconds an image may take in a child JVM before the child is killed and restarted. */
+  public static final String ENGINE_DEADLINE = "throne.engine.deadline";
+
+  /** Maximum heap of each child JVM, as given to -Xmx. */
+  public static final String ENGINE_HEAP = "throne.engine.heap";
+
+  /** Skip images that do not look like a scoreboard before OCR. */
+  public static final String FILTER = "throne.filter";
+
+  /** Comma-separated image names always sent to OCR, whatever the scoreboard filter says. */
+  public static final String FILTER_KEEP = "throne.filter.keep";
+
+  /** Shared queue directory: the batch is split into items that any number of processes work on. */
+  public static final String QUEUE = "throne.queue";
+
+  /** coordinator (default) splits the batch, works on it and merges the results; worker only works on items. */
+  public static final String QUEUE_ROLE = "throne.queue.role";
+
+  /** Images per queue item. */
+  public static final String QUEUE_ITEM_SIZE = "throne.queue.itemSize";
+
+  /** Seconds after which the lease of a worker that stopped renewing it expires and its item is retried. */
+  public static final String QUEUE_LEASE = "throne.queue.lease";
+
+  /** Claims of a queue item before it is given up. */
+  public static final String QUEUE_ATTEMPTS = "throne.queue.attempts";
+
+  /** Log startup timings, used by the startup benchmark. */
+  public static final String TIMING = "throne.timing";
+
+  public static boolean isEnabled(String option) {
+    return Boolean.getBoolean(option);
+  }
+
+  public static String get(String option, String defaultValue) {
+    return System.getProperty(option, defaultValue);
+  }
+
+  public static int getInt(String option, int defaultValue) {
+    String value = System.getProperty(option);
+    if (value == null || value.trim().isEmpty()) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      return defaultValue;
+    }
+  }
+
+  private Options() {
+  }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.util;
+
+import java.io.File;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events of the OCR pipeline, so a recording of a slow batch opens in JDK Mission Control with
+ * every stage labelled: Tesseract calls, images, recognition, validation and output files. Events cost nothing
+ * unless a recording is running, e.g. with {@code -XX:StartFlightRecording=filename=batch.jfr}.
+ * <p>
+ * An event is begun before the stage and committed after it, its duration is the stage's.
+ */
+public final class PipelineEvents {
+
+  private static final String CATEGORY = "Throne";
+
+  @Name("com.dremio.throne.Ocr")
+  @Label("Tesseract OCR")
+  @Description("One Tesseract call, through JNA")
+  @Category({CATEGORY, "OCR"})
+  @StackTrace(false)
+  public static final class OcrEvent extends Event {
+    @Label("Image")
+    public String image;
+
+    @Label("Call")
+    @Description("doOCR on a file or a decoded image, or getWords")
+    public String call;
+
+    @Label("File Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Characters")
+    public int characters;
+  }
+
+  @Name("com.dremio.throne.Image")
+  @Label("Image Processing")
+  @Description("Decoding, layout, pixel reads and OCR of one screenshot")
+  @Category({CATEGORY, "OCR"})
+  @StackTrace(false)
+  public static final class ImageEvent extends Event {
+    @Label("Image")
+    public String image;
+
+    @Label("File Size")
+    @DataAmount
+    public long bytes;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+
+    @Label("Mode")
+    @Description("full page, cropped table or table rows")
+    public String mode;
+
+    @Label("Output Lines")
+    public int lines;
+  }
+
+  @Name("com.dremio.throne.Recognition")
+  @Label("Recognition")
+  @Description("Parsing of the batch's OCR output into players")
+  @Category({CATEGORY, "Parsing"})
+  @StackTrace(false)
+  public static final class RecognitionEvent extends Event {
+    @Label("Lines")
+    public int lines;
+
+    @Label("Players")
+    public int players;
+
+    @Label("Error Lines")
+    public int errors;
+  }
+
+  @Name("com.dremio.throne.Line")
+  @Label("Line Parsing")
+  @Description("Parsing of one OCR line")
+  @Category({CATEGORY, "Parsing"})
+  @StackTrace(false)
+  public static final class LineEvent extends Event {
+    @Label("Columns")
+    public int columns;
+
+    @Label("Player")
+    public String player;
+
+    @Label("Parsed")
+    public boolean parsed;
+  }
+
+  @Name("com.dremio.throne.Validation")
+  @Label("Validation")
+  @Description("Statistics checks of the batch's players")
+  @Category({CATEGORY, "Validation"})
+  @StackTrace(false)
+  public static final class ValidationEvent extends Event {
+    @Label("Players")
+    public int players;
+
+    @Label("Unknown Class")
+    @Description("Players skipped because their class is unknown")
+    public int skipped;
+
+    @Label("Suspicious")
+    public int suspicious;
+  }
+
+  @Name("com.dremio.throne.Output")
+  @Label("Output File")
+  @Description("Writing of one output file")
+  @Category({CATEGORY, "Output"})
+  @StackTrace(false)
+  public static final class OutputEvent extends Event {
+    @Label("File")
+    public String file;
+
+    @Label("Format")
+    public String format;
+
+    @Label("Rows")
+    public int rows;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+
+    /**
+     * Commit once the file is written, its size is read from the disk.
+     */
+    public void commitFile(String filename, String fileFormat, int rowCount) {
+      if (shouldCommit()) {
+        file = filename;
+        format = fileFormat;
+        rows = rowCount;
+        bytes = new File(filename).length();
+        commit();
+      }
+    }
+  }
+
+  private PipelineEvents() {
+  }
+}
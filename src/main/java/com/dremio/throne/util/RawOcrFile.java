@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+
+/**
+ * Raw OCR output of a batch, as written to tesseract_output.txt, with the batch parameters recognition needs in a
+ * properties file next to it (same name, .properties extension), so the output can be parsed again without OCR.
+ */
+public final class RawOcrFile {
+
+  /** Team colour of our guild, red or yellow. */
+  public static final String COLOR = "color";
+  /** Enemy guild name. */
+  public static final String GUILD = "guild";
+  /** Battle date and time, yyyy-MM-dd HH:mm:ss. */
+  public static final String DATE = "date";
+
+  /**
+   * Properties file holding the parameters of a raw OCR file.
+   */
+  public static File metadataFile(File raw) {
+    String name = raw.getName();
+    int dot = name.lastIndexOf('.');
+    return new File(raw.getAbsoluteFile().getParentFile(), (dot > 0 ? name.substring(0, dot) : name) + ".properties");
+  }
+
+  /**
+   * Write raw OCR output and its parameters.
+   *
+   * @param raw Raw OCR file
+   * @param text OCR output
+   * @param color Team colour of our guild
+   * @param guild Enemy guild name
+   * @param date Battle date and time
+   * @throws IOException if either file cannot be written
+   */
+  public static void write(File raw, String text, String color, String guild, String date) throws IOException {
+    Files.write(raw.toPath(), text.getBytes(StandardCharsets.UTF_8));
+    Properties metadata = new Properties();
+    metadata.setProperty(COLOR, color);
+    metadata.setProperty(GUILD, guild);
+    metadata.setProperty(DATE, date);
+    try (Writer writer = Files.newBufferedWriter(metadataFile(raw).toPath(), StandardCharsets.UTF_8)) {
+      metadata.store(writer, "Throne OCR batch parameters");
+    }
+  }
+
+  /**
+   * Parameters of a raw OCR file.
+   *
+   * @return Parameters, empty when the file has none (e.g. written before they were saved)
+   * @throws IOException if the parameters exist but cannot be read
+   */
+  public static Properties readMetadata(File raw) throws IOException {
+    Properties metadata = new Properties();
+    File file = metadataFile(raw);
+    if (file.exists()) {
+      try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+        metadata.load(reader);
+      }
+    }
+    return metadata;
+  }
+
+  private RawOcrFile() {
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.util;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings and measurements of one batch run, grouped in sections and written to run_report.txt.
+ */
+public class RunReport {
+
+  public static final String FILENAME = "run_report.txt";
+
+  private final Map<String, List<String>> sections = new LinkedHashMap<>();
+
+  /**
+   * Add a line to a section, sections are written in the order they were first used.
+   *
+   * @param section Section title
+   * @param line Line of text
+   */
+  public synchronized void add(String section, String line) {
+    sections.computeIfAbsent(section, k -> new ArrayList<>()).add(line);
+  }
+
+  public synchronized List<String> getLines(String section) {
+    return new ArrayList<>(sections.getOrDefault(section, new ArrayList<>()));
+  }
+
+  public synchronized void write(String filename) throws IOException {
+    try (FileWriter writer = new FileWriter(filename)) {
+      for (Map.Entry<String, List<String>> section : sections.entrySet()) {
+        writer.write("[" + section.getKey() + "]\n");
+        for (String line : section.getValue()) {
+          writer.write(line + "\n");
+        }
+        writer.write("\n");
+      }
+    }
+  }
+}
@@ -0,0 +1,379 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation. This file is confidential and private property.
+ */
+
+package com.dremio.throne.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Batch split into work items in a shared directory, so OCR processes on one or several machines share it:
+ * <pre>
+ * batch.properties       batch parameters, written last so workers only start on a complete queue
+ * items/00000.item       image paths of one item, relative to the queue directory
+ * leases/00000.1.lease   claim of an item by a worker, one file per attempt
+ * results/00000.txt      OCR output of a finished item, renamed into place once complete
+ * results/00000.skipped  images of the item the scoreboard filter rejected
+ * </pre>
+ * An item is claimed by creating its next lease file, which only one process can do. Workers touch their leases
+ * while they work; a lease not touched for the lease duration has expired (its worker died or hung) and the item
+ * is claimed again with the next attempt, up to a maximum. Expiry compares file times with the local clock, so
+ * machines sharing a queue must keep their clocks synchronized.
+ */
+public class WorkQueue {
+
+  private static final Logger LOGGER = Logger.getLogger(WorkQueue.class.getName());
+
+  public static final String BATCH_FILE = "batch.properties";
+
+  private static final String ITEM = ".item";
+  private static final String LEASE = ".lease";
+  private static final String RESULT = ".txt";
+  private static final String SKIPPED = ".skipped";
+
+  private final Path root;
+  private final Path items;
+  private final Path leases;
+  private final Path results;
+  private final long leaseMillis;
+  private final int maxAttempts;
+  private final String workerId;
+  private final Set<Lease> held = ConcurrentHashMap.newKeySet();
+  private ScheduledExecutorService renewer;
+
+  /**
+   * Claim of one item by this process.
+   */
+  public class Lease implements Closeable {
+    private final String item;
+    private final int attempt;
+    private final Path path;
+
+    Lease(String item, int attempt, Path path) {
+      this.item = item;
+      this.attempt = attempt;
+      this.path = path;
+    }
+
+    public String getItem() {
+      return item;
+    }
+
+    public int getAttempt() {
+      return attempt;
+    }
+
+    void renew() {
+      try {
+        Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+      } catch (IOException e) {
+        LOGGER.warning("Failed to renew lease " + path + ": " + e.getMessage());
+      }
+    }
+
+    /**
+     * Stop renewing, the lease then expires unless the item was completed.
+     */
+    @Override
+    public void close() {
+      held.remove(this);
+    }
+  }
+
+  /**
+   * Open a queue directory, existing or not.
+   *
+   * @param root Shared queue directory
+   * @param leaseMillis Time after which a lease no longer renewed has expired
+   * @param maxAttempts Claims of an item before it is given up
+   */
+  public WorkQueue(File root, long leaseMillis, int maxAttempts) {
+    this.root = root.toPath().toAbsolutePath().normalize();
+    this.items = this.root.resolve("items");
+    this.leases = this.root.resolve("leases");
+    this.results = this.root.resolve("results");
+    this.leaseMillis = leaseMillis;
+    this.maxAttempts = maxAttempts;
+    this.workerId = ProcessHandle.current().pid() + "@" + hostname();
+  }
+
+  public String getWorkerId() {
+    return workerId;
+  }
+
+  /**
+   * Whether the queue has been created, i.e. its parameters are written.
+   */
+  public boolean exists() {
+    return Files.exists(root.resolve(BATCH_FILE));
+  }
+
+  /**
+   * Split images into items and write the batch parameters.
+   *
+   * @param images Images of the batch
+   * @param itemSize Images per item
+   * @param parameters Batch parameters
+   * @throws IOException if the queue cannot be written
+   */
+  public void create(List<File> images, int itemSize, Properties parameters) throws IOException {
+    Files.createDirectories(items);
+    Files.createDirectories(leases);
+    Files.createDirectories(results);
+    int count = 0;
+    for (int start = 0; start < images.size(); start += itemSize) {
+      List<String> lines = new ArrayList<>();
+      for (File image : images.subList(start, Math.min(images.size(), start + itemSize))) {
+        // Relative paths resolve on every machine mounting the share, wherever it is mounted
+        lines.add(root.relativize(image.toPath().toAbsolutePath().normalize()).toString().replace('\\', '/'));
+      }
+      Files.write(items.resolve(String.format(Locale.ROOT, "%05d", count++) + ITEM), lines, StandardCharsets.UTF_8);
+    }
+    Path temp = root.resolve(BATCH_FILE + ".tmp");
+    try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+      parameters.store(writer, "Throne OCR batch");
+    }
+    Files.move(temp, root.resolve(BATCH_FILE), StandardCopyOption.ATOMIC_MOVE);
+    LOGGER.info("Queue " + root + " created with " + count + " items of up to " + itemSize + " images");
+  }
+
+  public Properties getParameters() throws IOException {
+    Properties parameters = new Properties();
+    try (Reader reader = Files.newBufferedReader(root.resolve(BATCH_FILE), StandardCharsets.UTF_8)) {
+      parameters.load(reader);
+    }
+    return parameters;
+  }
+
+  /**
+   * Item names in order.
+   */
+  public List<String> getItems() throws IOException {
+    List<String> names = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(items, "*" + ITEM)) {
+      for (Path path : stream) {
+        String name = path.getFileName().toString();
+        names.add(name.substring(0, name.length() - ITEM.length()));
+      }
+    }
+    Collections.sort(names);
+    return names;
+  }
+
+  public List<File> getImages(String item) throws IOException {
+    List<File> images = new ArrayList<>();
+    for (String line : Files.readAllLines(items.resolve(item + ITEM), StandardCharsets.UTF_8)) {
+      if (!line.trim().isEmpty()) {
+        images.add(root.resolve(line.trim()).normalize().toFile());
+      }
+    }
+    return images;
+  }
+
+  /**
+   * Claim the first item that is neither finished nor leased, renewing the lease in the background.
+   *
+   * @return Lease, or null when no item can be claimed right now
+   * @throws IOException if the queue cannot be read
+   */
+  public Lease claim() throws IOException {
+    Map<String, Path> latest = latestLeases();
+    for (String item : getItems()) {
+      if (Files.exists(results.resolve(item + RESULT))) {
+        continue;
+      }
+      Path current = latest.get(item);
+      int attempt = current == null ? 0 : attempt(current);
+      if (current != null && (!isExpired(current) || attempt >= maxAttempts)) {
+        continue;
+      }
+      Path path = leases.resolve(item + "." + (attempt + 1) + LEASE);
+      try {
+        Files.createFile(path);
+      } catch (FileAlreadyExistsException e) {
+        // Another worker claimed it first
+        continue;
+      }
+      Files.write(path, workerId.getBytes(StandardCharsets.UTF_8));
+      if (current != null) {
+        LOGGER.warning("Lease " + current.getFileName() + " expired, retrying item " + item + " (attempt "
+            + (attempt + 1) + ")");
+      }
+      Lease lease = new Lease(item, attempt + 1, path);
+      held.add(lease);
+      startRenewer();
+      return lease;
+    }
+    return null;
+  }
+
+  /**
+   * Publish the result of a claimed item and release its lease.
+   *
+   * @param lease Lease of the item
+   * @param text OCR output of the item's images
+   * @param skipped Lines describing images the filter rejected
+   * @throws IOException if the result cannot be written
+   */
+  public void complete(Lease lease, String text, List<String> skipped) throws IOException {
+    if (!skipped.isEmpty()) {
+      publish(results.resolve(lease.item + SKIPPED), String.join("\n", skipped) + "\n");
+    }
+    publish(results.resolve(lease.item + RESULT), text);
+    lease.close();
+  }
+
+  /**
+   * Whether every item is finished or given up after its last attempt expired.
+   */
+  public boolean isFinished() throws IOException {
+    return getFailedItems().size() + countResults() == getItems().size();
+  }
+
+  /**
+   * Items whose last allowed attempt expired without a result.
+   */
+  public List<String> getFailedItems() throws IOException {
+    Map<String, Path> latest = latestLeases();
+    List<String> failed = new ArrayList<>();
+    for (String item : getItems()) {
+      Path lease = latest.get(item);
+      if (!Files.exists(results.resolve(item + RESULT)) && lease != null && attempt(lease) >= maxAttempts
+          && isExpired(lease)) {
+        failed.add(item);
+      }
+    }
+    return failed;
+  }
+
+  /**
+   * Claims made for each item, 1 when it was never retried.
+   */
+  public Map<String, Integer> getAttempts() throws IOException {
+    Map<String, Integer> attempts = new HashMap<>();
+    latestLeases().forEach((item, lease) -> attempts.put(item, attempt(lease)));
+    return attempts;
+  }
+
+  /**
+   * OCR output of a finished item.
+   *
+   * @return Output, or null if the item has no result
+   */
+  public String getResult(String item) throws IOException {
+    Path path = results.resolve(item + RESULT);
+    return Files.exists(path) ? new String(Files.readAllBytes(path), StandardCharsets.UTF_8) : null;
+  }
+
+  public List<String> getSkipped(String item) throws IOException {
+    Path path = results.resolve(item + SKIPPED);
+    return Files.exists(path) ? Files.readAllLines(path, StandardCharsets.UTF_8) : Collections.emptyList();
+  }
+
+  /**
+   * Stop renewing leases, e.g. before the process exits.
+   */
+  public synchronized void close() {
+    held.clear();
+    if (renewer != null) {
+      renewer.shutdownNow();
+      renewer = null;
+    }
+  }
+
+  private synchronized void startRenewer() {
+    if (renewer != null) {
+      return;
+    }
+    renewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "lease-renewer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long period = Math.max(1, leaseMillis / 3);
+    renewer.scheduleAtFixedRate(() -> held.forEach(Lease::renew), period, period, TimeUnit.MILLISECONDS);
+  }
+
+  private void publish(Path target, String content) throws IOException {
+    Path temp = target.resolveSibling(target.getFileName() + "." + workerId.replaceAll("[^A-Za-z0-9.-]", "_") + ".tmp");
+    Files.write(temp, content.getBytes(StandardCharsets.UTF_8));
+    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private int countResults() throws IOException {
+    int count = 0;
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(results, "*" + RESULT)) {
+      for (Path ignored : stream) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Highest attempt lease file of each item.
+   */
+  private Map<String, Path> latestLeases() throws IOException {
+    Map<String, Path> latest = new HashMap<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(leases, "*" + LEASE)) {
+      for (Path path : stream) {
+        String name = path.getFileName().toString();
+        String item = name.substring(0, name.indexOf('.'));
+        Path previous = latest.get(item);
+        if (previous == null || attempt(path) > attempt(previous)) {
+          latest.put(item, path);
+        }
+      }
+    }
+    return latest;
+  }
+
+  private boolean isExpired(Path lease) {
+    try {
+      return System.currentTimeMillis() - Files.getLastModifiedTime(lease).toMillis() > leaseMillis;
+    } catch (NoSuchFileException e) {
+      return true;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  private static int attempt(Path lease) {
+    String name = lease.getFileName().toString();
+    return Integer.parseInt(name.substring(name.indexOf('.') + 1, name.length() - LEASE.length()));
+  }
+
+  private static String hostname() {
+    try {
+      return InetAddress.getLocalHost().getHostName();
+    } catch (IOException e) {
+      return "unknown";
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.dremio.throne.validate;
+
+import com.dremio.throne.db.Player;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Labelled players per image, read from a ground_truth.csv file (image name followed by the output CSV columns),
+ * and field-level scoring of recognized players against them.
+ */
+public class GroundTruth {
+
+  private static final Logger LOGGER = Logger.getLogger(GroundTruth.class.getName());
+
+  /** Scored fields per expected row: name, team, class and the five statistics. */
+  public static final int FIELDS_PER_ROW = 8;
+
+  private final Map<String, List<Player>> playersByImage;
+  private final AtomicLong expectedRows = new AtomicLong();
+  private final AtomicLong foundRows = new AtomicLong();
+  private final AtomicLong extraRows = new AtomicLong();
+  private final AtomicLong correctFields = new AtomicLong();
+
+  private GroundTruth(Map<String, List<Player>> playersByImage) {
+    this.playersByImage = playersByImage;
+  }
+
+  /**
+   * Load a ground truth file.
+   *
+   * @param file ground_truth.csv
+   * @return Loaded ground truth
+   * @throws IOException if the file cannot be read
+   */
+  public static GroundTruth load(File file) throws IOException {
+    Map<String, List<Player>> playersByImage = new HashMap<>();
+    for (String line : Files.readAllLines(file.toPath())) {
+      int comma = line.indexOf(',');
+      if (comma <= 0) {
+        continue;
+      }
+      Player player = Player.fromCSV(line.substring(comma + 1));
+      if (player == null) {
+        LOGGER.warning("Ignoring malformed ground truth line: " + line);
+        continue;
+      }
+      playersByImage.computeIfAbsent(line.substring(0, comma), k -> new ArrayList<>()).add(player);
+    }
+    return new GroundTruth(playersByImage);
+  }
+
+  public List<String> getImages() {
+    List<String> images = new ArrayList<>(playersByImage.keySet());
+    Collections.sort(images);
+    return images;
+  }
+
+  public List<Player> getPlayers(String image) {
+    return playersByImage.getOrDefault(image, Collections.emptyList());
+  }
+
+  /**
+   * Score recognized players of one image; thread-safe, totals accumulate until {@link #reset()}.
+   *
+   * @param image Image name
+   * @param recognized Players recognized from the image
+   */
+  public void score(String image, List<Player> recognized) {
+    Map<String, Player> byName = new HashMap<>();
+    for (Player player : recognized) {
+      byName.put(player.getName().toLowerCase(), player);
+    }
+    int found = 0;
+    int correct = 0;
+    List<Player> expected = getPlayers(image);
+    for (Player truth : expected) {
+      Player actual = byName.get(truth.getName().toLowerCase());
+      if (actual == null) {
+        continue;
+      }
+      found++;
+      correct++;
+      correct += truth.getGuild().equals(actual.getGuild()) ? 1 : 0;
+      correct += truth.getClassName().equalsIgnoreCase(String.valueOf(actual.getClassName())) ? 1 : 0;
+      correct += truth.getKills() == actual.getKills() ? 1 : 0;
+      correct += truth.getAssists() == actual.getAssists() ? 1 : 0;
+      correct += truth.getDamageDone() == actual.getDamageDone() ? 1 : 0;
+      correct += truth.getDamageReceived() == actual.getDamageReceived() ? 1 : 0;
+      correct += truth.getHealing() == actual.getHealing() ? 1 : 0;
+    }
+    expectedRows.addAndGet(expected.size());
+    foundRows.addAndGet(found);
+    extraRows.addAndGet(Math.max(0, recognized.size() - found));
+    correctFields.addAndGet(correct);
+  }
+
+  /**
+   * Fraction of expected fields recognized exactly, a missing row counting as all fields wrong.
+   */
+  public double getFieldAccuracy() {
+    long total = expectedRows.get() * FIELDS_PER_ROW;
+    return total == 0 ? 0 : (double) correctFields.get() / total;
+  }
+
+  /**
+   * Fraction of expected rows found by name.
+   */
+  public double getRowRecall() {
+    return expectedRows.get() == 0 ? 0 : (double) foundRows.get() / expectedRows.get();
+  }
+
+  /**
+   * Recognized rows that match no expected player.
+   */
+  public long getExtraRows() {
+    return extraRows.get();
+  }
+
+  public void reset() {
+    expectedRows.set(0);
+    foundRows.set(0);
+    extraRows.set(0);
+    correctFields.set(0);
+  }
+}
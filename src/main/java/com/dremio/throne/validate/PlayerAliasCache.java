@@ -0,0 +1,154 @@
+package com.dremio.throne.validate;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Memoized corrections of OCR'd player names to roster names. Confirmed aliases are persisted to aliases.csv
+ * (raw token, canonical name) and loaded at startup, so a misspelling is fuzzy-matched against the roster only
+ * the first time it is ever seen.
+ */
+public class PlayerAliasCache {
+
+  private static final Logger LOGGER = Logger.getLogger(PlayerAliasCache.class.getName());
+
+  private final Map<String, String> aliases = new ConcurrentHashMap<>();
+  /** Tokens already resolved this run, including those left unchanged, so they are not matched again. */
+  private final Map<String, String> resolved = new ConcurrentHashMap<>();
+  private final List<String> roster;
+  private final String filename;
+
+  /**
+   * Create a cache backed by an aliases file, loading the aliases it already contains.
+   *
+   * @param filename Path to the aliases file, created on the first learned alias, or null to keep aliases in memory
+   * @param roster Canonical player names
+   */
+  public PlayerAliasCache(String filename, Collection<String> roster) {
+    this.filename = filename;
+    this.roster = new ArrayList<>(roster);
+    if (filename != null) {
+      load();
+    }
+  }
+
+  /**
+   * Canonical name for an OCR'd name.
+   *
+   * @param name Cleaned OCR name
+   * @return Roster name when the token is a known or confidently matched alias, the name itself otherwise
+   */
+  public String resolve(String name) {
+    String token = name.toLowerCase();
+    String alias = aliases.get(token);
+    if (alias != null) {
+      return alias;
+    }
+    return resolved.computeIfAbsent(token, k -> {
+      String match = closestRosterName(k);
+      if (match == null) {
+        return name;
+      }
+      if (!match.equalsIgnoreCase(k) && aliases.putIfAbsent(k, match) == null) {
+        LOGGER.info("Learned player alias " + name + " -> " + match);
+        append(k, match);
+      }
+      return match;
+    });
+  }
+
+  public int size() {
+    return aliases.size();
+  }
+
+  /**
+   * Roster name within a small edit distance of the token, when exactly one is that close.
+   */
+  String closestRosterName(String token) {
+    int threshold = token.length() < 5 ? 0 : token.length() < 9 ? 1 : 2;
+    String best = null;
+    int bestDistance = Integer.MAX_VALUE;
+    boolean ambiguous = false;
+    for (String candidate : roster) {
+      String lowercase = candidate.toLowerCase();
+      if (lowercase.equals(token)) {
+        return candidate;
+      }
+      if (Math.abs(lowercase.length() - token.length()) > threshold) {
+        continue;
+      }
+      int distance = distance(token, lowercase);
+      if (distance < bestDistance) {
+        best = candidate;
+        bestDistance = distance;
+        ambiguous = false;
+      } else if (distance == bestDistance) {
+        ambiguous = true;
+      }
+    }
+    return bestDistance <= threshold && !ambiguous ? best : null;
+  }
+
+  /**
+   * Levenshtein distance.
+   */
+  static int distance(String a, String b) {
+    int[] previous = new int[b.length() + 1];
+    int[] current = new int[b.length() + 1];
+    for (int j = 0; j <= b.length(); j++) {
+      previous[j] = j;
+    }
+    for (int i = 1; i <= a.length(); i++) {
+      current[0] = i;
+      for (int j = 1; j <= b.length(); j++) {
+        int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+        current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+      }
+      int[] swap = previous;
+      previous = current;
+      current = swap;
+    }
+    return previous[b.length()];
+  }
+
+  private void load() {
+    File file = new File(filename);
+    if (!file.exists()) {
+      return;
+    }
+    try {
+      for (String line : Files.readAllLines(file.toPath())) {
+        String[] parts = line.split(",");
+        if (parts.length != 2 || parts[0].trim().isEmpty() || parts[1].trim().isEmpty()) {
+          if (!line.trim().isEmpty()) {
+            LOGGER.warning("Ignoring malformed alias line: " + line);
+          }
+          continue;
+        }
+        aliases.put(parts[0].trim().toLowerCase(), parts[1].trim());
+      }
+      LOGGER.info("Loaded " + aliases.size() + " player aliases from " + filename);
+    } catch (IOException e) {
+      LOGGER.warning("Failed to read " + filename + ": " + e.getMessage());
+    }
+  }
+
+  private synchronized void append(String token, String name) {
+    if (filename == null) {
+      return;
+    }
+    try (FileWriter writer = new FileWriter(filename, true)) {
+      writer.write(token + "," + name + "\n");
+    } catch (IOException e) {
+      LOGGER.warning("Failed to write " + filename + ": " + e.getMessage());
+    }
+  }
+}
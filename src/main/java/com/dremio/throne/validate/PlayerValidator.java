@@ -2,6 +2,7 @@ package com.dremio.throne.validate;
 
 import com.dremio.throne.db.Player;
 import com.dremio.throne.util.Labels;
+import com.dremio.throne.util.PipelineEvents;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -22,6 +23,20 @@ public class PlayerValidator {
    * @param csvLines List of CSV lines to validate (format: date,team,playerName,playerClass,kills,assists,damageDone,damageReceived,healing)
    */
   public void validatePlayers(List<Player> players) {
+    validatePlayers(players, "errors.csv");
+  }
+
+  /**
+   * Validate all players and log warnings for suspicious statistics.
+   * Also append non-validated players to an errors file.
+   *
+   * @param players Players to validate
+   * @param errorsFilename Errors file the non-validated players are appended to
+   */
+  public void validatePlayers(List<Player> players, String errorsFilename) {
+    PipelineEvents.ValidationEvent event = new PipelineEvents.ValidationEvent();
+    event.begin();
+    int skippedCount = 0;
     int validatedCount = 0;
     int warningCount = 0;
     List<Player> nonValidatedPlayers = new ArrayList<>();
@@ -29,6 +44,7 @@ public class PlayerValidator {
     for (Player player : players) {
       try {
         if (player.getClassName().equalsIgnoreCase(Labels.UNKNOWN)) {
+          skippedCount++;
           continue;
         }
 
@@ -44,13 +60,18 @@ public class PlayerValidator {
     // Append non-validated players to errors.csv
     if (!nonValidatedPlayers.isEmpty()) {
       try {
-        appendNonValidatedPlayersToErrors(nonValidatedPlayers);
+        appendNonValidatedPlayersToErrors(nonValidatedPlayers, errorsFilename);
       } catch (IOException e) {
-        LOGGER.warning("Failed to append non-validated players to errors.csv: " + e.getMessage());
+        LOGGER.warning("Failed to append non-validated players to " + errorsFilename + ": " + e.getMessage());
       }
     }
 
-    LOGGER.info("Player validation complete: " + validatedCount + " players validated, " + warningCount + " warnings logged, " + nonValidatedPlayers.size() + " non-validated players appended to errors.csv");
+    LOGGER.info("Player validation complete: " + validatedCount + " players validated, " + warningCount + " warnings logged, " + nonValidatedPlayers.size() + " non-validated players appended to " + errorsFilename);
+
+    event.players = players.size();
+    event.skipped = skippedCount;
+    event.suspicious = nonValidatedPlayers.size();
+    event.commit();
   }
 
   private boolean validatePlayerStats(Player player) {
@@ -135,10 +156,13 @@ public class PlayerValidator {
    * Append non-validated players to errors.csv file with separator lines.
    *
    * @param nonValidatedPlayers List of CSV lines for players with UNKNOWN class
+   * @param filename Errors file
    * @throws IOException if file writing fails
    */
-  private void appendNonValidatedPlayersToErrors(List<Player> nonValidatedPlayers) throws IOException {
-    try (FileWriter writer = new FileWriter("errors.csv", true)) { // Append mode
+  private void appendNonValidatedPlayersToErrors(List<Player> nonValidatedPlayers, String filename) throws IOException {
+    PipelineEvents.OutputEvent event = new PipelineEvents.OutputEvent();
+    event.begin();
+    try (FileWriter writer = new FileWriter(filename, true)) { // Append mode
       // Add two separator lines
       writer.write("\n");
       writer.write("\n");
@@ -148,7 +172,8 @@ public class PlayerValidator {
         writer.write(playerLine + "\n");
       }
     }
+    event.commitFile(filename, "suspicious players", nonValidatedPlayers.size());
 
-    LOGGER.info("Appended " + nonValidatedPlayers.size() + " non-validated players to errors.csv");
+    LOGGER.info("Appended " + nonValidatedPlayers.size() + " non-validated players to " + filename);
   }
 }
@@ -0,0 +1,69 @@
+package com.dremio.throne.db;
+
+import org.junit.After;
+import org.junit.Test;
+import java.io.File;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round-trip test for the columnar binary export.
+ */
+public class PlayerColumnarTest {
+
+    private static final String FILENAME = "columnar_test_output.thrc";
+
+    @After
+    public void tearDown() {
+        new File(FILENAME).delete();
+    }
+
+    @Test
+    public void testWriteAndScanColumns() throws Exception {
+        Player sprad = player("Sprad", "Suits", "Shadowdancer", 48L, 82L, 4049870L, 1938548L, 96731L);
+        Player charizma = player("Charizma", "Fate", "UNKNOWN", 68L, 48L, 2635209L, 849361L, 22065L);
+        Player panyk = player("Panyk", "Suits", "Sorcelame", 30L, 68L, 3331080L, 1721030L, 0L);
+        List<Player> players = Arrays.asList(charizma, sprad, panyk);
+
+        PlayerColumnarWriter.write(players, FILENAME);
+
+        try (PlayerColumnarReader reader = new PlayerColumnarReader(FILENAME)) {
+            assertEquals(3, reader.getRowCount());
+
+            LongBuffer kills = reader.longColumn(PlayerColumn.KILLS);
+            assertEquals(68L, kills.get(0));
+            assertEquals(48L, kills.get(1));
+            assertEquals(30L, kills.get(2));
+
+            assertEquals(30L, reader.getMin(PlayerColumn.KILLS));
+            assertEquals(68L, reader.getMax(PlayerColumn.KILLS));
+            assertEquals(0L, reader.getMin(PlayerColumn.HEALING));
+            assertEquals(22065L + 96731L, reader.sum(PlayerColumn.HEALING));
+
+            assertEquals(Arrays.asList("Fate", "Suits"), reader.dictionary(PlayerColumn.GUILD));
+            assertEquals(1, reader.dictionary(PlayerColumn.DATE).size());
+
+            Player row = reader.row(1);
+            assertEquals("Sprad", row.getName());
+            assertEquals("Shadowdancer", row.getClassName());
+            assertEquals(sprad.toCSV(), row.toCSV());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDictionaryColumnIsNotNumeric() throws Exception {
+        PlayerColumnarWriter.write(Arrays.asList(player("Sprad", "Suits", "Shadowdancer", 1L, 2L, 3L, 4L, 5L)), FILENAME);
+        try (PlayerColumnarReader reader = new PlayerColumnarReader(FILENAME)) {
+            reader.longColumn(PlayerColumn.NAME);
+        }
+    }
+
+    private static Player player(String name, String guild, String className, Long... stats) {
+        Player player = new Player(name, guild, "2025-09-03 21:00:00", stats);
+        player.setClassName(className);
+        return player;
+    }
+}
@@ -0,0 +1,139 @@
+package com.dremio.throne.db;
+
+import org.junit.After;
+import org.junit.Test;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the incrementally maintained season rollups.
+ */
+public class SeasonRollupsTest {
+
+    private static final String FILENAME = "rollups_test.csv";
+
+    @After
+    public void tearDown() {
+        new File(FILENAME).delete();
+    }
+
+    @Test
+    public void testBattlesAccumulateAcrossRuns() throws Exception {
+        SeasonRollups rollups = new SeasonRollups(FILENAME);
+        assertTrue(rollups.add(Arrays.asList(
+            player("2025-09-03 21:00:00", "Sprad", "Suits", "Shadowdancer", 10L, 1000L),
+            player("2025-09-03 21:00:00", "Panyk", "Suits", "Sorcelame", 5L, 500L),
+            player("2025-09-03 21:00:00", "Charizma", "Fate", "UNKNOWN", 7L, 700L))));
+        rollups.save();
+
+        SeasonRollups reloaded = new SeasonRollups(FILENAME);
+        assertTrue(reloaded.add(Arrays.asList(
+            player("2025-09-10 21:00:00", "Sprad", "Suits", "Shadowdancer", 3L, 300L))));
+        // Same battle again, not counted twice
+        assertTrue(reloaded.add(Arrays.asList(
+            player("2025-09-10 21:00:00", "Sprad", "Suits", "Shadowdancer", 3L, 300L))));
+        reloaded.save();
+
+        SeasonRollups season = new SeasonRollups(FILENAME);
+        assertEquals(2, season.getBattleCount());
+
+        List<SeasonRollups.Rollup> players = season.leaderboard(SeasonRollups.Level.PLAYER, SeasonRollups.SEASON,
+            SeasonRollups.Rollup::getKills);
+        assertEquals("Sprad", players.get(0).getKey());
+        assertEquals(13L, players.get(0).getKills());
+        assertEquals(1300L, players.get(0).getDamageDone());
+        assertEquals(2L, players.get(0).getBattles());
+        assertEquals("Charizma", players.get(1).getKey());
+
+        List<SeasonRollups.Rollup> guilds = season.leaderboard(SeasonRollups.Level.GUILD, SeasonRollups.SEASON,
+            SeasonRollups.Rollup::getKills);
+        assertEquals("Suits", guilds.get(0).getKey());
+        assertEquals(18L, guilds.get(0).getKills());
+        assertEquals(2L, guilds.get(0).getBattles());
+
+        List<SeasonRollups.Rollup> weeks = season.leaderboard(SeasonRollups.Level.PLAYER_WEEK, "2025-W36",
+            SeasonRollups.Rollup::getKills);
+        assertEquals(3, weeks.size());
+        assertEquals(10L, weeks.get(0).getKills());
+
+        List<SeasonRollups.Rollup> battles = season.leaderboard(SeasonRollups.Level.GUILD_BATTLE,
+            "2025-09-03 21:00:00 vs Fate", SeasonRollups.Rollup::getKills);
+        assertEquals(2, battles.size());
+        assertEquals(15L, battles.get(0).getKills());
+    }
+
+    @Test
+    public void testSameDayBattlesAreKeptApart() {
+        SeasonRollups rollups = new SeasonRollups(FILENAME);
+        // Two battles of one day, given as a bare date
+        assertTrue(rollups.add(Arrays.asList(
+            player("2025-09-03", "Sprad", "Suits", "Shadowdancer", 10L, 1000L),
+            player("2025-09-03", "Charizma", "Fate", "UNKNOWN", 7L, 700L))));
+        assertTrue(rollups.add(Arrays.asList(
+            player("2025-09-03", "Sprad", "Suits", "Shadowdancer", 4L, 400L),
+            player("2025-09-03", "Zoll", "Dragons", "UNKNOWN", 2L, 200L))));
+        assertEquals(2, rollups.getBattleCount());
+
+        assertEquals(14L, rollups.leaderboard(SeasonRollups.Level.PLAYER, SeasonRollups.SEASON,
+            SeasonRollups.Rollup::getKills).get(0).getKills());
+        List<SeasonRollups.Rollup> suits = rollups.leaderboard(SeasonRollups.Level.GUILD_BATTLE, null,
+            SeasonRollups.Rollup::getKills);
+        assertEquals(4, suits.size());
+        assertEquals("2025-09-03 vs Fate", suits.get(0).getPeriod());
+        assertEquals(1L, suits.get(0).getBattles());
+    }
+
+    @Test
+    public void testBattleAddedAgainIsReplaced() throws Exception {
+        SeasonRollups rollups = new SeasonRollups(FILENAME);
+        assertTrue(rollups.add(Arrays.asList(
+            player("2025-09-03 21:00:00", "Sprad", "Suits", "Shadowdancer", 10L, 1000L),
+            player("2025-09-03 21:00:00", "Sprad0", "Suits", "UNKNOWN", 5L, 500L),
+            player("2025-09-03 21:00:00", "Charizma", "Fate", "UNKNOWN", 7L, 700L))));
+        rollups.save();
+
+        // Re-run with better reads: a misread name fixed and one number read differently
+        SeasonRollups reloaded = new SeasonRollups(FILENAME);
+        assertTrue(reloaded.add(Arrays.asList(
+            player("2025-09-03 21:00:00", "Sprad", "Suits", "Shadowdancer", 10L, 1000L),
+            player("2025-09-03 21:00:00", "Panyk", "Suits", "Sorcelame", 5L, 500L),
+            player("2025-09-03 21:00:00", "Charizma", "Fate", "UNKNOWN", 8L, 700L))));
+        reloaded.save();
+
+        SeasonRollups season = new SeasonRollups(FILENAME);
+        assertEquals(1, season.getBattleCount());
+        List<SeasonRollups.Rollup> players = season.leaderboard(SeasonRollups.Level.PLAYER, SeasonRollups.SEASON,
+            SeasonRollups.Rollup::getKills);
+        assertEquals(3, players.size());
+        assertEquals("Sprad", players.get(0).getKey());
+        assertEquals(1L, players.get(0).getBattles());
+        assertEquals(8L, players.get(1).getKills());
+        assertTrue(players.stream().noneMatch(rollup -> rollup.getKey().equals("Sprad0")));
+        assertEquals(23L, season.leaderboard(SeasonRollups.Level.GUILD, SeasonRollups.SEASON,
+            SeasonRollups.Rollup::getKills).stream().mapToLong(SeasonRollups.Rollup::getKills).sum());
+
+        // A run that got the time of the run as its date is given the battle's key explicitly
+        assertTrue(season.add(Arrays.asList(
+            player("2025-09-12 18:42:07", "Sprad", "Suits", "Shadowdancer", 11L, 1000L)),
+            "2025-09-03 21:00:00 vs Fate"));
+        assertEquals(1, season.getBattleCount());
+        assertEquals(11L, season.leaderboard(SeasonRollups.Level.PLAYER, SeasonRollups.SEASON,
+            SeasonRollups.Rollup::getKills).get(0).getKills());
+    }
+
+    @Test
+    public void testWeek() {
+        assertEquals("2025-W36", SeasonRollups.week("2025-09-03 21:00:00"));
+        assertEquals("2026-W01", SeasonRollups.week("2025-12-29 00:00:00"));
+        assertEquals("unknown", SeasonRollups.week("yesterday"));
+    }
+
+    private static Player player(String date, String name, String guild, String className, long kills, long damage) {
+        Player player = new Player(name, guild, date, kills, 0L, damage, 0L, 0L);
+        player.setClassName(className);
+        return player;
+    }
+}
@@ -0,0 +1,72 @@
+package com.dremio.throne.image;
+
+import com.dremio.throne.db.Player;
+import org.junit.Test;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks class icon templates learned on one rendered screenshot against another one, at another resolution.
+ */
+public class ClassIconMatcherTest {
+
+    private static final String[] CLASSES = {"Tank", "Healer", "Shadowdancer", "Gladiator"};
+
+    @Test
+    public void testLearnedTemplatesMatch() {
+        ClassIconMatcher matcher = new ClassIconMatcher(null);
+        BufferedImage first = render(new ScoreboardRenderer(2250, 870, "fra", false), 0, 3);
+        List<Rectangle> cells = iconCells(first);
+        for (int i = 0; i < cells.size(); i++) {
+            matcher.learn(CLASSES[i % CLASSES.length], first, cells.get(i));
+        }
+        assertEquals(CLASSES.length, matcher.getClasses().size());
+
+        // Same classes, other rows, background and resolution
+        BufferedImage second = render(new ScoreboardRenderer(1920, 742, "fra", false), 1, 11);
+        cells = iconCells(second);
+        for (int i = 0; i < cells.size(); i++) {
+            assertEquals("Row " + i, CLASSES[(i + 1) % CLASSES.length], matcher.classify(second, cells.get(i)));
+        }
+    }
+
+    @Test
+    public void testUnknownIconsAreNotMatched() {
+        ClassIconMatcher matcher = new ClassIconMatcher(null);
+        BufferedImage image = render(new ScoreboardRenderer(2250, 870, "fra", false), 0, 3);
+        List<Rectangle> cells = iconCells(image);
+        matcher.learn("Tank", image, cells.get(0));
+        // Row 1 is a Healer, whose icons are not in the library
+        assertNull(matcher.classify(image, cells.get(1)));
+        assertEquals("Tank", matcher.classify(image, cells.get(4)));
+    }
+
+    private static BufferedImage render(ScoreboardRenderer renderer, int firstClass, long seed) {
+        List<Player> players = new ArrayList<>();
+        List<String> colors = new ArrayList<>();
+        for (int i = 0; i < renderer.getRowsPerImage(); i++) {
+            Player player = new Player("Player" + (char) ('A' + i + firstClass), "Suits", "2025-09-03 21:00:00",
+                80L - i, 50L, 2000000L, 1000000L, 30000L);
+            player.setClassName(CLASSES[(i + firstClass) % CLASSES.length]);
+            players.add(player);
+            colors.add(TeamColorClassifier.RED);
+        }
+        return renderer.render(players, colors, 1 + firstClass, new Random(seed));
+    }
+
+    private static List<Rectangle> iconCells(BufferedImage image) {
+        LayoutDetector detector = new LayoutDetector();
+        ScoreboardLayout layout = detector.detect(image, null);
+        int[] column = layout.getColumn(ScoreboardLayout.ICON_COLUMN);
+        List<Rectangle> cells = new ArrayList<>();
+        for (int[] row : detector.detectRows(image, layout)) {
+            cells.add(new Rectangle(column[0] + 2, row[0], column[1] - column[0] - 4, row[1] - row[0] + 1));
+        }
+        return cells;
+    }
+}
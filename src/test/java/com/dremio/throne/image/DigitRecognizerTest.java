@@ -0,0 +1,129 @@
+package com.dremio.throne.image;
+
+import com.dremio.throne.db.Player;
+import org.junit.After;
+import org.junit.Test;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks digit glyphs learned from one rendered screenshot, with the numbers known, against another one.
+ */
+public class DigitRecognizerTest {
+
+    private static final File GLYPHS = new File("digits_test.csv");
+
+    @After
+    public void tearDown() {
+        GLYPHS.delete();
+    }
+
+    @Test
+    public void testLearnedGlyphsReadNumbers() {
+        ScoreboardRenderer renderer = new ScoreboardRenderer(2250, 870, "fra", false);
+        DigitRecognizer recognizer = new DigitRecognizer(GLYPHS.getPath());
+        Random random = new Random(11);
+        List<Player> training = players(renderer.getRowsPerImage(), random);
+        BufferedImage image = render(renderer, training, random);
+        List<Rectangle> cells = statCells(image);
+        assertNull("Nothing is read before every digit is learned", recognizer.recognize(image, cells.get(0)));
+        for (int i = 0; i < cells.size(); i++) {
+            recognizer.learn(image, cells.get(i), ScoreboardRenderer.group(stat(training.get(i / 5), i % 5)));
+        }
+        assertTrue(recognizer.isComplete());
+
+        // A new recognizer loads the learned glyphs and reads other numbers on another screenshot
+        recognizer = new DigitRecognizer(GLYPHS.getPath());
+        List<Player> players = players(renderer.getRowsPerImage(), random);
+        image = render(renderer, players, random);
+        cells = statCells(image);
+        int read = 0;
+        for (int i = 0; i < cells.size(); i++) {
+            String digits = recognizer.recognize(image, cells.get(i));
+            if (digits != null) {
+                assertEquals("Cell " + i, Long.toString(stat(players.get(i / 5), i % 5)), digits);
+                read++;
+            }
+        }
+        assertTrue("Most cells are read from glyphs: " + read + "/" + cells.size(), read >= cells.size() * 9 / 10);
+    }
+
+    @Test
+    public void testMisreadDoesNotTeach() {
+        ScoreboardRenderer renderer = new ScoreboardRenderer(2250, 870, "fra", false);
+        DigitRecognizer recognizer = new DigitRecognizer(GLYPHS.getPath());
+        Random random = new Random(11);
+        List<Player> training = players(renderer.getRowsPerImage(), random);
+        BufferedImage image = render(renderer, training, random);
+        List<Rectangle> cells = statCells(image);
+        // Tesseract misreads the first cell, every digit off by one
+        String misread = ScoreboardRenderer.group(stat(training.get(0), 0)).chars()
+            .map(c -> Character.isDigit(c) ? '0' + (c - '0' + 1) % 10 : c)
+            .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append).toString();
+        recognizer.learn(image, cells.get(0), misread);
+        assertFalse("A single read teaches nothing", GLYPHS.exists());
+        for (int i = 1; i < cells.size(); i++) {
+            recognizer.learn(image, cells.get(i), ScoreboardRenderer.group(stat(training.get(i / 5), i % 5)));
+        }
+        assertTrue(recognizer.isComplete());
+        // What is kept in memory is what was saved
+        DigitRecognizer reloaded = new DigitRecognizer(GLYPHS.getPath());
+        for (int i = 0; i < cells.size(); i++) {
+            String digits = recognizer.recognize(image, cells.get(i));
+            if (digits != null) {
+                assertEquals("Cell " + i, Long.toString(stat(training.get(i / 5), i % 5)), digits);
+            }
+            assertEquals("Cell " + i, digits, reloaded.recognize(image, cells.get(i)));
+        }
+    }
+
+    @Test
+    public void testEmptyCellIsNotRead() {
+        BufferedImage image = new BufferedImage(100, 30, BufferedImage.TYPE_INT_RGB);
+        DigitRecognizer recognizer = new DigitRecognizer(null);
+        assertNull(recognizer.recognize(image, new Rectangle(0, 0, 100, 30)));
+    }
+
+    private static List<Player> players(int count, Random random) {
+        List<Player> players = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Player player = new Player("Player" + (char) ('A' + i), "Suits", "2025-09-03 21:00:00",
+                (long) random.nextInt(100), (long) random.nextInt(200), (long) random.nextInt(9_000_000),
+                (long) random.nextInt(3_000_000), (long) random.nextInt(1_000_000));
+            player.setClassName("Tank");
+            players.add(player);
+        }
+        return players;
+    }
+
+    private static BufferedImage render(ScoreboardRenderer renderer, List<Player> players, Random random) {
+        List<String> colors = new ArrayList<>();
+        players.forEach(player -> colors.add(TeamColorClassifier.RED));
+        return renderer.render(players, colors, 1, random);
+    }
+
+    private static long stat(Player player, int index) {
+        long[] stats = {player.getKills(), player.getAssists(), player.getDamageDone(), player.getDamageReceived(),
+            player.getHealing()};
+        return stats[index];
+    }
+
+    private static List<Rectangle> statCells(BufferedImage image) {
+        LayoutDetector detector = new LayoutDetector();
+        ScoreboardLayout layout = detector.detect(image, null);
+        List<Rectangle> cells = new ArrayList<>();
+        for (int[] row : detector.detectRows(image, layout)) {
+            for (int column = ScoreboardLayout.FIRST_STAT_COLUMN; column < ScoreboardLayout.COLUMN_COUNT; column++) {
+                int[] bounds = layout.getTrimmedColumn(column);
+                cells.add(new Rectangle(bounds[0] + 2, row[0], bounds[1] - bounds[0] - 4, row[1] - row[0] + 1));
+            }
+        }
+        return cells;
+    }
+}
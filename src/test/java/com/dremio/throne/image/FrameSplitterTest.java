@@ -0,0 +1,128 @@
+package com.dremio.throne.image;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for splitting multi-page TIFF and animated GIF inputs into frames.
+ */
+public class FrameSplitterTest {
+
+    private static final Color[] COLORS = {Color.RED, Color.GREEN, Color.BLUE};
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("frames_test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testMultiPageTiff() throws Exception {
+        File tiff = directory.resolve("scroll.tiff").toFile();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("tiff").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(tiff)) {
+            writer.setOutput(output);
+            writer.prepareWriteSequence(null);
+            for (Color color : COLORS) {
+                writer.writeToSequence(new IIOImage(filled(64, 32, color), null, null), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+
+        List<File> frames = FrameSplitter.split(tiff, directory.toFile());
+        assertEquals(3, frames.size());
+        for (int i = 0; i < frames.size(); i++) {
+            assertEquals(String.format("scroll_frame%03d.png", i + 1), frames.get(i).getName());
+            BufferedImage frame = ImageIO.read(frames.get(i));
+            assertEquals(64, frame.getWidth());
+            assertEquals(COLORS[i].getRGB(), frame.getRGB(10, 10));
+        }
+    }
+
+    @Test
+    public void testAnimatedGifFramesAreComposed() throws Exception {
+        File gif = directory.resolve("scroll.gif").toFile();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(gif)) {
+            writer.setOutput(output);
+            writer.prepareWriteSequence(null);
+            writer.writeToSequence(new IIOImage(filled(64, 32, Color.RED), null, null), null);
+            // Only the changed part of the screen, at an offset
+            BufferedImage patch = filled(16, 8, Color.BLUE);
+            writer.writeToSequence(new IIOImage(patch, null, offset(writer, patch, 40, 20)), null);
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+
+        List<File> frames = FrameSplitter.split(gif, directory.toFile());
+        assertEquals(2, frames.size());
+        BufferedImage second = ImageIO.read(frames.get(1));
+        assertEquals(64, second.getWidth());
+        assertEquals(32, second.getHeight());
+        assertEquals(Color.RED.getRGB(), second.getRGB(5, 5));
+        assertEquals(Color.BLUE.getRGB(), second.getRGB(45, 25));
+    }
+
+    @Test
+    public void testSingleFrameIsKept() throws Exception {
+        File png = directory.resolve("single.png").toFile();
+        ImageIO.write(filled(8, 8, Color.RED), "png", png);
+        assertEquals(List.of(png), FrameSplitter.split(png, directory.toFile()));
+
+        File tiff = directory.resolve("single.tif").toFile();
+        ImageIO.write(filled(8, 8, Color.RED), "tiff", tiff);
+        assertEquals(List.of(tiff), FrameSplitter.split(tiff, directory.toFile()));
+        assertFalse(FrameSplitter.isMultiFrameFormat(png));
+    }
+
+    private static BufferedImage filled(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        return image;
+    }
+
+    private static IIOMetadata offset(ImageWriter writer, BufferedImage image, int x, int y) throws Exception {
+        IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), null);
+        String format = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+        IIOMetadataNode descriptor = (IIOMetadataNode) root.getElementsByTagName("ImageDescriptor").item(0);
+        descriptor.setAttribute("imageLeftPosition", String.valueOf(x));
+        descriptor.setAttribute("imageTopPosition", String.valueOf(y));
+        metadata.setFromTree(format, root);
+        return metadata;
+    }
+}
@@ -0,0 +1,67 @@
+package com.dremio.throne.image;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that only layouts found on a scoreboard are kept and persisted.
+ */
+public class LayoutCacheTest {
+
+    private Path layouts;
+
+    @Before
+    public void setUp() throws IOException {
+        layouts = Files.createTempFile("layouts_test", ".csv");
+        Files.delete(layouts);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(layouts);
+    }
+
+    @Test
+    public void testJunkImageDoesNotDecideTheLayout() throws Exception {
+        BufferedImage screenshot = ImageIO.read(new File("src/test/resources/img/image.png"));
+        BufferedImage junk = LayoutDetectorTest.noise(screenshot.getWidth(), screenshot.getHeight(), new Random(3));
+        LayoutCache cache = new LayoutCache(layouts.toString(), "");
+
+        // A map shot of the same size comes first: nothing is kept, the next image is tried again
+        assertNull(cache.get(junk));
+        assertEquals(0, cache.size());
+        assertFalse(Files.exists(layouts));
+
+        ScoreboardLayout layout = cache.get(screenshot);
+        assertNotNull(layout);
+        assertTrue(layout.hasStandardColumns());
+        assertSame(layout, cache.get(junk));
+        assertEquals(1, Files.readAllLines(layouts).size());
+
+        // A later run crops straight away
+        LayoutCache reloaded = new LayoutCache(layouts.toString(), "");
+        assertEquals(1, reloaded.size());
+        assertEquals(layout.toCSV(), reloaded.get(junk).toCSV());
+    }
+
+    @Test
+    public void testSizeWithoutScoreboardIsGivenUp() {
+        LayoutCache cache = new LayoutCache(layouts.toString(), "");
+        BufferedImage blank = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+        for (int i = 0; i < LayoutCache.MAX_ATTEMPTS + 2; i++) {
+            assertNull(cache.get(blank));
+        }
+        assertEquals(0, cache.size());
+        assertFalse(Files.exists(layouts));
+    }
+}
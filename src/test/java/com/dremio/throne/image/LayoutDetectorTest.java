@@ -0,0 +1,52 @@
+package com.dremio.throne.image;
+
+import org.junit.Test;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.List;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks table and row detection on the real screenshots and on images without a scoreboard.
+ */
+public class LayoutDetectorTest {
+
+    @Test
+    public void testDetectsScoreboards() throws Exception {
+        LayoutDetector detector = new LayoutDetector();
+        File[] screenshots = new File("src/test/resources/img").listFiles((dir, name) -> name.endsWith(".png"));
+        assertNotNull(screenshots);
+        assertTrue(screenshots.length > 0);
+        for (File screenshot : screenshots) {
+            BufferedImage image = ImageIO.read(screenshot);
+            ScoreboardLayout layout = detector.detect(image, null);
+            assertNotNull(screenshot.getName(), layout);
+            assertTrue(screenshot.getName() + ": " + layout, layout.hasStandardColumns());
+            List<int[]> rows = detector.detectRows(image, layout);
+            assertFalse(screenshot.getName(), rows.isEmpty());
+            for (int i = 1; i < rows.size(); i++) {
+                assertTrue(screenshot.getName() + " rows are ordered", rows.get(i)[0] > rows.get(i - 1)[1]);
+            }
+        }
+    }
+
+    @Test
+    public void testIgnoresOtherImages() {
+        LayoutDetector detector = new LayoutDetector();
+        assertNull(detector.detect(new BufferedImage(2250, 870, BufferedImage.TYPE_INT_RGB), null));
+        assertNull(detector.detect(noise(2250, 870, new Random(7)), null));
+    }
+
+    static BufferedImage noise(int width, int height, Random random) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,57 @@
+package com.dremio.throne.image;
+
+import com.dremio.throne.db.Player;
+import org.junit.Test;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks overlap detection on two rendered screenshots of one scoreboard, scrolled so they share three rows.
+ */
+public class RowStitcherTest {
+
+    @Test
+    public void testOverlappingRowsAreFound() {
+        ScoreboardRenderer renderer = new ScoreboardRenderer(2250, 870, "fra", false);
+        List<Player> players = new ArrayList<>();
+        List<String> colors = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Player player = new Player("Player" + (char) ('A' + i), "Suits", "2025-09-03 21:00:00",
+                80L - i, 50L, 2000000L + i * 1333, 1000000L, 30000L);
+            player.setClassName(i % 3 == 0 ? "Tank" : "Healer");
+            players.add(player);
+            colors.add(i % 2 == 0 ? TeamColorClassifier.RED : TeamColorClassifier.YELLOW);
+        }
+        int perImage = renderer.getRowsPerImage();
+        int overlap = 3;
+        int start = perImage - overlap;
+        Random random = new Random(5);
+        BufferedImage first = renderer.render(players.subList(0, perImage), colors.subList(0, perImage), 1, random);
+        BufferedImage second = renderer.render(players.subList(start, start + perImage),
+            colors.subList(start, start + perImage), start + 1, random);
+
+        LayoutDetector detector = new LayoutDetector();
+        RowStitcher stitcher = new RowStitcher();
+        ScoreboardLayout layout = detector.detect(first, null);
+        List<int[]> firstRows = detector.detectRows(first, layout);
+        for (int i = 0; i < firstRows.size(); i++) {
+            assertFalse("Rows of one screenshot are all different",
+                stitcher.isDuplicate(first, layout, firstRows.get(i)));
+            // The OCR of the last row failed, it is not marked seen
+            if (i < firstRows.size() - 1) {
+                stitcher.markSeen(first, layout, firstRows.get(i));
+            }
+        }
+
+        List<int[]> rows = detector.detectRows(second, layout);
+        assertEquals(perImage, rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals("Row " + i, i < overlap - 1, stitcher.isDuplicate(second, layout, rows.get(i)));
+        }
+        assertEquals(overlap - 1, stitcher.getStitchedRows());
+    }
+}
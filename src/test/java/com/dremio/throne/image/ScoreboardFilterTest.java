@@ -0,0 +1,67 @@
+package com.dremio.throne.image;
+
+import org.junit.After;
+import org.junit.Test;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the pre-OCR scoreboard filter on real screenshots and on generated non-scoreboard images.
+ */
+public class ScoreboardFilterTest {
+
+    private Path loadingScreen;
+
+    @After
+    public void tearDown() throws IOException {
+        if (loadingScreen != null) {
+            Files.deleteIfExists(loadingScreen);
+        }
+    }
+
+    @Test
+    public void testAcceptsScoreboards() {
+        ScoreboardFilter filter = new ScoreboardFilter();
+        File[] screenshots = new File("src/test/resources/img").listFiles((dir, name) -> name.endsWith(".png"));
+        assertNotNull(screenshots);
+        assertTrue(screenshots.length > 0);
+        for (File screenshot : screenshots) {
+            assertNull(screenshot.getName(), filter.reject(screenshot));
+        }
+    }
+
+    @Test
+    public void testRejectsOtherImages() throws Exception {
+        Random random = new Random(3);
+        BufferedImage image = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, Color.BLACK, 0, 1080, new Color(40, 30, 60)));
+        graphics.fillRect(0, 0, 1920, 1080);
+        for (int i = 0; i < 100; i++) {
+            graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+            graphics.fillOval(random.nextInt(1920), random.nextInt(1080), random.nextInt(200), random.nextInt(200));
+        }
+        graphics.setColor(new Color(220, 200, 150));
+        graphics.setFont(new Font(Font.SERIF, Font.BOLD, 120));
+        graphics.drawString("LOADING", 600, 500);
+        graphics.dispose();
+        loadingScreen = Files.createTempFile("filter_test_loading", ".png");
+        ImageIO.write(image, "png", loadingScreen.toFile());
+
+        String reason = new ScoreboardFilter().reject(loadingScreen.toFile());
+        assertNotNull(reason);
+        assertTrue(reason, reason.startsWith("no scoreboard table"));
+        assertEquals("unsupported image format", new ScoreboardFilter().reject(new File("pom.xml")));
+    }
+}
@@ -0,0 +1,72 @@
+package com.dremio.throne.image;
+
+import com.dremio.throne.db.Player;
+import org.junit.Test;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks layout detection, row detection and pixel team colours on rendered scoreboards.
+ */
+public class ScoreboardRendererTest {
+
+    @Test
+    public void testDetectRenderedScoreboard() {
+        ScoreboardRenderer renderer = new ScoreboardRenderer(2250, 870, "fra", true);
+        List<Player> players = new ArrayList<>();
+        List<String> colors = new ArrayList<>();
+        for (int i = 0; i < renderer.getRowsPerImage(); i++) {
+            Player player = new Player("Player" + i, i % 2 == 0 ? "Suits" : "Fate", "2025-09-03 21:00:00",
+                80L - i, 50L, 2000000L, 1000000L, 30000L);
+            player.setClassName(i % 3 == 0 ? "Tank" : "Healer");
+            players.add(player);
+            colors.add(i % 2 == 0 ? TeamColorClassifier.RED : TeamColorClassifier.YELLOW);
+        }
+
+        BufferedImage image = renderer.render(players, colors, 1, new Random(7));
+
+        LayoutDetector detector = new LayoutDetector();
+        ScoreboardLayout layout = detector.detect(image, null);
+        assertNotNull("Layout should be detected", layout);
+        assertTrue("Layout should have the game's columns", layout.hasStandardColumns());
+        assertTrue("Chat on the right should be cropped", layout.getTable().getMaxX() < image.getWidth());
+
+        List<int[]> rows = detector.detectRows(image, layout);
+        assertEquals(players.size(), rows.size());
+
+        TeamColorClassifier classifier = new TeamColorClassifier();
+        int[] colorColumn = layout.getColumn(ScoreboardLayout.COLOR_COLUMN);
+        for (int i = 0; i < rows.size(); i++) {
+            int[] row = rows.get(i);
+            Rectangle cell = new Rectangle(colorColumn[0], row[0], colorColumn[1] - colorColumn[0], row[1] - row[0] + 1);
+            assertEquals("Row " + i + " colour", colors.get(i), classifier.classify(image, cell));
+        }
+    }
+
+    @Test
+    public void testGreyColourWordIsInconclusive() {
+        ScoreboardRenderer renderer = new ScoreboardRenderer(1920, 742, "eng", false);
+        List<Player> players = new ArrayList<>();
+        List<String> colors = new ArrayList<>();
+        for (String name : new String[]{"Sprad", "Panyk", "Okanel"}) {
+            Player player = new Player(name, "Suits", "2025-09-03 21:00:00", 48L, 82L, 4049870L, 1938548L, 96731L);
+            player.setClassName("Shadowdancer");
+            players.add(player);
+            colors.add(TeamColorClassifier.RED);
+        }
+        BufferedImage image = renderer.render(players, colors, 1, new Random(7));
+
+        LayoutDetector detector = new LayoutDetector();
+        ScoreboardLayout layout = detector.detect(image, null);
+        assertNotNull(layout);
+        int[] row = detector.detectRows(image, layout).get(0);
+        int[] colorColumn = layout.getColumn(ScoreboardLayout.COLOR_COLUMN);
+        Rectangle cell = new Rectangle(colorColumn[0], row[0], colorColumn[1] - colorColumn[0], row[1] - row[0] + 1);
+        assertNull(new TeamColorClassifier().classify(image, cell));
+    }
+}
@@ -0,0 +1,103 @@
+package com.dremio.throne.image;
+
+import org.junit.Test;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for team colours read from the grey colour words of real screenshots.
+ */
+public class TeamColorClassifierTest {
+
+    private final LayoutDetector detector = new LayoutDetector();
+
+    @Test
+    public void testRealScreenshotsAfterLearning() throws IOException {
+        TeamColorClassifier classifier = new TeamColorClassifier();
+        BufferedImage first = read("image.png");
+        List<Rectangle> cells = colorCells(first);
+        String[] words = {"Rouge", "Jaune", "Jaune", "Rouge", "Jaune", "Jaune", "Rouge", "Jaune", "Jaune", "Rouge",
+            "Rouge"};
+        assertEquals(words.length, cells.size());
+        // The words are grey, nothing to go on before Tesseract taught the templates
+        assertNull(classifier.classify(first, cells.get(0)));
+        for (int i = 0; i < cells.size(); i++) {
+            classifier.learn(first, cells.get(i), words[i]);
+        }
+        assertTrue(classifier.hasTemplates());
+
+        // R red, Y yellow, - left to OCR (partial rows at the screen edge)
+        String[][] expected = {
+            {"image.png", "RYYRYYRYYRR"},
+            {"image2.png", "YYYYYRYRYY"},
+            {"image3.png", "YRRYYRRY-R"},
+            {"image4.png", "RRRRYRYRRR"},
+            {"image5.png", "--YRYYYYYRY"},
+            {"image6.png", "RRRRYYYYYRR"},
+            {"image7.png", "RRRRRRYRR-"},
+            {"image8.png", "-Y-"},
+        };
+        int classified = 0;
+        for (String[] screenshot : expected) {
+            BufferedImage image = read(screenshot[0]);
+            StringBuilder teams = new StringBuilder();
+            for (Rectangle cell : colorCells(image)) {
+                String team = classifier.classify(image, cell);
+                teams.append(team == null ? '-' : TeamColorClassifier.RED.equals(team) ? 'R' : 'Y');
+                classified += team != null ? 1 : 0;
+            }
+            assertEquals(screenshot[0], screenshot[1], teams.toString());
+        }
+        assertEquals(70, classified);
+    }
+
+    @Test
+    public void testSingleMisreadDoesNotTeach() throws IOException {
+        TeamColorClassifier classifier = new TeamColorClassifier();
+        BufferedImage image = read("image.png");
+        List<Rectangle> cells = colorCells(image);
+        // Rows 0, 3 and 6 are Rouge, 1, 2 and 4 Jaune: one misread Rouge is not enough for a template
+        classifier.learn(image, cells.get(0), "Jaune");
+        classifier.learn(image, cells.get(1), "Jaune");
+        classifier.learn(image, cells.get(2), "Jaune");
+        classifier.learn(image, cells.get(3), "Rouge");
+        classifier.learn(image, cells.get(6), "Rouge");
+        assertFalse(classifier.hasTemplates());
+        classifier.learn(image, cells.get(4), "Jaune");
+        classifier.learn(image, cells.get(10), "Rouge");
+        assertTrue(classifier.hasTemplates());
+        assertEquals(TeamColorClassifier.RED, classifier.classify(image, cells.get(0)));
+        assertEquals(TeamColorClassifier.YELLOW, classifier.classify(image, cells.get(1)));
+    }
+
+    @Test
+    public void testTeamOfOcrText() {
+        assertEquals(TeamColorClassifier.RED, TeamColorClassifier.team("Rouge"));
+        assertEquals(TeamColorClassifier.RED, TeamColorClassifier.team("| red"));
+        assertEquals(TeamColorClassifier.YELLOW, TeamColorClassifier.team("Jaune."));
+        assertEquals(TeamColorClassifier.YELLOW, TeamColorClassifier.team("Yel1ow"));
+        assertNull(TeamColorClassifier.team("Fate"));
+    }
+
+    private List<Rectangle> colorCells(BufferedImage image) {
+        ScoreboardLayout layout = detector.detect(image, null);
+        assertNotNull(layout);
+        int[] column = layout.getColumn(ScoreboardLayout.COLOR_COLUMN);
+        List<Rectangle> cells = new ArrayList<>();
+        for (int[] row : detector.detectRows(image, layout)) {
+            cells.add(new Rectangle(column[0] + 2, row[0], column[1] - column[0] - 4, row[1] - row[0] + 1));
+        }
+        return cells;
+    }
+
+    private static BufferedImage read(String name) throws IOException {
+        return ImageIO.read(new File("src/test/resources/img/" + name));
+    }
+}
@@ -0,0 +1,116 @@
+package com.dremio.throne.main;
+
+import com.dremio.throne.ocr.OCRService;
+import com.dremio.throne.ocr.PriorityScheduler;
+import com.dremio.throne.ocr.PriorityScheduler.Priority;
+import com.dremio.throne.util.RunReport;
+import org.junit.After;
+import org.junit.Test;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the load-test driver, with requests sleeping in place of Tesseract.
+ */
+public class LoadTestMainTest {
+
+    private static final List<File> CORPUS = Arrays.asList(new File("a.png"), new File("b.png"));
+
+    private PriorityScheduler scheduler;
+
+    @After
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.close();
+        }
+    }
+
+    @Test
+    public void testOpenLoopRejectsAboveCapacity() throws Exception {
+        // One engine answering in 20 ms cannot keep up with 200 images/sec, two queued requests at most
+        Map<Priority, Integer> limits = PriorityScheduler.defaultLimits();
+        limits.put(Priority.BULK, 2);
+        scheduler = new PriorityScheduler(1, () -> new OCRService("eng"), 60_000, limits);
+        LoadTestMain test = new LoadTestMain(scheduler, Priority.BULK, image -> engine -> sleep(20), CORPUS);
+
+        RunReport report = test.run(200, 0, 500, 100);
+        List<String> load = report.getLines(LoadTestMain.LOAD_SECTION);
+        assertEquals("mode=open-loop rate=200.0", load.get(0));
+        long sent = value(load, "sent");
+        long completed = value(load, "completed");
+        long rejected = value(load, "rejected");
+        assertTrue("sent " + sent, sent >= 80 && sent <= 100);
+        assertTrue("rejected " + rejected, rejected > sent / 2);
+        assertEquals(sent, completed + rejected);
+        // Every request that ran is in the histogram once
+        assertEquals(completed, value(load, "values"));
+        // Latencies count from the scheduled send time, so they include the queue wait
+        assertTrue(value(load, "max") >= 20);
+        assertFalse(report.getLines(LoadTestMain.MEMORY_SECTION).isEmpty());
+        assertFalse(report.getLines(PriorityScheduler.REPORT_SECTION).isEmpty());
+    }
+
+    @Test
+    public void testLateClientsAreCorrected() throws Exception {
+        // Two clients asked for 100 images/sec get 40 at most: each answer takes 50 ms instead of the 20 ms planned
+        scheduler = new PriorityScheduler(2, () -> new OCRService("eng"), 60_000);
+        LoadTestMain test = new LoadTestMain(scheduler, Priority.NORMAL, image -> engine -> sleep(50), CORPUS);
+
+        RunReport report = test.run(100, 2, 500, 100);
+        List<String> load = report.getLines(LoadTestMain.LOAD_SECTION);
+        assertEquals("mode=closed-loop clients=2 rate=100.0", load.get(0));
+        long completed = value(load, "completed");
+        assertEquals(0, value(load, "rejected"));
+        assertTrue("completed " + completed, completed >= 10 && completed <= 30);
+        // The sends the clients missed while waiting are in the histogram
+        assertTrue(value(load, "values") > completed);
+        assertTrue(value(load, "p99") >= 50);
+    }
+
+    @Test
+    public void testClosedLoopWithoutRateIsNotCorrected() throws Exception {
+        scheduler = new PriorityScheduler(1, () -> new OCRService("eng"), 60_000);
+        LoadTestMain test = new LoadTestMain(scheduler, Priority.INTERACTIVE, image -> engine -> sleep(10), CORPUS);
+
+        RunReport report = test.run(0, 1, 200, 50);
+        List<String> load = report.getLines(LoadTestMain.LOAD_SECTION);
+        assertEquals("mode=closed-loop clients=1", load.get(0));
+        assertEquals(value(load, "completed"), value(load, "values"));
+    }
+
+    @Test
+    public void testRejectedClientsAreNotLatencies() throws Exception {
+        // Four clients share one engine and one queue slot, the others are turned away at once
+        Map<Priority, Integer> limits = PriorityScheduler.defaultLimits();
+        limits.put(Priority.BULK, 1);
+        scheduler = new PriorityScheduler(1, () -> new OCRService("eng"), 60_000, limits);
+        LoadTestMain test = new LoadTestMain(scheduler, Priority.BULK, image -> engine -> sleep(20), CORPUS);
+
+        RunReport report = test.run(0, 4, 300, 50);
+        List<String> load = report.getLines(LoadTestMain.LOAD_SECTION);
+        assertTrue(value(load, "rejected") > 0);
+        assertEquals(value(load, "completed"), value(load, "values"));
+    }
+
+    private static String sleep(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+        return "";
+    }
+
+    private static long value(List<String> lines, String key) {
+        Pattern pattern = Pattern.compile("(?:^|\\s)" + Pattern.quote(key) + "=(\\d+)");
+        for (String line : lines) {
+            Matcher matcher = pattern.matcher(line);
+            if (matcher.find()) {
+                return Long.parseLong(matcher.group(1));
+            }
+        }
+        throw new AssertionError("No " + key + " in " + lines);
+    }
+}
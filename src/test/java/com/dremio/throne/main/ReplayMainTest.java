@@ -0,0 +1,90 @@
+package com.dremio.throne.main;
+
+import com.dremio.throne.util.RawOcrFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for replaying saved raw OCR output.
+ */
+public class ReplayMainTest {
+
+    private static final String RAW = "1 | x | Suits | Sprad | Rouge | 48 | 82 | 4 049 870 | 1 938 548 | 96 731\n"
+        + "2 | x | Fate | Panyk | Jaune | 12 | 30 | 1 000 000 | 900 000 | 10 000\n"
+        + "garbage line\n";
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("replay_test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testMetadataRoundTrip() throws IOException {
+        File raw = directory.resolve("batch.txt").toFile();
+        assertTrue(RawOcrFile.readMetadata(raw).isEmpty());
+
+        RawOcrFile.write(raw, RAW, "red", "Fate", "2025-09-03 21:00:00");
+        assertEquals(RAW, new String(Files.readAllBytes(raw.toPath()), "UTF-8"));
+        assertEquals(directory.resolve("batch.properties").toFile(), RawOcrFile.metadataFile(raw));
+        Properties metadata = RawOcrFile.readMetadata(raw);
+        assertEquals("red", metadata.getProperty(RawOcrFile.COLOR));
+        assertEquals("Fate", metadata.getProperty(RawOcrFile.GUILD));
+        assertEquals("2025-09-03 21:00:00", metadata.getProperty(RawOcrFile.DATE));
+    }
+
+    @Test
+    public void testReplayWritesOutputAndErrors() throws Exception {
+        File input = Files.createDirectory(directory.resolve("raw")).toFile();
+        File output = Files.createDirectory(directory.resolve("out")).toFile();
+        RawOcrFile.write(new File(input, "2025-09-03_21-00-00.txt"), RAW, "red", "Fate", "2025-09-03 21:00:00");
+        // Written before parameters were saved, replayed with the command line ones
+        Files.write(new File(input, "old.txt").toPath(), RAW.getBytes("UTF-8"));
+
+        List<File> files = ReplayMain.listRawFiles(Arrays.asList(input.getPath()));
+        assertEquals(2, files.size());
+
+        List<String> failed = new ReplayMain("yellow", "Suits", "2025-09-01 21:00:00", output).replay(files, 2);
+        assertTrue(failed.isEmpty());
+
+        List<String> lines = Files.readAllLines(new File(output, "2025-09-03_21-00-00.csv").toPath());
+        assertEquals(2, lines.size());
+        assertTrue(lines.stream().anyMatch(line -> line.contains(",Suits,Sprad,")));
+        assertTrue(lines.stream().allMatch(line -> line.contains("2025-09-03")));
+        assertTrue(new File(output, "2025-09-03_21-00-00.errors.csv").exists());
+
+        List<String> old = Files.readAllLines(new File(output, "old.csv").toPath());
+        assertEquals(2, old.size());
+        assertTrue(old.stream().allMatch(line -> line.contains("2025-09-01")));
+    }
+
+    @Test
+    public void testReplayWithoutParametersFails() throws Exception {
+        File raw = directory.resolve("old.txt").toFile();
+        Files.write(raw.toPath(), RAW.getBytes("UTF-8"));
+
+        List<String> failed = new ReplayMain(null, "Enemy", null, directory.toFile()).replay(Arrays.asList(raw), 1);
+        assertEquals(Arrays.asList("old.txt"), failed);
+        assertFalse(directory.resolve("old.csv").toFile().exists());
+    }
+}
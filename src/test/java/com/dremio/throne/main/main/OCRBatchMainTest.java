@@ -1,12 +1,19 @@
 package com.dremio.throne.main.main;
 
 import com.dremio.throne.main.OCRBatchMain;
+import com.dremio.throne.util.WorkQueue;
 import org.junit.Before;
 import org.junit.Test;
 import java.io.File;
+import java.io.IOException;
 import java.net.URL;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -21,6 +28,30 @@ public class OCRBatchMainTest {
         cleanupFiles();
     }
     
+    @Test
+    public void testQueueOfAnotherBatchIsNotResumed() throws Exception {
+        Path directory = Files.createTempDirectory("queue_test");
+        try {
+            WorkQueue queue = new WorkQueue(directory.toFile(), 60_000, 3);
+            Properties parameters = new Properties();
+            parameters.setProperty("language", "fra");
+            parameters.setProperty("folder", new File("src/test/resources").getCanonicalPath());
+            queue.create(Arrays.asList(new File("src/test/resources/img/image.png")), 10, parameters);
+            try {
+                new OCRBatchMain().processQueue(queue, "src/test/resources/img", "fra", "r", "Fate", "output.csv",
+                    "2025-09-03 21:00");
+                fail("Queue of another folder resumed");
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("use a new queue directory"));
+            }
+            assertFalse(new File("output.csv").exists());
+        } finally {
+            try (Stream<Path> paths = Files.walk(directory)) {
+                paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
     @Test
     public void testOCRBatchMainExecution() throws Exception {
         // Test parameters: src/test/resources/img fra r Fate output.csv "2025-09-03 21:00"
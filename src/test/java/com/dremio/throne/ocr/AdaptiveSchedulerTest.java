@@ -0,0 +1,73 @@
+package com.dremio.throne.ocr;
+
+import com.dremio.throne.util.RunReport;
+import org.junit.Test;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the adaptive OCR scheduler, with a fake task in place of Tesseract.
+ */
+public class AdaptiveSchedulerTest {
+
+    @Test
+    public void testResultsKeepImageOrder() throws Exception {
+        List<File> images = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            images.add(new File("image" + i + ".png"));
+        }
+        AdaptiveScheduler scheduler = new AdaptiveScheduler(4);
+        assertTrue(scheduler.isAdaptive());
+
+        String[] results = scheduler.run(images, image -> {
+            if (image.getName().equals("image7.png")) {
+                throw new IllegalStateException("unreadable");
+            }
+            if (image.getName().equals("image1.png")) {
+                // As JNA reports a native crash: the single warm-up worker must go on with the next images
+                throw new Error("Invalid memory access");
+            }
+            Thread.sleep(2);
+            return image.getName();
+        });
+
+        assertEquals(100, results.length);
+        assertNull(results[1]);
+        assertNull(results[7]);
+        for (int i = 0; i < results.length; i++) {
+            if (i != 1 && i != 7) {
+                assertEquals("image" + i + ".png", results[i]);
+            }
+        }
+
+        RunReport report = new RunReport();
+        scheduler.report(report);
+        List<String> lines = report.getLines(AdaptiveScheduler.REPORT_SECTION);
+        assertTrue(lines.contains("mode=adaptive"));
+        assertTrue(lines.contains("failed_images=2"));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("chosen=workers=")));
+        // Every split (1, 2 and 4 workers) is measured at least once
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("probe workers=1 native_threads=4")));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("probe workers=2 native_threads=2")));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("probe workers=4 native_threads=1")));
+    }
+
+    @Test
+    public void testFixedSplit() throws Exception {
+        List<File> images = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            images.add(new File("image" + i + ".png"));
+        }
+        AdaptiveScheduler scheduler = new AdaptiveScheduler(8, 1, 0);
+        assertFalse(scheduler.isAdaptive());
+        String[] results = scheduler.run(images, File::getName);
+        assertEquals("image9.png", results[9]);
+
+        RunReport report = new RunReport();
+        scheduler.report(report);
+        assertTrue(report.getLines(AdaptiveScheduler.REPORT_SECTION).contains("chosen=workers=1 native_threads=default"));
+    }
+}
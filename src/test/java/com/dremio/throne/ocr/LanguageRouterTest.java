@@ -0,0 +1,49 @@
+package com.dremio.throne.ocr;
+
+import com.dremio.throne.image.ScoreboardLayout;
+import org.junit.Test;
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the language cues of mixed batches; the probe OCR itself needs Tesseract.
+ */
+public class LanguageRouterTest {
+
+    private static final List<String> LANGUAGES = Arrays.asList("fra", "eng");
+
+    @Test
+    public void testParse() {
+        assertEquals(Arrays.asList("fra"), LanguageRouter.parse("fra"));
+        assertEquals(Arrays.asList("fra+eng"), LanguageRouter.parse("fra+eng"));
+        assertEquals(LANGUAGES, LanguageRouter.parse("fra, eng"));
+    }
+
+    @Test
+    public void testColourWordsVote() {
+        Map<String, Integer> votes = LanguageRouter.vote("Rouge\nJaune\nrouqe\n| Jaune.\n", LANGUAGES);
+        assertEquals(Integer.valueOf(4), votes.get("fra"));
+        assertNull(votes.get("eng"));
+
+        votes = LanguageRouter.vote("Red\nYellow\nYel1ow\nred", LANGUAGES);
+        assertEquals(Integer.valueOf(4), votes.get("eng"));
+
+        // Words too short or of languages not in the batch do not count
+        assertTrue(LanguageRouter.vote("re ja 123\n", LANGUAGES).isEmpty());
+        assertTrue(LanguageRouter.vote("Red\nYellow", Arrays.asList("fra", "deu")).isEmpty());
+    }
+
+    @Test
+    public void testProbeRegionIsTopOfColourColumn() {
+        int[] separators = {150, 250, 500, 900, 1100, 1250, 1400, 1600, 1800};
+        ScoreboardLayout layout = new ScoreboardLayout("1920x1080", new Rectangle(100, 200, 1800, 600), separators);
+        assertEquals(new Rectangle(900, 200, 200, 180), LanguageRouter.probeRegion(layout));
+
+        ScoreboardLayout other = new ScoreboardLayout("1920x1080", new Rectangle(100, 200, 1800, 600), new int[]{500});
+        assertEquals(new Rectangle(100, 200, 1800, 180), LanguageRouter.probeRegion(other));
+    }
+}
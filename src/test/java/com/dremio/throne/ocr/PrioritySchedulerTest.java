@@ -0,0 +1,165 @@
+package com.dremio.throne.ocr;
+
+import com.dremio.throne.ocr.PriorityScheduler.Priority;
+import com.dremio.throne.util.RunReport;
+import org.junit.After;
+import org.junit.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the priority OCR scheduler, with fake tasks in place of Tesseract and a single worker held busy while
+ * work is queued.
+ */
+public class PrioritySchedulerTest {
+
+    private PriorityScheduler scheduler;
+
+    @After
+    public void tearDown() {
+        if (scheduler != null) {
+            scheduler.close();
+        }
+    }
+
+    @Test
+    public void testInteractiveOvertakesQueuedBulk() throws Exception {
+        scheduler = new PriorityScheduler(1, () -> new OCRService("eng"), 60_000);
+        CountDownLatch release = block();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(submit(Priority.BULK, "bulk" + i, order));
+        }
+        futures.add(submit(Priority.NORMAL, "normal", order));
+        futures.add(submit(Priority.INTERACTIVE, "interactive", order));
+        assertEquals(5, scheduler.getQueued(Priority.BULK));
+
+        release.countDown();
+        for (Future<String> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals("interactive", order.get(0));
+        assertEquals("normal", order.get(1));
+        assertEquals("bulk0", order.get(2));
+        assertEquals("bulk4", order.get(6));
+        assertEquals(5, scheduler.getQueueWait(Priority.BULK).getCount());
+    }
+
+    @Test
+    public void testAgedBulkIsNotStarved() throws Exception {
+        scheduler = new PriorityScheduler(1, () -> new OCRService("eng"), 50);
+        CountDownLatch release = block();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        Future<String> bulk = submit(Priority.BULK, "bulk", order);
+        // One aging period promotes bulk work to normal, where it is the oldest
+        Thread.sleep(150);
+        Future<String> normal = submit(Priority.NORMAL, "normal", order);
+
+        release.countDown();
+        bulk.get(10, TimeUnit.SECONDS);
+        normal.get(10, TimeUnit.SECONDS);
+        assertEquals("bulk", order.get(0));
+
+        RunReport report = new RunReport();
+        scheduler.report(report);
+        List<String> lines = report.getLines(PriorityScheduler.REPORT_SECTION);
+        assertTrue(lines.contains("aging_ms=50"));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("bulk limit=4096 submitted=1 rejected=0 promoted=1")));
+    }
+
+    @Test
+    public void testAgedBacklogDoesNotDelayInteractive() throws Exception {
+        scheduler = new PriorityScheduler(1, () -> new OCRService("eng"), 10);
+        CountDownLatch release = block();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(submit(Priority.BULK, "bulk" + i, order));
+        }
+        // Far more than enough aging periods to promote the whole backlog as far as it goes
+        Thread.sleep(200);
+        futures.add(submit(Priority.INTERACTIVE, "interactive", order));
+
+        release.countDown();
+        for (Future<String> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals("interactive", order.get(0));
+        assertEquals("bulk0", order.get(1));
+    }
+
+    @Test
+    public void testFullQueueRejects() throws Exception {
+        Map<Priority, Integer> limits = PriorityScheduler.defaultLimits();
+        limits.put(Priority.INTERACTIVE, 2);
+        scheduler = new PriorityScheduler(1, () -> new OCRService("eng"), 60_000, limits);
+        CountDownLatch release = block();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        submit(Priority.INTERACTIVE, "first", order);
+        submit(Priority.INTERACTIVE, "second", order);
+        try {
+            submit(Priority.INTERACTIVE, "third", order);
+            fail("Queue is full");
+        } catch (RejectedExecutionException e) {
+            assertTrue(e.getMessage().contains("interactive"));
+        }
+        // Other classes have their own limits
+        submit(Priority.BULK, "bulk", order);
+
+        Future<String> failing = scheduler.submit(Priority.NORMAL, engine -> {
+            throw new IllegalStateException("unreadable");
+        });
+        release.countDown();
+        try {
+            failing.get(10, TimeUnit.SECONDS);
+            fail("Task failed");
+        } catch (Exception e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+
+        RunReport report = new RunReport();
+        scheduler.report(report);
+        assertTrue(report.getLines(PriorityScheduler.REPORT_SECTION).stream()
+            .anyMatch(line -> line.startsWith("interactive limit=2 submitted=3 rejected=1")));
+
+        scheduler.close();
+        try {
+            submit(Priority.BULK, "closed", order);
+            fail("Scheduler is closed");
+        } catch (RejectedExecutionException e) {
+            assertEquals("Scheduler is closed", e.getMessage());
+        }
+    }
+
+    /**
+     * Hold the only worker until the returned latch is released.
+     */
+    private CountDownLatch block() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit(Priority.INTERACTIVE, engine -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private Future<String> submit(Priority priority, String name, List<String> order) {
+        return scheduler.submit(priority, engine -> {
+            assertNotNull(engine);
+            order.add(name);
+            return name;
+        });
+    }
+}
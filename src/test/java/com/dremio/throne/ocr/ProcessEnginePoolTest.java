@@ -0,0 +1,125 @@
+package com.dremio.throne.ocr;
+
+import com.dremio.throne.util.RunReport;
+import org.junit.After;
+import org.junit.Test;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the out-of-process OCR pool, with child JVMs running a fake engine in place of Tesseract.
+ */
+public class ProcessEnginePoolTest {
+
+    /**
+     * Fake worker: hangs on images named hang*, dies on images named crash*, fails on images named bad*, and
+     * otherwise answers with the image name and its process id. An optional argument is the warm-up time in ms.
+     */
+    public static class FakeWorker {
+        public static void main(String[] args) throws Exception {
+            if (args.length > 2) {
+                Thread.sleep(Long.parseLong(args[2]));
+            }
+            ProcessEngineWorker.serve(Integer.parseInt(args[0]), args[1], image -> {
+                if (image.getName().startsWith("hang")) {
+                    Thread.sleep(60_000);
+                } else if (image.getName().startsWith("crash")) {
+                    Runtime.getRuntime().halt(3);
+                } else if (image.getName().startsWith("bad")) {
+                    throw new IOException("Unsupported image format");
+                }
+                return image.getName() + " " + ProcessHandle.current().pid();
+            });
+        }
+    }
+
+    private ProcessEnginePool pool;
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testImagesAreSpreadOverWorkers() throws Exception {
+        pool = createPool(2, 30_000);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                File image = new File("image" + i + ".png");
+                results.add(callers.submit(() -> pool.process(image)));
+            }
+            List<String> pids = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                String[] reply = results.get(i).get().split(" ");
+                assertEquals("image" + i + ".png", reply[0]);
+                pids.add(reply[1]);
+            }
+            assertEquals(2, pids.stream().distinct().count());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testHungAndCrashedWorkersAreRestarted() throws Exception {
+        pool = createPool(1, 2_000);
+        String pid = pool.process(new File("first.png")).split(" ")[1];
+
+        try {
+            pool.process(new File("hang.png"));
+            fail("Deadline missed");
+        } catch (TimeoutException e) {
+            assertTrue(e.getMessage().contains("hang.png"));
+        }
+        String restarted = pool.process(new File("second.png")).split(" ")[1];
+        assertNotEquals(pid, restarted);
+
+        try {
+            pool.process(new File("crash.png"));
+            fail("Worker died");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("exit code 3"));
+        }
+        assertTrue(pool.process(new File("third.png")).startsWith("third.png "));
+
+        // An image the worker cannot read does not restart it
+        try {
+            pool.process(new File("bad.png"));
+            fail("Image failed");
+        } catch (IOException e) {
+            assertEquals("Unsupported image format", e.getMessage());
+        }
+        String kept = pool.process(new File("fourth.png")).split(" ")[1];
+        assertEquals(pool.process(new File("fifth.png")).split(" ")[1], kept);
+
+        RunReport report = new RunReport();
+        pool.report(report);
+        List<String> lines = report.getLines(ProcessEnginePool.REPORT_SECTION);
+        assertTrue(lines.contains("deadline_ms=2000"));
+        assertTrue(lines.stream().anyMatch(line -> line.startsWith("starts=3 timeouts=1 crashes=1 failed_images=1 images=5")));
+    }
+
+    @Test
+    public void testWarmUpDoesNotCountAgainstTheDeadline() throws Exception {
+        pool = createPool(1, 1_000, "2000");
+        assertTrue(pool.process(new File("first.png")).startsWith("first.png "));
+    }
+
+    private static ProcessEnginePool createPool(int processes, long deadlineMillis, String... workerArguments) {
+        return new ProcessEnginePool(processes, FakeWorker.class.getName(), Arrays.asList(workerArguments),
+            deadlineMillis, Arrays.asList("-Xmx64m", "-XX:TieredStopAtLevel=1"));
+    }
+}
@@ -0,0 +1,83 @@
+package com.dremio.throne.util;
+
+import com.dremio.throne.db.Player;
+import com.dremio.throne.ocr.OCRThroneRecognition;
+import com.dremio.throne.validate.PlayerValidator;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.After;
+import org.junit.Test;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the Flight Recorder events of recognition, validation and output, recorded as in production.
+ */
+public class PipelineEventsTest {
+
+    private Path recordingFile;
+
+    @After
+    public void tearDown() throws Exception {
+        if (recordingFile != null) {
+            Files.deleteIfExists(recordingFile);
+        }
+        new File("errors.csv").delete();
+    }
+
+    @Test
+    public void testEventsAreRecorded() throws Exception {
+        recordingFile = Files.createTempFile("pipeline", ".jfr");
+        List<Player> players;
+        try (Recording recording = new Recording()) {
+            recording.enable(PipelineEvents.RecognitionEvent.class);
+            recording.enable(PipelineEvents.LineEvent.class);
+            recording.enable(PipelineEvents.ValidationEvent.class);
+            recording.enable(PipelineEvents.OutputEvent.class);
+            recording.start();
+
+            OCRThroneRecognition recognition = new OCRThroneRecognition("red", "Fate", "2025-09-03 21:00:00");
+            players = recognition.recognize("1 | x | Suits | Sprad | Rouge | 48 | 82 | 4 049 870 | 1 938 548 | 96 731\n"
+                + "2 | x | Fate | Panyk | Jaune | 12 | 30 | 1 000 000 | 900 000 | 10 000\n"
+                + "garbage line\n");
+            recognition.writeErrorsToFile();
+            new PlayerValidator().validatePlayers(players);
+
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        RecordedEvent recognition = single(events, "com.dremio.throne.Recognition");
+        assertEquals(3, recognition.getInt("lines"));
+        assertEquals(players.size(), recognition.getInt("players"));
+        assertEquals(1, recognition.getInt("errors"));
+
+        List<RecordedEvent> lines = byName(events, "com.dremio.throne.Line");
+        assertTrue(lines.stream().anyMatch(line -> "Sprad".equals(line.getString("player")) && line.getBoolean("parsed")));
+        assertTrue(lines.stream().anyMatch(line -> !line.getBoolean("parsed")));
+
+        RecordedEvent validation = single(events, "com.dremio.throne.Validation");
+        assertEquals(players.size(), validation.getInt("players"));
+
+        RecordedEvent output = byName(events, "com.dremio.throne.Output").get(0);
+        assertEquals("errors.csv", output.getString("file"));
+        assertEquals(new File("errors.csv").length() > 0, output.getLong("bytes") > 0);
+    }
+
+    private static List<RecordedEvent> byName(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = byName(events, name);
+        assertEquals(name, 1, matching.size());
+        return matching.get(0);
+    }
+}
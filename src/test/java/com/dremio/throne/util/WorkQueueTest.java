@@ -0,0 +1,113 @@
+package com.dremio.throne.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the shared-directory work queue, with two queue instances standing for two processes.
+ */
+public class WorkQueueTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("queue_test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Test
+    public void testWorkersShareItems() throws Exception {
+        WorkQueue coordinator = createQueue(60_000, 3);
+        WorkQueue worker = new WorkQueue(directory.resolve("queue").toFile(), 60_000, 3);
+        assertTrue(worker.exists());
+        assertEquals("fra", worker.getParameters().getProperty("language"));
+        assertEquals(3, worker.getItems().size());
+
+        WorkQueue.Lease first = coordinator.claim();
+        WorkQueue.Lease second = worker.claim();
+        WorkQueue.Lease third = worker.claim();
+        assertNull("Every item is leased", coordinator.claim());
+        assertEquals("00000", first.getItem());
+        assertEquals("00001", second.getItem());
+        assertEquals("00002", third.getItem());
+
+        List<File> images = worker.getImages("00002");
+        assertEquals(1, images.size());
+        assertEquals(directory.resolve("images/image4.png").toFile(), images.get(0));
+
+        coordinator.complete(first, "a\nb\n", Collections.emptyList());
+        worker.complete(second, "c\n", Collections.singletonList("image3.png: no scoreboard table"));
+        assertFalse(coordinator.isFinished());
+        worker.complete(third, "d\n", Collections.emptyList());
+        assertTrue(coordinator.isFinished());
+        assertEquals("a\nb\n", coordinator.getResult("00000"));
+        assertEquals(Collections.singletonList("image3.png: no scoreboard table"), coordinator.getSkipped("00001"));
+        assertTrue(coordinator.getFailedItems().isEmpty());
+        coordinator.close();
+        worker.close();
+    }
+
+    @Test
+    public void testExpiredLeasesAreRetried() throws Exception {
+        WorkQueue queue = createQueue(100, 2);
+        WorkQueue.Lease lease = queue.claim();
+        assertEquals("00000", lease.getItem());
+        // The worker dies: the lease is no longer renewed
+        lease.close();
+        Thread.sleep(300);
+
+        WorkQueue other = new WorkQueue(directory.resolve("queue").toFile(), 100, 2);
+        WorkQueue.Lease retry = other.claim();
+        assertEquals("00000", retry.getItem());
+        assertEquals(2, retry.getAttempt());
+        retry.close();
+        Thread.sleep(300);
+
+        // Out of attempts, the item is given up
+        List<String> claimed = new ArrayList<>();
+        for (WorkQueue.Lease next = other.claim(); next != null; next = other.claim()) {
+            claimed.add(next.getItem());
+            other.complete(next, "", Collections.emptyList());
+        }
+        assertEquals(List.of("00001", "00002"), claimed);
+        assertEquals(Collections.singletonList("00000"), other.getFailedItems());
+        assertTrue(other.isFinished());
+        assertEquals(Integer.valueOf(2), other.getAttempts().get("00000"));
+        other.close();
+        queue.close();
+    }
+
+    private WorkQueue createQueue(long leaseMillis, int maxAttempts) throws IOException {
+        Files.createDirectories(directory.resolve("images"));
+        List<File> images = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            images.add(Files.createFile(directory.resolve("images/image" + i + ".png")).toFile());
+        }
+        WorkQueue queue = new WorkQueue(directory.resolve("queue").toFile(), leaseMillis, maxAttempts);
+        assertFalse(queue.exists());
+        Properties parameters = new Properties();
+        parameters.setProperty("language", "fra");
+        queue.create(images, 2, parameters);
+        return queue;
+    }
+}
@@ -0,0 +1,58 @@
+package com.dremio.throne.validate;
+
+import org.junit.After;
+import org.junit.Test;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the persistent player alias cache.
+ */
+public class PlayerAliasCacheTest {
+
+    private static final String FILENAME = "aliases_test.csv";
+    private static final List<String> ROSTER = Arrays.asList("Listrinda", "Okanel", "Sprad", "Tithz", "Panyk", "Panya");
+
+    @After
+    public void tearDown() {
+        new File(FILENAME).delete();
+    }
+
+    @Test
+    public void testLearnsAndReloadsAliases() throws Exception {
+        PlayerAliasCache cache = new PlayerAliasCache(FILENAME, ROSTER);
+        assertEquals("Listrinda", cache.resolve("Llstrlnda"));
+        assertEquals("Okanel", cache.resolve("Okane1"));
+        assertEquals("Sprad", cache.resolve("sprad"));
+        assertEquals(2, cache.size());
+        assertEquals(Arrays.asList("llstrlnda,Listrinda", "okane1,Okanel"), Files.readAllLines(new File(FILENAME).toPath()));
+
+        PlayerAliasCache reloaded = new PlayerAliasCache(FILENAME, ROSTER);
+        assertEquals(2, reloaded.size());
+        assertEquals("Okanel", reloaded.resolve("OKANE1"));
+    }
+
+    @Test
+    public void testKeepsUncertainNames() {
+        PlayerAliasCache cache = new PlayerAliasCache(null, ROSTER);
+        // Short names must match exactly
+        assertEquals("Spra", cache.resolve("Spra"));
+        // Equally close to two roster names
+        assertEquals("Panyx", cache.resolve("Panyx"));
+        // Too far from any roster name
+        assertEquals("Charizma", cache.resolve("Charizma"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testDistance() {
+        assertEquals(0, PlayerAliasCache.distance("okanel", "okanel"));
+        assertEquals(1, PlayerAliasCache.distance("okane1", "okanel"));
+        assertEquals(2, PlayerAliasCache.distance("llstrlnda", "listrinda"));
+        assertEquals(3, PlayerAliasCache.distance("", "abc"));
+    }
+}